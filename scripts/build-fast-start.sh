@@ -0,0 +1,32 @@
+#!/usr/bin/env bash
+# Gera o pacote de inicializacao rapida: contexto pre-processado (Spring AOT)
+# + arquivo CDS (class-data sharing) produzido por uma execucao de treino.
+#
+# Uso: scripts/build-fast-start.sh
+# Execucao: java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar demo-0.0.1-SNAPSHOT.jar
+#           (a partir de target/fast-start)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=target/demo-0.0.1-SNAPSHOT.jar
+OUT=target/fast-start
+
+./mvnw -B -Pfast-start -DskipTests package
+
+rm -rf "$OUT"
+java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+
+# Execucao de treino: o contexto sobe ate o refresh e encerra, gravando as classes carregadas.
+# Flyway e acesso a metadados JDBC ficam desligados para o treino nao depender do banco.
+(
+  cd "$OUT"
+  java -XX:ArchiveClassesAtExit=app.jsa \
+       -Dspring.context.exit=onRefresh \
+       -Dspring.aot.enabled=true \
+       -Dspring.flyway.enabled=false \
+       -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+       -jar "$(basename "$JAR")"
+)
+
+echo "Pacote gerado em $OUT (arquivo CDS: $OUT/app.jsa)"
@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Compara o tempo de inicializacao do jar padrao com o pacote AOT + CDS
+# gerado por scripts/build-fast-start.sh.
+#
+# Uso: scripts/startup-benchmark.sh [execucoes]   (padrao: 5)
+# Cada execucao sobe o contexto ate o refresh e le o tempo de
+# "Started ApibankApplication in X seconds" do log.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+JAR_NAME=demo-0.0.1-SNAPSHOT.jar
+FAST_DIR=target/fast-start
+
+if [ ! -f "$FAST_DIR/app.jsa" ]; then
+  echo "Arquivo CDS nao encontrado; execute scripts/build-fast-start.sh antes." >&2
+  exit 1
+fi
+
+startup_seconds() {
+  java "$@" -Dspring.context.exit=onRefresh -jar "$JAR_NAME" 2>&1 \
+    | sed -n 's/.*Started ApibankApplication in \([0-9.]*\) seconds.*/\1/p'
+}
+
+measure() {
+  local label=$1; shift
+  local total=0 t
+  for _ in $(seq "$RUNS"); do
+    t=$(startup_seconds "$@")
+    if [ -z "$t" ]; then
+      echo "$label: aplicacao nao inicializou" >&2
+      exit 1
+    fi
+    total=$(echo "$total + $t" | bc -l)
+  done
+  printf '%-10s media de %d execucoes: %.3f s\n' "$label" "$RUNS" "$(echo "$total / $RUNS" | bc -l)"
+}
+
+cd "$FAST_DIR"
+measure "padrao"
+measure "aot+cds" -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true
@@ -0,0 +1,53 @@
+package com.examplex.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orçamento de chamadas à API iCred de cada parceiro por operação (api-quota.budgets.<operação>.*, com
+ * valores específicos em api-quota.partners.<parceiro>.<operação>.*) e regras do trabalho em lote
+ * (filas de baixa prioridade): janelas fora de pico e fração do orçamento que pode consumir.
+ *
+ * Operações: create_group, create_user, add_to_group, block, unblock. Orçamento 0 = sem limite.
+ */
+@Data
+@ConfigurationProperties(prefix = "api-quota")
+public class ApiQuotaProperties {
+
+    // Orçamento padrão de cada parceiro
+    private Map<String, Budget> budgets = new LinkedHashMap<>();
+
+    // Orçamentos específicos por parceiro (sobrepõem os padrão da mesma operação)
+    private Map<String, Map<String, Budget>> partners = new LinkedHashMap<>();
+
+    // Instâncias da aplicação: a contagem é por instância e cada uma aplica 1/instances de cada orçamento
+    private int instances = 1;
+
+    private Bulk bulk = new Bulk();
+
+    @Data
+    public static class Budget {
+
+        private long hourly;
+
+        private long daily;
+    }
+
+    @Data
+    public static class Bulk {
+
+        // Filas (ProcessingLane) tratadas como trabalho em lote
+        private List<String> lanes = new ArrayList<>(List.of("CREATE"));
+
+        // Janelas fora de pico (HH:mm-HH:mm, podem cruzar a meia-noite); vazio = a qualquer hora
+        private List<String> windows = new ArrayList<>();
+
+        // Fração de cada orçamento disponível para o lote; o restante fica reservado às operações urgentes
+        private double share = 0.7;
+    }
+}
@@ -0,0 +1,133 @@
+package com.examplex.demo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Orçamento de conexões do datasource, coordenado com a concorrência do processamento.
+ *
+ * O pool é dimensionado como: conexões do processador + reservadas para a API + segundo plano.
+ * O processador só usa o banco através de {@link #withProcessorConnection}/{@link #runWithProcessorConnection}, limitado às suas
+ * próprias permissões, para que os endpoints sempre encontrem conexões livres.
+ *
+ * O trabalho em segundo plano (journal, carga em lote, exportação, arquivamento e token compartilhado) usa
+ * {@link #withBackgroundConnection}/{@link #runWithBackgroundConnection}, com permissões próprias: uma
+ * exportação longa ou um arquivamento não ocupam as conexões do processador nem as da API.
+ */
+@Component
+@Slf4j
+public class ConnectionBudget {
+
+    private final int processorConnections;
+    private final int apiReservedConnections;
+    private final int backgroundConnections;
+    private final Semaphore processorPermits;
+    private final Semaphore backgroundPermits;
+    private final Timer processorWaitTimer;
+    private final Timer backgroundWaitTimer;
+
+    public ConnectionBudget(Environment environment, MeterRegistry meterRegistry) {
+        this.processorConnections = processorConnections(environment);
+        this.apiReservedConnections = apiReservedConnections(environment);
+        this.backgroundConnections = backgroundConnections(environment);
+        this.processorPermits = new Semaphore(processorConnections, true);
+        // Sem conexões de segundo plano configuradas, o trabalho em segundo plano ainda avança uma operação por vez
+        this.backgroundPermits = new Semaphore(Math.max(1, backgroundConnections), true);
+
+        this.processorWaitTimer = Timer.builder("datasource.budget.processor_wait")
+                .description("Tempo de espera do processador por uma conexão do seu orçamento")
+                .register(meterRegistry);
+        Gauge.builder("datasource.budget.processor_available", processorPermits, Semaphore::availablePermits)
+                .register(meterRegistry);
+        this.backgroundWaitTimer = Timer.builder("datasource.budget.background_wait")
+                .description("Tempo de espera do trabalho em segundo plano por uma conexão do seu orçamento")
+                .register(meterRegistry);
+        Gauge.builder("datasource.budget.background_available", backgroundPermits, Semaphore::availablePermits)
+                .register(meterRegistry);
+
+        log.info("Orçamento de conexões: processador={}, API={}, segundo plano={}, pool={}",
+                processorConnections, apiReservedConnections, backgroundConnections, getPoolSize());
+    }
+
+    public int getPoolSize() {
+        return processorConnections + apiReservedConnections + backgroundConnections;
+    }
+
+    /**
+     * Tamanho total do pool (usado quando spring.datasource.hikari.maximum-pool-size não é informado)
+     */
+    public static int poolSize(Environment environment) {
+        return processorConnections(environment) + apiReservedConnections(environment)
+                + backgroundConnections(environment);
+    }
+
+    /**
+     * Executa uma operação de banco do processador dentro do seu orçamento de conexões
+     */
+    public <T> T withProcessorConnection(Supplier<T> operation) {
+        return withPermit(processorPermits, processorWaitTimer, operation);
+    }
+
+    public void runWithProcessorConnection(Runnable operation) {
+        withProcessorConnection(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executa uma operação de banco em segundo plano dentro do seu orçamento de conexões.
+     * A operação não deve chamar outra operação de segundo plano (as permissões não são reentrantes).
+     */
+    public <T> T withBackgroundConnection(Supplier<T> operation) {
+        return withPermit(backgroundPermits, backgroundWaitTimer, operation);
+    }
+
+    public void runWithBackgroundConnection(Runnable operation) {
+        withBackgroundConnection(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private static <T> T withPermit(Semaphore permits, Timer waitTimer, Supplier<T> operation) {
+        long start = System.nanoTime();
+        permits.acquireUninterruptibly();
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        try {
+            return operation.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Conexões do processador: configuradas explicitamente ou derivadas da quantidade de workers
+     * (cada worker faz no máximo uma operação de banco por vez, mais a busca de pendentes e o reabastecimento de BLOCK)
+     */
+    static int processorConnections(Environment environment) {
+        Integer configured = environment.getProperty("datasource.budget.processor", Integer.class);
+        if (configured != null && configured > 0) {
+            return configured;
+        }
+        int workers = environment.getProperty("login-management.processing.workers", Integer.class, 4);
+        return workers + 2;
+    }
+
+    static int apiReservedConnections(Environment environment) {
+        return environment.getProperty("datasource.budget.api-reserved", Integer.class, 4);
+    }
+
+    static int backgroundConnections(Environment environment) {
+        return environment.getProperty("datasource.budget.background", Integer.class, 2);
+    }
+}
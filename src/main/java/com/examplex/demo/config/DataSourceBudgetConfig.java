@@ -0,0 +1,32 @@
+package com.examplex.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@Slf4j
+public class DataSourceBudgetConfig {
+
+    /**
+     * Dimensiona o pool Hikari pelo orçamento de conexões, a menos que o tamanho seja configurado explicitamente
+     */
+    @Bean
+    public static BeanPostProcessor hikariPoolBudgetPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    int poolSize = ConnectionBudget.poolSize(environment);
+                    dataSource.setMaximumPoolSize(poolSize);
+                    log.info("Pool {} dimensionado pelo orçamento de conexões: {}", beanName, poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package com.examplex.demo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PartnerProperties.class)
+public class PartnerConfig {
+}
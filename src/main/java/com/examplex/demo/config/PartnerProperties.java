@@ -0,0 +1,59 @@
+package com.examplex.demo.config;
+
+import com.examplex.demo.service.concurrency.AdaptiveConcurrencyProperties;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parceiros atendidos pela aplicação (external-api.partners.<id>.*).
+ *
+ * Os valores globais (external-api.partner-uuid, authorization-header, user-profile-id) valem como
+ * padrão para os parceiros que não os informarem; sem nenhum parceiro configurado, é criado o parceiro
+ * "default" apenas com os valores globais (configuração anterior).
+ */
+@Data
+@ConfigurationProperties(prefix = "external-api")
+public class PartnerProperties {
+
+    private String partnerUuid;
+
+    private String authorizationHeader;
+
+    private Integer userProfileId = 5;
+
+    // Parceiro dos itens cujo credenciador não está mapeado
+    private String defaultPartner = "default";
+
+    private Map<String, PartnerConfig> partners = new LinkedHashMap<>();
+
+    // Limite adaptativo de requisições simultâneas, aplicado a cada parceiro
+    private AdaptiveConcurrencyProperties adaptiveConcurrency = new AdaptiveConcurrencyProperties();
+
+    @Data
+    public static class PartnerConfig {
+
+        private String partnerUuid;
+
+        private String authorizationHeader;
+
+        private Integer userProfileId;
+
+        // Credenciadores (crm_Credenciador_Id) roteados para este parceiro
+        private List<Integer> credenciadorIds = new ArrayList<>();
+
+        // Itens do parceiro em processamento simultâneo
+        private int maxInFlight = 4;
+
+        // Limite de requisições por segundo à API iCred
+        private double requestsPerSecond = 10;
+
+        private int connectTimeoutMs = 10000;
+
+        private int readTimeoutMs = 30000;
+    }
+}
@@ -0,0 +1,50 @@
+package com.examplex.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ProcessingExecutorConfig {
+
+    @Value("${login-management.processing.workers:4}")
+    private int workers;
+
+    @Value("${login-management.shutdown.executor-await-seconds:10}")
+    private int awaitTerminationSeconds;
+
+    /**
+     * Pool de workers que processa os itens de Login Management
+     */
+    @Bean
+    public ThreadPoolTaskExecutor loginManagementExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("lm-worker-");
+        // Durante o desligamento as continuações (UNBLOCK agendado) ainda precisam ser aceitas;
+        // quem deixa de aceitar itens novos é o próprio processamento (ProcessingLifecycle)
+        executor.setAcceptTasksAfterContextClose(true);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        return executor;
+    }
+
+    /**
+     * Pool das chamadas com hedging (requisição original e requisição de reforço).
+     * Ao saturar, a chamada é feita na própria thread, sem hedging.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor externalApiHedgeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers * 2);
+        executor.setMaxPoolSize(workers * 2);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("api-hedge-");
+        executor.setAcceptTasksAfterContextClose(true);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        return executor;
+    }
+}
\ No newline at end of file
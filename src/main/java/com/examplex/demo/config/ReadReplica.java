@@ -0,0 +1,36 @@
+package com.examplex.demo.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Escopo de leitura na réplica: consultas executadas dentro de {@link #read} usam o datasource secundário
+ * (quando configurado). Apenas para leituras que aceitam dados defasados (estatísticas, relatórios,
+ * exportação); o processamento e as gravações usam sempre o primário.
+ *
+ * A escolha é feita ao obter a conexão: uma transação já aberta na thread continua no datasource em que começou.
+ */
+public final class ReadReplica {
+
+    private static final ThreadLocal<Boolean> READ_SCOPE = new ThreadLocal<>();
+
+    private ReadReplica() {
+    }
+
+    public static <T> T read(Supplier<T> query) {
+        Boolean previous = READ_SCOPE.get();
+        READ_SCOPE.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            if (previous == null) {
+                READ_SCOPE.remove();
+            } else {
+                READ_SCOPE.set(previous);
+            }
+        }
+    }
+
+    static boolean isReadScope() {
+        return Boolean.TRUE.equals(READ_SCOPE.get());
+    }
+}
@@ -0,0 +1,54 @@
+package com.examplex.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+/**
+ * Datasources: o primário (spring.datasource.*, dimensionado pelo orçamento de conexões) e, opcionalmente,
+ * uma réplica somente leitura (datasource.replica.*) para estatísticas, relatórios e exportação.
+ *
+ * A réplica é decidida em tempo de execução pela presença de datasource.replica.url (e não por condição
+ * de bean), como nas demais escolhas por propriedade, para continuar configurável com Spring AOT.
+ */
+@Configuration
+@Slf4j
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public ReadReplicaRoutingDataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                                   Environment environment, MeterRegistry meterRegistry) {
+        String replicaUrl = environment.getProperty("datasource.replica.url");
+        if (replicaUrl == null || replicaUrl.isBlank()) {
+            log.info("Réplica de leitura não configurada: todas as consultas usam o datasource primário");
+            return new ReadReplicaRoutingDataSource(primaryDataSource, null, meterRegistry);
+        }
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("ApibankReplicaPool");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(environment.getProperty("datasource.replica.username", properties.determineUsername()));
+        replica.setPassword(environment.getProperty("datasource.replica.password", properties.determinePassword()));
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setMaximumPoolSize(environment.getProperty("datasource.replica.pool-size", Integer.class, 4));
+        replica.setMinimumIdle(environment.getProperty("datasource.replica.minimum-idle", Integer.class, 1));
+        replica.setConnectionTimeout(environment.getProperty("datasource.replica.connection-timeout-ms", Long.class, 5000L));
+        replica.setReadOnly(true);
+
+        log.info("Réplica de leitura configurada: {} (pool {})", replicaUrl, replica.getMaximumPoolSize());
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replica, meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.examplex.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Datasource da aplicação: direciona as conexões obtidas dentro de {@link ReadReplica#read} para a réplica
+ * e todas as demais para o primário. Sem réplica configurada, tudo vai para o primário.
+ *
+ * Se a réplica não entregar uma conexão, a consulta é atendida pelo primário (contabilizado em
+ * datasource.replica.fallback), para que relatórios não falhem por indisponibilidade da réplica.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final HikariDataSource replica;
+    private final Counter fallbackCounter;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, HikariDataSource replica, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.fallbackCounter = Counter.builder("datasource.replica.fallback")
+                .description("Leituras da réplica atendidas pelo primário por falha ao obter conexão")
+                .register(meterRegistry);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        if (replica != null) {
+            targets.put(REPLICA, replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public boolean hasReplica() {
+        return replica != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replica != null && ReadReplica.isReadScope() ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!REPLICA.equals(determineCurrentLookupKey())) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            fallbackCounter.increment();
+            log.warn("Réplica indisponível, leitura atendida pelo primário: {}", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (replica != null) {
+            replica.close();
+        }
+    }
+}
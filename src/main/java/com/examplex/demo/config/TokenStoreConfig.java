@@ -0,0 +1,38 @@
+package com.examplex.demo.config;
+
+import com.examplex.demo.service.token.FileTokenStore;
+import com.examplex.demo.service.token.InMemoryTokenStore;
+import com.examplex.demo.service.token.JdbcTokenStore;
+import com.examplex.demo.service.token.TokenStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+
+@Configuration
+@Slf4j
+public class TokenStoreConfig {
+
+    /**
+     * Armazenamento do token de acesso: jdbc (tabela compartilhada), file (arquivo local) ou memory.
+     * Escolhido em tempo de execução (e não por condição de bean), para funcionar também com Spring AOT.
+     */
+    @Bean
+    public TokenStore tokenStore(@Value("${token-store.type:memory}") String type,
+                                 @Value("${token-store.file.path:token-store.json}") String filePath,
+                                 JdbcTemplate jdbcTemplate,
+                                 ConnectionBudget connectionBudget,
+                                 ObjectMapper objectMapper) {
+        log.info("Armazenamento do token de acesso: {}", type);
+        return switch (type.trim().toLowerCase()) {
+            case "jdbc" -> new JdbcTokenStore(jdbcTemplate, connectionBudget);
+            case "file" -> new FileTokenStore(Path.of(filePath), objectMapper);
+            case "memory" -> new InMemoryTokenStore();
+            default -> throw new IllegalArgumentException("token-store.type inválido: " + type);
+        };
+    }
+}
@@ -1,14 +1,44 @@
 package com.examplex.demo.controller;
 
+import com.examplex.demo.config.ReadReplica;
+import com.examplex.demo.model.dto.EnqueueResultDto;
+import com.examplex.demo.model.projection.LoginManagementStatusView;
+import com.examplex.demo.model.projection.LoginManagementSummaryView;
+import com.examplex.demo.repository.LoginManagementRepository;
+import com.examplex.demo.repository.LoginManagementSearchCriteria;
 import com.examplex.demo.service.AuthTokenService;
 import com.examplex.demo.service.LoginManagementService;
 import com.examplex.demo.service.ExternalApiService;
+import com.examplex.demo.service.SystemStatusService;
+import com.examplex.demo.service.archive.ArchiveRunResult;
+import com.examplex.demo.service.archive.LoginManagementArchiveService;
+import com.examplex.demo.service.enqueue.LoginManagementEnqueueService;
+import com.examplex.demo.service.event.ItemStatusEvent;
+import com.examplex.demo.service.event.ItemStatusEventPublisher;
+import com.examplex.demo.service.export.ExportFilter;
+import com.examplex.demo.service.export.LoginManagementExportService;
+import com.examplex.demo.service.latency.LatencyTracker;
+import com.examplex.demo.service.quota.ApiQuotaAccountant;
+import com.examplex.demo.service.status.ItemStatusCache;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/icredGvnUser")
@@ -16,9 +46,20 @@ import java.util.Map;
 @Slf4j
 public class IcredGvnUserController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final LoginManagementService loginManagementService;
     private final AuthTokenService authTokenService;
     private final ExternalApiService externalApiService;
+    private final SystemStatusService systemStatusService;
+    private final LoginManagementEnqueueService enqueueService;
+    private final LatencyTracker latencyTracker;
+    private final ItemStatusEventPublisher eventPublisher;
+    private final ItemStatusCache statusCache;
+    private final LoginManagementArchiveService archiveService;
+    private final LoginManagementExportService exportService;
+    private final LoginManagementRepository loginManagementRepository;
+    private final ApiQuotaAccountant quotaAccountant;
 
     /**
      * Processa todos os itens pendentes da fila
@@ -42,6 +83,37 @@ public class IcredGvnUserController {
         }
     }
 
+    /**
+     * Enfileira solicitações em lote (array JSON ou CSV com cabeçalho, conforme o Content-Type)
+     */
+    @PostMapping(value = "/enqueue", consumes = {"application/json", "text/csv"})
+    public ResponseEntity<Map<String, Object>> enqueue(HttpServletRequest request) {
+        try {
+            boolean csv = request.getContentType() != null && request.getContentType().startsWith("text/csv");
+            log.info("Enfileiramento em lote iniciado via API ({})", csv ? "CSV" : "JSON");
+
+            EnqueueResultDto result = csv
+                    ? enqueueService.enqueueCsv(request.getInputStream())
+                    : enqueueService.enqueueJson(request.getInputStream());
+
+            Map<String, Object> body = Map.of(
+                    "success", result.getError() == null,
+                    "message", result.getError() != null ? result.getError() : "Itens enfileirados com sucesso",
+                    "result", result
+            );
+            if (result.getError() == null) {
+                return ResponseEntity.ok(body);
+            }
+            return result.isDatabaseError() ? ResponseEntity.status(500).body(body) : ResponseEntity.badRequest().body(body);
+        } catch (Exception e) {
+            log.error("Erro no enfileiramento em lote: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "success", false,
+                    "message", "Erro no enfileiramento: " + e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Testa a obtenção de token de autenticação
      */
@@ -92,17 +164,19 @@ public class IcredGvnUserController {
     }
 
     /**
-     * Retorna estatísticas do sistema
+     * Retorna estatísticas do sistema (snapshot em memória, sem consulta ao banco por requisição)
      */
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
         try {
-            long pendingCount = loginManagementService.getPendingCount();
+            SystemStatusService.StatusSnapshot snapshot = systemStatusService.getSnapshot();
+            long pendingCount = snapshot.pendingCount();
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
                     "stats", Map.of(
                             "pendingItems", pendingCount,
+                            "snapshotAgeMs", snapshot.ageMs(),
                             "systemStatus", pendingCount > 0 ? "PROCESSING_NEEDED" : "UP_TO_DATE",
                             "statusCodes", Map.of(
                                     "queue", -4106,
@@ -127,6 +201,236 @@ public class IcredGvnUserController {
         }
     }
 
+    /**
+     * Retorna os percentis (p50/p95/p99, em ms) de espera na fila, processamento e tempo total,
+     * por janela deslizante e tipo de management
+     */
+    @GetMapping("/stats/latency")
+    public ResponseEntity<Map<String, Object>> getLatency() {
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "latency", latencyTracker.percentiles(),
+                    "message", "Latências recuperadas com sucesso"
+            ));
+        } catch (Exception e) {
+            log.error("Erro ao recuperar latências: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "success", false,
+                    "message", "Erro ao recuperar latências: " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Uso e saldo do orçamento da API iCred por parceiro e operação (hora e dia) e situação do trabalho
+     * em lote de cada parceiro. Os valores são desta instância (scope = instance).
+     */
+    @GetMapping("/quota")
+    public ResponseEntity<Map<String, Object>> getQuota() {
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "quota", quotaAccountant.snapshot()
+        ));
+    }
+
+    /**
+     * Executa o arquivamento de itens concluídos e retorna o custo da movimentação
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveManually() {
+        try {
+            log.info("Arquivamento manual iniciado via API");
+            ArchiveRunResult result = archiveService.archive();
+            if (result == null) {
+                return ResponseEntity.status(409).body(Map.of(
+                        "success", false,
+                        "message", "Arquivamento já está em execução"
+                ));
+            }
+
+            return ResponseEntity.ok(Map.of(
+                    "success", result.error() == null,
+                    "archive", result,
+                    "avgBatchMs", result.avgBatchMs(),
+                    "message", "Arquivamento executado: " + result.rowsMoved() + " itens movidos"
+            ));
+        } catch (Exception e) {
+            log.error("Erro no arquivamento manual: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "success", false,
+                    "message", "Erro no arquivamento: " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Exporta as solicitações (tabela principal e histórico) em CSV ou NDJSON, em streaming.
+     * Filtros opcionais: período de criação (from/to, inclusivos), tipo, status e credenciador.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> export(@RequestParam(defaultValue = "csv") String format,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(required = false) Integer managementType,
+                                    @RequestParam(required = false) Integer managementStatus,
+                                    @RequestParam(required = false) Integer credenciadorId,
+                                    @RequestParam(defaultValue = "true") boolean includeHistory) {
+        LoginManagementExportService.Format exportFormat;
+        try {
+            exportFormat = LoginManagementExportService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Formato inválido: " + format + " (csv ou ndjson)"
+            ));
+        }
+
+        ExportFilter filter = new ExportFilter(from, to, managementType, managementStatus, credenciadorId, includeHistory);
+        log.info("Exportação {} iniciada via API: {}", exportFormat, filter);
+
+        StreamingResponseBody body = output -> exportService.export(filter, exportFormat, output);
+        boolean csv = exportFormat == LoginManagementExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"login-management." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
+    /**
+     * Resultado da última execução do arquivamento
+     */
+    @GetMapping("/stats/archive")
+    public ResponseEntity<Map<String, Object>> getLastArchive() {
+        ArchiveRunResult result = archiveService.getLastRun();
+        if (result == null) {
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", "Nenhum arquivamento executado desde o início da aplicação"
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "archive", result,
+                "avgBatchMs", result.avgBatchMs()
+        ));
+    }
+
+    /**
+     * Consulta o status de um item por id (servido do cache de status)
+     */
+    @GetMapping("/items/{id}")
+    public ResponseEntity<Map<String, Object>> getItemStatus(@PathVariable Integer id) {
+        try {
+            return itemStatusResponse(statusCache.findById(id));
+        } catch (Exception e) {
+            log.error("Erro ao consultar status do item {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "success", false,
+                    "message", "Erro ao consultar status: " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Consulta o status do item mais recente de um userCode ou externalKey (servido do cache de status)
+     */
+    @GetMapping("/items")
+    public ResponseEntity<Map<String, Object>> findItemStatus(@RequestParam(required = false) String userCode,
+                                                              @RequestParam(required = false) String externalKey) {
+        if ((userCode == null || userCode.trim().isEmpty()) && (externalKey == null || externalKey.trim().isEmpty())) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "userCode ou externalKey é obrigatório"
+            ));
+        }
+
+        try {
+            return itemStatusResponse(userCode != null && !userCode.trim().isEmpty()
+                    ? statusCache.findLatestByUserCode(userCode.trim())
+                    : statusCache.findLatestByExternalKey(externalKey.trim()));
+        } catch (Exception e) {
+            log.error("Erro ao consultar status: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "success", false,
+                    "message", "Erro ao consultar status: " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Lista solicitações (mais recentes primeiro) com paginação por cursor: nextCursor da resposta é
+     * informado em "after" para obter a página seguinte. Filtros opcionais: status, tipo, credenciador,
+     * ferramenta e período de criação (from/to, inclusivos).
+     */
+    @GetMapping("/requests")
+    public ResponseEntity<Map<String, Object>> searchRequests(
+            @RequestParam(required = false) Integer managementStatus,
+            @RequestParam(required = false) Integer managementType,
+            @RequestParam(required = false) Integer credenciadorId,
+            @RequestParam(required = false) Integer ferramentaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "limit deve estar entre 1 e " + MAX_PAGE_SIZE
+            ));
+        }
+
+        try {
+            // Um item a mais indica se existe a próxima página
+            LoginManagementSearchCriteria criteria = new LoginManagementSearchCriteria(managementStatus, managementType,
+                    credenciadorId, ferramentaId, from, to, after, limit + 1);
+            List<LoginManagementSummaryView> found =
+                    ReadReplica.read(() -> loginManagementRepository.searchSummaries(criteria));
+            boolean hasMore = found.size() > limit;
+            List<LoginManagementSummaryView> page = hasMore ? found.subList(0, limit) : found;
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("items", page);
+            body.put("nextCursor", hasMore ? page.get(page.size() - 1).id() : null);
+            return ResponseEntity.ok(body);
+        } catch (Exception e) {
+            log.error("Erro ao listar solicitações: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "success", false,
+                    "message", "Erro ao listar solicitações: " + e.getMessage()
+            ));
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> itemStatusResponse(Optional<LoginManagementStatusView> item) {
+        if (item.isEmpty()) {
+            return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "message", "Item não encontrado"
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "item", item.get()
+        ));
+    }
+
+    /**
+     * Stream (SSE) das mudanças de status dos itens, opcionalmente filtrado por item e/ou credenciador.
+     * Substitui a consulta periódica à crm_Login_Management: o evento traz o status e, apenas no stream
+     * de um item (itemId informado), os dados complementares gravados (ex.: nova senha do RESET).
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ItemStatusEvent>> streamStatusEvents(
+            @RequestParam(required = false) Integer itemId,
+            @RequestParam(required = false) Integer credenciadorId) {
+        log.info("Stream de status aberto (itemId: {}, credenciadorId: {})", itemId, credenciadorId);
+        return eventPublisher.stream(itemId, credenciadorId);
+    }
+
     /**
      * Bloqueia um usuário diretamente (endpoint de teste)
      */
@@ -280,32 +584,16 @@ public class IcredGvnUserController {
     }
 
     /**
-     * Verifica a saúde geral do sistema
+     * Verifica a saúde geral do sistema (snapshot em memória, atualizado em segundo plano)
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
         try {
-            boolean apiHealthy = false;
-            boolean dbHealthy = false;
-            String tokenStatus = "UNKNOWN";
-            long pendingCount = 0;
-
-            // Testa a conexão com a API
-            try {
-                String token = authTokenService.getValidToken();
-                apiHealthy = token != null && !token.isEmpty();
-                tokenStatus = apiHealthy ? "VALID" : "INVALID";
-            } catch (Exception e) {
-                tokenStatus = "ERROR: " + e.getMessage();
-            }
-
-            // Testa a conexão com o banco
-            try {
-                pendingCount = loginManagementService.getPendingCount();
-                dbHealthy = true;
-            } catch (Exception e) {
-                log.error("Erro na conexão com banco: {}", e.getMessage());
-            }
+            SystemStatusService.StatusSnapshot snapshot = systemStatusService.getSnapshot();
+            boolean apiHealthy = snapshot.apiHealthy();
+            boolean dbHealthy = snapshot.dbHealthy();
+            String tokenStatus = snapshot.tokenStatus();
+            long pendingCount = snapshot.pendingCount();
 
             boolean overallHealthy = apiHealthy && dbHealthy;
 
@@ -316,7 +604,8 @@ public class IcredGvnUserController {
                             "api", apiHealthy ? "HEALTHY" : "UNHEALTHY",
                             "database", dbHealthy ? "HEALTHY" : "UNHEALTHY",
                             "tokenStatus", tokenStatus,
-                            "pendingItems", pendingCount
+                            "pendingItems", pendingCount,
+                            "snapshotAgeMs", snapshot.ageMs()
                     ),
                     "message", "Health check executado com sucesso"
             ));
@@ -0,0 +1,28 @@
+package com.examplex.demo.health;
+
+import com.examplex.demo.service.SystemStatusService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saúde da autenticação na API iCred, servida a partir do snapshot em memória
+ */
+@Component
+@RequiredArgsConstructor
+public class IcredApiHealthIndicator implements HealthIndicator {
+
+    private final SystemStatusService systemStatusService;
+
+    @Override
+    public Health health() {
+        SystemStatusService.StatusSnapshot snapshot = systemStatusService.getSnapshot();
+
+        Health.Builder builder = snapshot.apiHealthy() ? Health.up() : Health.down();
+        return builder
+                .withDetail("tokenStatus", snapshot.tokenStatus())
+                .withDetail("snapshotAgeMs", snapshot.ageMs())
+                .build();
+    }
+}
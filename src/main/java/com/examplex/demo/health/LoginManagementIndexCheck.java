@@ -0,0 +1,96 @@
+package com.examplex.demo.health;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifica na inicialização se os índices esperados de crm_Login_Management (migrations V4 e V5) existem e
+ * estão habilitados. A tabela não é criada pelo Flyway nem pelo Hibernate (ddl-auto=none): sem o índice
+ * filtrado da fila, a busca de pendentes volta a varrer a tabela inteira.
+ *
+ * A V4 só cria os índices online (Enterprise, Azure SQL); nas demais edições eles ficam para a janela de
+ * manutenção e aparecem aqui como ausentes. A ausência é apenas registrada em log e nos detalhes do health,
+ * sem derrubar a aplicação.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginManagementIndexCheck implements HealthIndicator {
+
+    // Índice -> filtro esperado (null para índices sem filtro)
+    private static final Map<String, String> EXPECTED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        EXPECTED_INDEXES.put("IX_crm_Login_Management_Pending", "gpa_DropDown_ManagementLoginStatus");
+        EXPECTED_INDEXES.put("IX_crm_Login_Management_UserCode", null);
+        EXPECTED_INDEXES.put("IX_crm_Login_Management_ExternalKey", null);
+        EXPECTED_INDEXES.put("IX_crm_Login_Management_Status", null);
+    }
+
+    private static final String INDEXES_SQL = "SELECT name, is_disabled, has_filter, filter_definition " +
+            "FROM sys.indexes WHERE object_id = OBJECT_ID('crm_Login_Management') AND name IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile List<String> problems;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndexes() {
+        try {
+            Map<String, Map<String, Object>> found = new LinkedHashMap<>();
+            jdbcTemplate.query(INDEXES_SQL, rs -> {
+                Map<String, Object> index = new LinkedHashMap<>();
+                index.put("disabled", rs.getBoolean("is_disabled"));
+                index.put("hasFilter", rs.getBoolean("has_filter"));
+                index.put("filter", rs.getString("filter_definition"));
+                found.put(rs.getString("name"), index);
+            });
+
+            List<String> result = new ArrayList<>();
+            EXPECTED_INDEXES.forEach((name, expectedFilterColumn) -> {
+                Map<String, Object> index = found.get(name);
+                if (index == null) {
+                    result.add(name + ": ausente");
+                } else if (Boolean.TRUE.equals(index.get("disabled"))) {
+                    result.add(name + ": desabilitado");
+                } else if (expectedFilterColumn != null && (!Boolean.TRUE.equals(index.get("hasFilter"))
+                        || !String.valueOf(index.get("filter")).contains(expectedFilterColumn))) {
+                    result.add(name + ": sem o filtro esperado em " + expectedFilterColumn);
+                }
+            });
+            problems = result;
+
+            if (result.isEmpty()) {
+                log.info("Índices de crm_Login_Management verificados: {}", EXPECTED_INDEXES.keySet());
+            } else {
+                log.warn("Índices de crm_Login_Management com problema (a busca de pendentes pode varrer a tabela): {}",
+                        result);
+            }
+        } catch (Exception e) {
+            log.warn("Não foi possível verificar os índices de crm_Login_Management: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Health health() {
+        List<String> current = problems;
+        if (current == null) {
+            return Health.unknown().withDetail("message", "Verificação de índices não executada").build();
+        }
+        return Health.up()
+                .withDetail("expected", EXPECTED_INDEXES.keySet())
+                .withDetail("problems", current)
+                .build();
+    }
+}
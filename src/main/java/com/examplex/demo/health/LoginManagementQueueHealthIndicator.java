@@ -0,0 +1,28 @@
+package com.examplex.demo.health;
+
+import com.examplex.demo.service.SystemStatusService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saúde da fila de Login Management, servida a partir do snapshot em memória
+ */
+@Component
+@RequiredArgsConstructor
+public class LoginManagementQueueHealthIndicator implements HealthIndicator {
+
+    private final SystemStatusService systemStatusService;
+
+    @Override
+    public Health health() {
+        SystemStatusService.StatusSnapshot snapshot = systemStatusService.getSnapshot();
+
+        Health.Builder builder = snapshot.dbHealthy() ? Health.up() : Health.down();
+        return builder
+                .withDetail("pendingItems", snapshot.pendingCount())
+                .withDetail("snapshotAgeMs", snapshot.ageMs())
+                .build();
+    }
+}
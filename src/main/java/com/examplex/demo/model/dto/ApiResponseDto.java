@@ -11,4 +11,15 @@ public class ApiResponseDto {
     private boolean success;
     private String message;
     private Object data;
+
+    // Diagnóstico da chamada HTTP (status, latência e corpo de erro completo)
+    private Integer httpStatus;
+    private Long latencyMs;
+    private String errorBody;
+
+    public ApiResponseDto(boolean success, String message, Object data) {
+        this.success = success;
+        this.message = message;
+        this.data = data;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.examplex.demo.model.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Item de enfileiramento em lote. managementType aceita o código (-4104, 3833...)
+ * ou o nome da fila (BLOCK, UNBLOCK, RESET, CREATE).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnqueueItemDto {
+
+    private String managementType;
+
+    private Integer crmLoginId;
+
+    private String userCode;
+
+    private String externalKey;
+
+    private Integer credenciadorId;
+
+    private Integer ferramentaId;
+
+    private JsonNode dadosComplementares;
+}
@@ -0,0 +1,32 @@
+package com.examplex.demo.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class EnqueueResultDto {
+
+    private int received;
+
+    private int inserted;
+
+    private int duplicates;
+
+    private int rejected;
+
+    // Apenas as primeiras rejeições são detalhadas
+    private List<String> rejections = new ArrayList<>();
+
+    // Itens válidos que não foram gravados (payload ilegível a partir deles ou falha de banco no lote)
+    private int discarded;
+
+    // Preenchido quando o payload não pôde ser lido até o fim ou um lote não pôde ser gravado
+    private String error;
+
+    // A falha foi na gravação de um lote, não no payload
+    private boolean databaseError;
+}
@@ -0,0 +1,19 @@
+package com.examplex.demo.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção do status atual de um item de Login Management (consulta de status por API).
+ * Sem os dados complementares, que podem conter a senha gerada no CREATE, RESET e UNBLOCK.
+ */
+public record LoginManagementStatusView(
+        Integer id,
+        Integer managementType,
+        Integer managementStatus,
+        String userCode,
+        String externalKey,
+        Integer credenciadorId,
+        String logAlteracaoRastro,
+        LocalDateTime dataAlteracao
+) {
+}
@@ -0,0 +1,20 @@
+package com.examplex.demo.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção resumida de uma solicitação de Login Management (listagem e busca paginada).
+ * Não inclui o rastro nem os dados complementares, que podem conter a senha gerada no RESET.
+ */
+public record LoginManagementSummaryView(
+        Integer id,
+        Integer managementType,
+        Integer managementStatus,
+        String userCode,
+        String externalKey,
+        Integer credenciadorId,
+        Integer ferramentaId,
+        LocalDateTime dataCriacao,
+        LocalDateTime dataAlteracao
+) {
+}
@@ -0,0 +1,20 @@
+package com.examplex.demo.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção leve de um item pendente de Login Management.
+ * Contém apenas as colunas necessárias ao processamento (não é uma entidade gerenciada).
+ * dadosComplementares só é preenchido para itens CREATE (informações do grupo).
+ * queuedAt é o momento em que o item entrou (ou voltou) para a fila: última alteração ou criação.
+ */
+public record LoginManagementWorkItem(
+        Integer id,
+        Integer managementType,
+        String userCode,
+        String externalKey,
+        Integer credenciadorId,
+        String dadosComplementares,
+        LocalDateTime queuedAt
+) {
+}
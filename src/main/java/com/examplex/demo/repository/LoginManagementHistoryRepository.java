@@ -0,0 +1,92 @@
+package com.examplex.demo.repository;
+
+import com.examplex.demo.model.projection.LoginManagementStatusView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Histórico de itens concluídos (crm_Login_Management_History): movimentação em lote pelo arquivamento
+ * e consultas de status de itens que já saíram da tabela principal
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoginManagementHistoryRepository {
+
+    private static final String COLUMNS = "crm_Login_Management_Id, crm_Login_Id, crm_Login_Management_User_Code, " +
+            "crm_Login_Management_External_Key, crm_Ferramenta_Id, crm_Credenciador_Id, " +
+            "gpa_DropDown_LoginManagementType, gpa_DropDown_ManagementLoginStatus, " +
+            "crm_Login_Management_IdUsuarioCriacao, crm_Login_Management_DataCriacao, " +
+            "crm_Login_Management_IdUsuarioAlteracao, crm_Login_Management_DataAlteracao, " +
+            "crm_Login_Management_RegistroExcluido, log_Alteracao_Rastro, log_OrigemRastro_Id, " +
+            "crm_Login_Management_DadosComplementares";
+
+    /**
+     * Move (DELETE com OUTPUT INTO, em uma única instrução) até :batchSize itens concluídos sem alteração
+     * desde :olderThan. READPAST pula linhas bloqueadas pelo processamento em vez de aguardá-las.
+     */
+    private static final String MOVE_COMPLETED_SQL = "DELETE TOP (?) FROM crm_Login_Management WITH (READPAST) " +
+            "OUTPUT " + prefixed("DELETED.") + ", SYSDATETIME() " +
+            "INTO crm_Login_Management_History (" + COLUMNS + ", crm_Login_Management_DataArquivamento) " +
+            "WHERE gpa_DropDown_ManagementLoginStatus = -4107 " +
+            "AND COALESCE(crm_Login_Management_DataAlteracao, crm_Login_Management_DataCriacao) < ?";
+
+    // Colunas da projeção LoginManagementStatusView
+    private static final String STATUS_VIEW_COLUMNS = "crm_Login_Management_Id, gpa_DropDown_LoginManagementType, " +
+            "gpa_DropDown_ManagementLoginStatus, crm_Login_Management_User_Code, crm_Login_Management_External_Key, " +
+            "crm_Credenciador_Id, log_Alteracao_Rastro, crm_Login_Management_DataAlteracao";
+
+    private static final RowMapper<LoginManagementStatusView> STATUS_VIEW_MAPPER = (rs, rowNum) -> {
+        Timestamp dataAlteracao = rs.getTimestamp(8);
+        return new LoginManagementStatusView(
+                rs.getInt(1),
+                rs.getInt(2),
+                rs.getInt(3),
+                rs.getString(4),
+                rs.getString(5),
+                (Integer) rs.getObject(6),
+                rs.getString(7),
+                dataAlteracao != null ? dataAlteracao.toLocalDateTime() : null);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Move um lote de itens concluídos para o histórico; retorna a quantidade movida
+     */
+    public int moveCompleted(int batchSize, LocalDateTime olderThan) {
+        return jdbcTemplate.update(MOVE_COMPLETED_SQL, batchSize, Timestamp.valueOf(olderThan));
+    }
+
+    public Optional<LoginManagementStatusView> findStatusViewById(Integer id) {
+        return jdbcTemplate.query("SELECT " + STATUS_VIEW_COLUMNS + " FROM crm_Login_Management_History " +
+                "WHERE crm_Login_Management_Id = ?", STATUS_VIEW_MAPPER, id).stream().findFirst();
+    }
+
+    /**
+     * Item arquivado mais recente de um userCode
+     */
+    public List<LoginManagementStatusView> findLatestStatusViewByUserCode(String userCode) {
+        return jdbcTemplate.query("SELECT TOP 1 " + STATUS_VIEW_COLUMNS + " FROM crm_Login_Management_History " +
+                "WHERE crm_Login_Management_User_Code = ? ORDER BY crm_Login_Management_Id DESC", STATUS_VIEW_MAPPER, userCode);
+    }
+
+    /**
+     * Item arquivado mais recente de um externalKey
+     */
+    public List<LoginManagementStatusView> findLatestStatusViewByExternalKey(String externalKey) {
+        return jdbcTemplate.query("SELECT TOP 1 " + STATUS_VIEW_COLUMNS + " FROM crm_Login_Management_History " +
+                "WHERE crm_Login_Management_External_Key = ? ORDER BY crm_Login_Management_Id DESC", STATUS_VIEW_MAPPER,
+                externalKey);
+    }
+
+    private static String prefixed(String prefix) {
+        return prefix + COLUMNS.replace(", ", ", " + prefix);
+    }
+}
@@ -1,6 +1,9 @@
 package com.examplex.demo.repository;
 
 import com.examplex.demo.model.LoginManagement;
+import com.examplex.demo.model.projection.LoginManagementStatusView;
+import com.examplex.demo.model.projection.LoginManagementWorkItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -10,15 +13,38 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface LoginManagementRepository extends JpaRepository<LoginManagement, Integer> {
+public interface LoginManagementRepository extends JpaRepository<LoginManagement, Integer>,
+        LoginManagementRepositoryCustom {
+
+    // Colunas da projeção LoginManagementStatusView
+    String STATUS_VIEW_COLUMNS = "lm.id, lm.managementType, lm.managementStatus, lm.userCode, lm.externalKey, " +
+            "lm.credenciadorId, lm.logAlteracaoRastro, lm.dataAlteracao";
 
     /**
      * Busca itens pendentes de processamento (Status: Fila = -4106 ou Erro = -4108)
+     * como projeção, sem carregar entidades no contexto de persistência.
+     * dadosComplementares só é lido para CREATE (3833), que precisa das informações do grupo.
      */
-    @Query("SELECT lm FROM LoginManagement lm WHERE lm.managementStatus IN (-4106, -4108) AND lm.registroExcluido = false")
-    List<LoginManagement> findPendingProcessing();
+    @Query("SELECT new com.examplex.demo.model.projection.LoginManagementWorkItem(" +
+            "lm.id, lm.managementType, lm.userCode, lm.externalKey, lm.credenciadorId, " +
+            "CASE WHEN lm.managementType = 3833 THEN lm.dadosComplementares ELSE NULL END, " +
+            "COALESCE(lm.dataAlteracao, lm.dataCriacao)) " +
+            "FROM LoginManagement lm WHERE lm.managementStatus IN (-4106, -4108) AND lm.registroExcluido = false")
+    List<LoginManagementWorkItem> findPendingWorkItems();
+
+    /**
+     * Busca itens pendentes de um tipo específico (usado para reabastecer a fila de BLOCK durante a execução)
+     */
+    @Query("SELECT new com.examplex.demo.model.projection.LoginManagementWorkItem(" +
+            "lm.id, lm.managementType, lm.userCode, lm.externalKey, lm.credenciadorId, " +
+            "CASE WHEN lm.managementType = 3833 THEN lm.dadosComplementares ELSE NULL END, " +
+            "COALESCE(lm.dataAlteracao, lm.dataCriacao)) " +
+            "FROM LoginManagement lm WHERE lm.managementStatus IN (-4106, -4108) AND lm.registroExcluido = false " +
+            "AND lm.managementType = :managementType")
+    List<LoginManagementWorkItem> findPendingWorkItemsByType(@Param("managementType") Integer managementType);
 
     /**
      * Atualiza o status de um item
@@ -64,6 +90,42 @@ public interface LoginManagementRepository extends JpaRepository<LoginManagement
                                             @Param("dadosComplementares") String dadosComplementares,
                                             @Param("externalKey") String externalKey);
 
+    /**
+     * Salva o progresso de um item (dados complementares e externalKey) sem alterar o status
+     * (usado para persistir os passos concluídos do CREATE)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE LoginManagement lm SET lm.dataAlteracao = :dataAlteracao, lm.logAlteracaoRastro = :logRastro, " +
+            "lm.dadosComplementares = :dadosComplementares, lm.externalKey = :externalKey " +
+            "WHERE lm.id = :id")
+    void updateProgress(@Param("id") Integer id,
+                        @Param("dataAlteracao") LocalDateTime dataAlteracao,
+                        @Param("logRastro") String logRastro,
+                        @Param("dadosComplementares") String dadosComplementares,
+                        @Param("externalKey") String externalKey);
+
+    /**
+     * Status atual de um item (consulta de status por API)
+     */
+    @Query("SELECT new com.examplex.demo.model.projection.LoginManagementStatusView(" + STATUS_VIEW_COLUMNS + ") " +
+            "FROM LoginManagement lm WHERE lm.id = :id AND lm.registroExcluido = false")
+    Optional<LoginManagementStatusView> findStatusViewById(@Param("id") Integer id);
+
+    /**
+     * Itens de um userCode, do mais recente para o mais antigo
+     */
+    @Query("SELECT new com.examplex.demo.model.projection.LoginManagementStatusView(" + STATUS_VIEW_COLUMNS + ") " +
+            "FROM LoginManagement lm WHERE lm.userCode = :userCode AND lm.registroExcluido = false ORDER BY lm.id DESC")
+    List<LoginManagementStatusView> findStatusViewsByUserCode(@Param("userCode") String userCode, Pageable pageable);
+
+    /**
+     * Itens de um externalKey, do mais recente para o mais antigo
+     */
+    @Query("SELECT new com.examplex.demo.model.projection.LoginManagementStatusView(" + STATUS_VIEW_COLUMNS + ") " +
+            "FROM LoginManagement lm WHERE lm.externalKey = :externalKey AND lm.registroExcluido = false ORDER BY lm.id DESC")
+    List<LoginManagementStatusView> findStatusViewsByExternalKey(@Param("externalKey") String externalKey, Pageable pageable);
+
     /**
      * Conta o número de itens pendentes
      */
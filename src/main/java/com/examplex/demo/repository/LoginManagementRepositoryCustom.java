@@ -0,0 +1,16 @@
+package com.examplex.demo.repository;
+
+import com.examplex.demo.model.projection.LoginManagementSummaryView;
+
+import java.util.List;
+
+/**
+ * Consultas de LoginManagementRepository com JPQL montado conforme os filtros informados
+ */
+public interface LoginManagementRepositoryCustom {
+
+    /**
+     * Página de solicitações (Id decrescente) a partir do cursor, com até criteria.limit() itens
+     */
+    List<LoginManagementSummaryView> searchSummaries(LoginManagementSearchCriteria criteria);
+}
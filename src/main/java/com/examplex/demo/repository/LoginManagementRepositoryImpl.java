@@ -0,0 +1,64 @@
+package com.examplex.demo.repository;
+
+import com.examplex.demo.model.projection.LoginManagementSummaryView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Busca paginada por keyset (seek): em vez de OFFSET, cada página parte do último Id da anterior
+ * (lm.id < :afterId ORDER BY lm.id DESC), de modo que o custo de uma página não cresce com a profundidade.
+ */
+public class LoginManagementRepositoryImpl implements LoginManagementRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<LoginManagementSummaryView> searchSummaries(LoginManagementSearchCriteria criteria) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT new com.examplex.demo.model.projection.LoginManagementSummaryView(" +
+                "lm.id, lm.managementType, lm.managementStatus, lm.userCode, lm.externalKey, lm.credenciadorId, " +
+                "lm.ferramentaId, lm.dataCriacao, lm.dataAlteracao) " +
+                "FROM LoginManagement lm WHERE lm.registroExcluido = false");
+
+        if (criteria.managementStatus() != null) {
+            jpql.append(" AND lm.managementStatus = :managementStatus");
+            params.put("managementStatus", criteria.managementStatus());
+        }
+        if (criteria.managementType() != null) {
+            jpql.append(" AND lm.managementType = :managementType");
+            params.put("managementType", criteria.managementType());
+        }
+        if (criteria.credenciadorId() != null) {
+            jpql.append(" AND lm.credenciadorId = :credenciadorId");
+            params.put("credenciadorId", criteria.credenciadorId());
+        }
+        if (criteria.ferramentaId() != null) {
+            jpql.append(" AND lm.ferramentaId = :ferramentaId");
+            params.put("ferramentaId", criteria.ferramentaId());
+        }
+        if (criteria.from() != null) {
+            jpql.append(" AND lm.dataCriacao >= :from");
+            params.put("from", criteria.from().atStartOfDay());
+        }
+        if (criteria.to() != null) {
+            jpql.append(" AND lm.dataCriacao < :to");
+            params.put("to", criteria.to().plusDays(1).atStartOfDay());
+        }
+        if (criteria.afterId() != null) {
+            jpql.append(" AND lm.id < :afterId");
+            params.put("afterId", criteria.afterId());
+        }
+        jpql.append(" ORDER BY lm.id DESC");
+
+        TypedQuery<LoginManagementSummaryView> query =
+                entityManager.createQuery(jpql.toString(), LoginManagementSummaryView.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(criteria.limit()).getResultList();
+    }
+}
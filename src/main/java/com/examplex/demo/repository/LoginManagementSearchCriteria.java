@@ -0,0 +1,19 @@
+package com.examplex.demo.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros da busca de solicitações; campos nulos não filtram.
+ * Período sobre a data de criação (from/to inclusivos). afterId é o cursor: o último Id da página anterior.
+ */
+public record LoginManagementSearchCriteria(
+        Integer managementStatus,
+        Integer managementType,
+        Integer credenciadorId,
+        Integer ferramentaId,
+        LocalDate from,
+        LocalDate to,
+        Integer afterId,
+        int limit
+) {
+}
@@ -0,0 +1,35 @@
+package com.examplex.demo.scheduler;
+
+import com.examplex.demo.service.archive.LoginManagementArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginManagementArchiveScheduler {
+
+    private final LoginManagementArchiveService archiveService;
+
+    // Verificado em tempo de execução, como no scheduler de processamento (compatível com Spring AOT)
+    @Value("${scheduler.login-management-archive.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(cron = "${scheduler.login-management-archive.cron:0 30 2 * * *}")
+    public void executeArchive() {
+        if (!enabled) {
+            return;
+        }
+
+        log.info("Executando scheduler de arquivamento de Login Management");
+
+        try {
+            archiveService.archive();
+        } catch (Exception e) {
+            log.error("Erro na execução do scheduler de arquivamento: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -3,20 +3,28 @@ package com.examplex.demo.scheduler;
 import com.examplex.demo.service.LoginManagementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
-@ConditionalOnProperty(value = "scheduler.login-management.enabled", havingValue = "true", matchIfMissing = true)
 public class LoginManagementScheduler {
 
     private final com.examplex.demo.service.LoginManagementService loginManagementService;
 
+    // Verificado em tempo de execução (e não via @ConditionalOnProperty), pois com Spring AOT
+    // as condições são avaliadas no build e não poderiam mais ser alteradas por propriedade
+    @Value("${scheduler.login-management.enabled:true}")
+    private boolean enabled;
+
     @Scheduled(cron = "${scheduler.login-management.cron:0 */5 * * * *}")
     public void executeLoginManagementProcessing() {
+        if (!enabled) {
+            return;
+        }
+
         log.info("Executando scheduler de Login Management");
 
         try {
@@ -1,5 +1,9 @@
 package com.examplex.demo.service;
 
+import com.examplex.demo.service.partner.Partner;
+import com.examplex.demo.service.partner.PartnerRegistry;
+import com.examplex.demo.service.token.StoredToken;
+import com.examplex.demo.service.token.TokenStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,56 +14,188 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Token de acesso da API iCred (client_credentials), um por parceiro.
+ *
+ * O token fica em cache local e no TokenStore compartilhado, de modo que reinícios e réplicas
+ * reaproveitam o token vigente. A renovação é coordenada pelo lease do store: apenas a instância
+ * que o obtém chama o servidor de autenticação; as demais aguardam o token gravado.
+ * Falhas do store não impedem a autenticação (a instância renova por conta própria).
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuthTokenService {
 
+    // Considera expirado se restam menos de 30 segundos
+    private static final long EXPIRY_MARGIN_MS = 30000;
+
     private final RestTemplate restTemplate;
+    private final TokenStore tokenStore;
+    private final PartnerRegistry partnerRegistry;
 
     @Value("${external-api.auth-url}")
     private String authUrl;
 
-    @Value("${external-api.authorization-header}")
-    private String authorizationHeader;
+    @Value("${token-store.key:icred}")
+    private String tokenKey;
+
+    @Value("${token-store.lock-lease-ms:30000}")
+    private long lockLeaseMs;
+
+    @Value("${token-store.lock-wait-ms:10000}")
+    private long lockWaitMs;
+
+    @Value("${token-store.lock-poll-ms:250}")
+    private long lockPollMs;
 
-    private String currentToken;
-    private long tokenExpirationTime = 0;
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "-"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    // Token atual por parceiro (id do parceiro)
+    private final Map<String, StoredToken> currentTokens = new ConcurrentHashMap<>();
 
     /**
-     * Obtém um token válido, renovando se necessário
+     * Obtém um token válido do parceiro padrão, renovando se necessário
      */
     public String getValidToken() {
-        if (isTokenExpired()) {
-            renewToken();
+        return getValidToken(partnerRegistry.defaultPartner());
+    }
+
+    /**
+     * Obtém um token válido do parceiro, renovando se necessário
+     */
+    public String getValidToken(Partner partner) {
+        StoredToken token = currentTokens.get(partner.getId());
+        if (token != null && token.isValid(EXPIRY_MARGIN_MS)) {
+            return token.accessToken();
+        }
+
+        // Uma renovação por vez em cada parceiro; parceiros distintos renovam em paralelo
+        synchronized (partner) {
+            token = currentTokens.get(partner.getId());
+            if (token == null || !token.isValid(EXPIRY_MARGIN_MS)) {
+                token = obtainToken(partner);
+                currentTokens.put(partner.getId(), token);
+            }
+            return token.accessToken();
+        }
+    }
+
+    /**
+     * Reaproveita o token compartilhado ou renova sob o lease; sem o lease, aguarda a renovação
+     * da outra instância até lock-wait-ms e, esgotado o prazo, renova por conta própria
+     */
+    private StoredToken obtainToken(Partner partner) {
+        String key = storeKey(partner);
+        Optional<StoredToken> shared = loadShared(key);
+        if (shared.isPresent()) {
+            log.info("Token reaproveitado do armazenamento compartilhado");
+            return shared.get();
+        }
+
+        long deadline = System.currentTimeMillis() + lockWaitMs;
+        while (true) {
+            if (tryLock(key)) {
+                try {
+                    shared = loadShared(key);
+                    if (shared.isPresent()) {
+                        log.info("Token renovado por outra instância");
+                        return shared.get();
+                    }
+                    StoredToken renewed = renewToken(partner);
+                    saveShared(key, renewed);
+                    return renewed;
+                } finally {
+                    unlock(key);
+                }
+            }
+
+            sleep(lockPollMs);
+            shared = loadShared(key);
+            if (shared.isPresent()) {
+                log.info("Token renovado por outra instância");
+                return shared.get();
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                log.warn("Renovação de outra instância não concluída em {} ms, renovando localmente", lockWaitMs);
+                StoredToken renewed = renewToken(partner);
+                saveShared(key, renewed);
+                return renewed;
+            }
         }
-        return currentToken;
     }
 
     /**
-     * Verifica se o token atual está expirado ou prestes a expirar
+     * Chave do token do parceiro no armazenamento compartilhado
      */
-    private boolean isTokenExpired() {
-        if (currentToken == null) {
+    private String storeKey(Partner partner) {
+        return tokenKey + ":" + partner.getId();
+    }
+
+    private Optional<StoredToken> loadShared(String key) {
+        try {
+            return tokenStore.load(key).filter(token -> token.isValid(EXPIRY_MARGIN_MS));
+        } catch (Exception e) {
+            log.warn("Falha ao ler token compartilhado: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void saveShared(String key, StoredToken token) {
+        try {
+            tokenStore.save(key, token);
+        } catch (Exception e) {
+            log.warn("Falha ao gravar token compartilhado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Falha do store conta como lease obtido (a renovação segue localmente)
+     */
+    private boolean tryLock(String key) {
+        try {
+            return tokenStore.tryLock(key, instanceId, Duration.ofMillis(lockLeaseMs));
+        } catch (Exception e) {
+            log.warn("Falha ao obter lease de renovação do token: {}", e.getMessage());
             return true;
         }
+    }
 
-        // Considera expirado se restam menos de 30 segundos
-        long currentTime = System.currentTimeMillis();
-        return currentTime >= (tokenExpirationTime - 30000);
+    private void unlock(String key) {
+        try {
+            tokenStore.unlock(key, instanceId);
+        } catch (Exception e) {
+            log.warn("Falha ao liberar lease de renovação do token: {}", e.getMessage());
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrompido aguardando renovação do token", e);
+        }
     }
 
     /**
      * Renova o token fazendo uma nova requisição à API de autenticação
      */
-    private void renewToken() {
+    private StoredToken renewToken(Partner partner) {
         try {
-            log.info("Renovando token de autenticação");
+            log.info("Renovando token de autenticação do parceiro {}", partner.getId());
 
             HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", authorizationHeader);
+            headers.set("Authorization", partner.getAuthorizationHeader());
             headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
             MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
@@ -78,14 +214,13 @@ public class AuthTokenService {
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> responseBody = response.getBody();
 
-                this.currentToken = (String) responseBody.get("access_token");
+                String accessToken = (String) responseBody.get("access_token");
                 Integer expiresIn = (Integer) responseBody.get("expires_in");
 
-                if (this.currentToken != null && expiresIn != null) {
-                    // Define o tempo de expiração baseado no expires_in
-                    this.tokenExpirationTime = System.currentTimeMillis() + (expiresIn * 1000L);
-
+                if (accessToken != null && expiresIn != null) {
                     log.info("Token renovado com sucesso. Expira em {} segundos", expiresIn);
+                    // Define o tempo de expiração baseado no expires_in
+                    return new StoredToken(accessToken, System.currentTimeMillis() + (expiresIn * 1000L));
                 } else {
                     throw new RuntimeException("Token ou expires_in não encontrados na resposta");
                 }
@@ -103,11 +238,25 @@ public class AuthTokenService {
     }
 
     /**
-     * Força a renovação do token na próxima chamada
+     * Força a renovação do token do parceiro padrão na próxima chamada
      */
     public void invalidateToken() {
-        log.info("Token invalidado manualmente");
-        this.currentToken = null;
-        this.tokenExpirationTime = 0;
+        invalidateToken(partnerRegistry.defaultPartner());
+    }
+
+    /**
+     * Força a renovação do token do parceiro na próxima chamada
+     */
+    public void invalidateToken(Partner partner) {
+        log.info("Token do parceiro {} invalidado", partner.getId());
+        StoredToken token = currentTokens.remove(partner.getId());
+
+        if (token != null) {
+            try {
+                tokenStore.clear(storeKey(partner), token.accessToken());
+            } catch (Exception e) {
+                log.warn("Falha ao invalidar token compartilhado: {}", e.getMessage());
+            }
+        }
     }
 }
\ No newline at end of file
@@ -4,38 +4,86 @@ import com.examplex.demo.model.dto.ApiRequestDto;
 import com.examplex.demo.model.dto.ApiResponseDto;
 import com.examplex.demo.model.dto.ApiCreateUserRequestDto;
 import com.examplex.demo.model.dto.ApiCreateGroupRequestDto;
+import com.examplex.demo.service.concurrency.AdaptiveConcurrencyInterceptor;
+import com.examplex.demo.service.concurrency.AdaptiveConcurrencyLimiter;
+import com.examplex.demo.service.hedge.HedgedRequestExecutor;
+import com.examplex.demo.service.hedge.HedgingProperties;
+import com.examplex.demo.service.partner.Partner;
+import com.examplex.demo.service.partner.PartnerRegistry;
+import com.examplex.demo.service.quota.ApiQuotaAccountant;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ExternalApiService {
 
-    private final RestTemplate restTemplate;
     private final AuthTokenService authTokenService;
+    private final PartnerRegistry partnerRegistry;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor externalApiHedgeExecutor;
+    private final ApiQuotaAccountant quotaAccountant;
 
     @Value("${external-api.base-url}")
     private String baseUrl;
 
-    @Value("${external-api.partner-uuid}")
-    private String partnerUuid;
+    @Value("${external-api.hedging.block.enabled:false}")
+    private boolean blockHedgingEnabled;
 
-    @Value("${external-api.user-profile-id:5}")
-    private Integer userProfileId;
+    @Value("${external-api.hedging.block.min-delay-ms:200}")
+    private long blockHedgingMinDelayMs;
+
+    @Value("${external-api.hedging.block.initial-delay-ms:1000}")
+    private long blockHedgingInitialDelayMs;
+
+    @Value("${external-api.hedging.block.min-samples:20}")
+    private long blockHedgingMinSamples;
+
+    @Value("${external-api.hedging.block.window-ms:300000}")
+    private long blockHedgingWindowMs;
+
+    @Value("${external-api.hedging.block.budget-ratio:0.1}")
+    private double blockHedgingBudgetRatio;
+
+    @Value("${external-api.hedging.block.max-tokens:5}")
+    private double blockHedgingMaxTokens;
+
+    // Hedging do bloqueio por parceiro: p95 e orçamento de reforços de cada parceiro
+    private final Map<String, HedgedRequestExecutor> blockHedging = new HashMap<>();
+
+    @PostConstruct
+    public void initHedging() {
+        HedgingProperties properties = new HedgingProperties(blockHedgingEnabled, blockHedgingMinDelayMs,
+                blockHedgingInitialDelayMs, blockHedgingMinSamples, blockHedgingWindowMs, blockHedgingBudgetRatio,
+                blockHedgingMaxTokens);
+        for (Partner partner : partnerRegistry.all()) {
+            blockHedging.put(partner.getId(), new HedgedRequestExecutor("block", partner.getId(),
+                    externalApiHedgeExecutor, meterRegistry, properties));
+        }
+    }
 
     /**
-     * Cria os headers padrão com autenticação
+     * Aguarda o limite de requisições do parceiro, contabiliza a chamada no orçamento do parceiro
+     * e cria os headers padrão com autenticação
      */
-    private HttpHeaders createAuthHeaders() {
-        String token = authTokenService.getValidToken();
+    private HttpHeaders createAuthHeaders(Partner partner, String operation) {
+        awaitRateLimit(partner);
+        quotaAccountant.record(partner, operation);
+        String token = authTokenService.getValidToken(partner);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -45,9 +93,18 @@ public class ExternalApiService {
     }
 
     /**
-     * Cria um novo grupo de vendedores
+     * Cria um novo grupo de vendedores (parceiro padrão)
      */
     public ApiResponseDto createSellerGroup(String name, String partnerExternalKey) {
+        return createSellerGroup(partnerRegistry.defaultPartner(), name, partnerExternalKey);
+    }
+
+    /**
+     * Cria um novo grupo de vendedores (parceiro informado)
+     */
+    public ApiResponseDto createSellerGroup(Partner partner, String name, String partnerExternalKey) {
+        long start = System.nanoTime();
+
         try {
             String url = baseUrl + "/partner-management/v1/seller-groups";
 
@@ -57,12 +114,12 @@ public class ExternalApiService {
                     partnerExternalKey
             );
 
-            HttpHeaders headers = createAuthHeaders();
+            HttpHeaders headers = createAuthHeaders(partner, "create_group");
             HttpEntity<ApiCreateGroupRequestDto> httpEntity = new HttpEntity<>(request, headers);
 
             log.info("Criando grupo: {} na URL: {}", name, url);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = partner.getRestTemplate().exchange(
                     url, HttpMethod.POST, httpEntity, Map.class
             );
 
@@ -70,10 +127,12 @@ public class ExternalApiService {
                 String groupUuid = (String) response.getBody().get("uuid");
 
                 log.info("Grupo criado com sucesso. UUID: {}", groupUuid);
-                return new ApiResponseDto(true, "Grupo criado com sucesso", groupUuid);
+                return withDiagnostics(new ApiResponseDto(true, "Grupo criado com sucesso", groupUuid),
+                        start, response.getStatusCode().value(), null);
             } else {
                 log.error("Erro ao criar grupo: Status {}", response.getStatusCode());
-                return new ApiResponseDto(false, "Erro na criação do grupo: " + response.getStatusCode(), null);
+                return withDiagnostics(new ApiResponseDto(false, "Erro na criação do grupo: " + response.getStatusCode(), null),
+                        start, response.getStatusCode().value(), null);
             }
 
         } catch (RestClientException e) {
@@ -81,32 +140,42 @@ public class ExternalApiService {
 
             if (e.getMessage() != null && (e.getMessage().contains("401") || e.getMessage().contains("403"))) {
                 log.warn("Token inválido detectado, invalidando para renovação");
-                authTokenService.invalidateToken();
+                authTokenService.invalidateToken(partner);
             }
 
-            return new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null);
+            return withDiagnostics(new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null),
+                    start, e);
         }
     }
 
     /**
-     * Cria um novo usuário na API externa
+     * Cria um novo usuário na API externa (parceiro padrão)
      */
     public ApiResponseDto createUser(String personCode) {
+        return createUser(partnerRegistry.defaultPartner(), personCode);
+    }
+
+    /**
+     * Cria um novo usuário na API externa (parceiro informado)
+     */
+    public ApiResponseDto createUser(Partner partner, String personCode) {
+        long start = System.nanoTime();
+
         try {
             String url = baseUrl + "/partner-management/v1/users";
 
             ApiCreateUserRequestDto request = new ApiCreateUserRequestDto(
                     personCode,
-                    userProfileId,
-                    partnerUuid
+                    partner.getUserProfileId(),
+                    partner.getPartnerUuid()
             );
 
-            HttpHeaders headers = createAuthHeaders();
+            HttpHeaders headers = createAuthHeaders(partner, "create_user");
             HttpEntity<ApiCreateUserRequestDto> httpEntity = new HttpEntity<>(request, headers);
 
             log.info("Criando usuário com personCode: {} na URL: {}", personCode, url);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = partner.getRestTemplate().exchange(
                     url, HttpMethod.POST, httpEntity, Map.class
             );
 
@@ -115,10 +184,12 @@ public class ExternalApiService {
                 String userUuid = (String) response.getBody().get("uuid");
 
                 log.info("Usuário criado com sucesso. UUID: {}", userUuid);
-                return new ApiResponseDto(true, "Usuário criado com sucesso", userUuid);
+                return withDiagnostics(new ApiResponseDto(true, "Usuário criado com sucesso", userUuid),
+                        start, response.getStatusCode().value(), null);
             } else {
                 log.error("Erro ao criar usuário: Status {}", response.getStatusCode());
-                return new ApiResponseDto(false, "Erro na criação: " + response.getStatusCode(), null);
+                return withDiagnostics(new ApiResponseDto(false, "Erro na criação: " + response.getStatusCode(), null),
+                        start, response.getStatusCode().value(), null);
             }
 
         } catch (RestClientException e) {
@@ -126,35 +197,47 @@ public class ExternalApiService {
 
             if (e.getMessage() != null && (e.getMessage().contains("401") || e.getMessage().contains("403"))) {
                 log.warn("Token inválido detectado, invalidando para renovação");
-                authTokenService.invalidateToken();
+                authTokenService.invalidateToken(partner);
             }
 
-            return new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null);
+            return withDiagnostics(new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null),
+                    start, e);
         }
     }
 
     /**
-     * Adiciona um usuário a um grupo
+     * Adiciona um usuário a um grupo (parceiro padrão)
      */
     public ApiResponseDto addUserToGroup(String groupUuid, String userUuid) {
+        return addUserToGroup(partnerRegistry.defaultPartner(), groupUuid, userUuid);
+    }
+
+    /**
+     * Adiciona um usuário a um grupo (parceiro informado)
+     */
+    public ApiResponseDto addUserToGroup(Partner partner, String groupUuid, String userUuid) {
+        long start = System.nanoTime();
+
         try {
             String url = baseUrl + "/partner-management/v1/seller-groups/" + groupUuid + "/users/" + userUuid;
 
-            HttpHeaders headers = createAuthHeaders();
+            HttpHeaders headers = createAuthHeaders(partner, "add_to_group");
             HttpEntity<Void> httpEntity = new HttpEntity<>(headers);
 
             log.info("Adicionando usuário {} ao grupo {} na URL: {}", userUuid, groupUuid, url);
 
-            ResponseEntity<Object> response = restTemplate.exchange(
+            ResponseEntity<Object> response = partner.getRestTemplate().exchange(
                     url, HttpMethod.PUT, httpEntity, Object.class
             );
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("Usuário {} adicionado ao grupo {} com sucesso", userUuid, groupUuid);
-                return new ApiResponseDto(true, "Usuário adicionado ao grupo com sucesso", response.getBody());
+                return withDiagnostics(new ApiResponseDto(true, "Usuário adicionado ao grupo com sucesso", response.getBody()),
+                        start, response.getStatusCode().value(), null);
             } else {
                 log.error("Erro ao adicionar usuário ao grupo: Status {}", response.getStatusCode());
-                return new ApiResponseDto(false, "Erro ao adicionar ao grupo: " + response.getStatusCode(), null);
+                return withDiagnostics(new ApiResponseDto(false, "Erro ao adicionar ao grupo: " + response.getStatusCode(), null),
+                        start, response.getStatusCode().value(), null);
             }
 
         } catch (RestClientException e) {
@@ -162,36 +245,71 @@ public class ExternalApiService {
 
             if (e.getMessage() != null && (e.getMessage().contains("401") || e.getMessage().contains("403"))) {
                 log.warn("Token inválido detectado, invalidando para renovação");
-                authTokenService.invalidateToken();
+                authTokenService.invalidateToken(partner);
             }
 
-            return new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null);
+            return withDiagnostics(new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null),
+                    start, e);
         }
     }
 
     /**
-     * Bloqueia um usuário na API externa
+     * Bloqueia um usuário na API externa. Com hedging habilitado, uma segunda requisição é enviada
+     * se a primeira não responder dentro do p95 recente (vale o primeiro sucesso). Usa o parceiro padrão.
      */
     public ApiResponseDto blockUser(String userExternalKey) {
+        return blockUser(partnerRegistry.defaultPartner(), userExternalKey);
+    }
+
+    /**
+     * Bloqueia um usuário na API externa (parceiro informado), com hedging opcional.
+     * Limite de requisições, orçamento, token e vaga de concorrência são obtidos uma vez, antes do hedging;
+     * o hedging envolve apenas a troca HTTP.
+     */
+    public ApiResponseDto blockUser(Partner partner, String userExternalKey) {
+        long start = System.nanoTime();
+        String url = baseUrl + "/partner-management/v1/users/" + userExternalKey + "/block";
+
+        HttpEntity<ApiRequestDto> httpEntity;
         try {
-            String url = baseUrl + "/partner-management/v1/users/" + userExternalKey + "/block";
+            ApiRequestDto request = new ApiRequestDto(partner.getPartnerUuid(), "iCred block");
+            httpEntity = new HttpEntity<>(request, createAuthHeaders(partner, "block"));
+        } catch (RestClientException e) {
+            log.error("Erro ao preparar o bloqueio do usuário {}: {}", userExternalKey, e.getMessage());
+            return withDiagnostics(new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null),
+                    start, e);
+        }
 
-            ApiRequestDto request = new ApiRequestDto(partnerUuid, "iCred block");
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<ApiRequestDto> httpEntity = new HttpEntity<>(request, headers);
+        log.info("Bloqueando usuário: {} na URL: {}", userExternalKey, url);
 
-            log.info("Bloqueando usuário: {} na URL: {}", userExternalKey, url);
+        return withConcurrencySlot(partner, () -> blockHedging.get(partner.getId()).execute(
+                () -> AdaptiveConcurrencyInterceptor.withSlotHeld(
+                        () -> requestBlockUser(partner, userExternalKey, url, httpEntity)),
+                () -> admitHedge(partner, "block"),
+                ApiResponseDto::isSuccess,
+                e -> new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null)));
+    }
 
-            ResponseEntity<Object> response = restTemplate.exchange(
+    /**
+     * Troca HTTP do bloqueio (idempotente: pode ser repetida pelo hedging)
+     */
+    private ApiResponseDto requestBlockUser(Partner partner, String userExternalKey, String url,
+                                            HttpEntity<ApiRequestDto> httpEntity) {
+        long start = System.nanoTime();
+
+        try {
+            ResponseEntity<Object> response = partner.getRestTemplate().exchange(
                     url, HttpMethod.POST, httpEntity, Object.class
             );
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("Usuário {} bloqueado com sucesso", userExternalKey);
-                return new ApiResponseDto(true, "Usuário bloqueado com sucesso", response.getBody());
+                return withDiagnostics(new ApiResponseDto(true, "Usuário bloqueado com sucesso", response.getBody()),
+                        start, response.getStatusCode().value(), null);
             } else {
                 log.error("Erro ao bloquear usuário {}: Status {}", userExternalKey, response.getStatusCode());
-                return new ApiResponseDto(false, "Erro no bloqueio: " + response.getStatusCode(), null);
+                return withDiagnostics(new ApiResponseDto(false, "Erro no bloqueio: " + response.getStatusCode(), null),
+                        start, response.getStatusCode().value(), null);
             }
 
         } catch (RestClientException e) {
@@ -199,27 +317,37 @@ public class ExternalApiService {
 
             if (e.getMessage() != null && (e.getMessage().contains("401") || e.getMessage().contains("403"))) {
                 log.warn("Token inválido detectado, invalidando para renovação");
-                authTokenService.invalidateToken();
+                authTokenService.invalidateToken(partner);
             }
 
-            return new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null);
+            return withDiagnostics(new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null),
+                    start, e);
         }
     }
 
     /**
-     * Desbloqueia um usuário na API externa
+     * Desbloqueia um usuário na API externa (parceiro padrão)
      */
     public ApiResponseDto unblockUser(String userExternalKey) {
+        return unblockUser(partnerRegistry.defaultPartner(), userExternalKey);
+    }
+
+    /**
+     * Desbloqueia um usuário na API externa (parceiro informado)
+     */
+    public ApiResponseDto unblockUser(Partner partner, String userExternalKey) {
+        long start = System.nanoTime();
+
         try {
             String url = baseUrl + "/partner-management/v1/users/" + userExternalKey + "/unblock";
 
-            ApiRequestDto request = new ApiRequestDto(partnerUuid, "iCred block");
-            HttpHeaders headers = createAuthHeaders();
+            ApiRequestDto request = new ApiRequestDto(partner.getPartnerUuid(), "iCred block");
+            HttpHeaders headers = createAuthHeaders(partner, "unblock");
             HttpEntity<ApiRequestDto> httpEntity = new HttpEntity<>(request, headers);
 
             log.info("Desbloqueando usuário: {} na URL: {}", userExternalKey, url);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = partner.getRestTemplate().exchange(
                     url, HttpMethod.POST, httpEntity, Map.class
             );
 
@@ -236,10 +364,12 @@ public class ExternalApiService {
                     log.info("Usuário {} desbloqueado sem geração de senha", userExternalKey);
                 }
 
-                return new ApiResponseDto(true, "Usuário desbloqueado com sucesso", newPassword);
+                return withDiagnostics(new ApiResponseDto(true, "Usuário desbloqueado com sucesso", newPassword),
+                        start, response.getStatusCode().value(), null);
             } else {
                 log.error("Erro ao desbloquear usuário {}: Status {}", userExternalKey, response.getStatusCode());
-                return new ApiResponseDto(false, "Erro no desbloqueio: " + response.getStatusCode(), null);
+                return withDiagnostics(new ApiResponseDto(false, "Erro no desbloqueio: " + response.getStatusCode(), null),
+                        start, response.getStatusCode().value(), null);
             }
 
         } catch (RestClientException e) {
@@ -247,10 +377,91 @@ public class ExternalApiService {
 
             if (e.getMessage() != null && (e.getMessage().contains("401") || e.getMessage().contains("403"))) {
                 log.warn("Token inválido detectado, invalidando para renovação");
-                authTokenService.invalidateToken();
+                authTokenService.invalidateToken(partner);
             }
 
-            return new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null);
+            return withDiagnostics(new ApiResponseDto(false, "Erro na chamada da API: " + e.getMessage(), null),
+                    start, e);
+        }
+    }
+
+    /**
+     * Reforço do hedging: é uma requisição a mais, então só sai com permissão livre no limite do parceiro
+     * (sem aguardar) e entra no orçamento da operação
+     */
+    private boolean admitHedge(Partner partner, String operation) {
+        if (!partner.getRateLimiter().tryAcquire()) {
+            return false;
+        }
+        quotaAccountant.record(partner, operation);
+        return true;
+    }
+
+    /**
+     * Obtém a vaga no limite de concorrência do parceiro para uma chamada cujas requisições são feitas
+     * com withSlotHeld, e informa ao limitador o resultado e a latência da chamada
+     */
+    private ApiResponseDto withConcurrencySlot(Partner partner, Supplier<ApiResponseDto> call) {
+        AdaptiveConcurrencyLimiter limiter = partner.getConcurrencyLimiter();
+        if (limiter == null) {
+            return call.get();
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!limiter.acquire()) {
+                return withDiagnostics(new ApiResponseDto(false, "Sem vaga no limite de concorrência da API iCred "
+                        + "(limite atual: " + limiter.getLimit() + ")", null), start, null, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return withDiagnostics(new ApiResponseDto(false,
+                    "Interrompido aguardando o limite de concorrência da API iCred", null), start, null, null);
+        }
+
+        long acquiredAt = System.nanoTime();
+        AdaptiveConcurrencyLimiter.Outcome outcome = AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+        try {
+            ApiResponseDto response = call.get();
+            outcome = AdaptiveConcurrencyInterceptor.classify(response.getHttpStatus());
+            return response;
+        } finally {
+            limiter.release(outcome, System.nanoTime() - acquiredAt);
+        }
+    }
+
+    /**
+     * Aguarda a permissão do limite de requisições por segundo do parceiro
+     */
+    private void awaitRateLimit(Partner partner) {
+        try {
+            long waitedNanos = partner.getRateLimiter().acquire();
+            meterRegistry.timer("external_api.partner.rate_limit_wait", "partner", partner.getId())
+                    .record(waitedNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrompido aguardando o limite de requisições do parceiro " + partner.getId());
+        }
+    }
+
+    /**
+     * Registra status HTTP, latência e corpo de erro completo na resposta (usados no journal de processamento)
+     */
+    private ApiResponseDto withDiagnostics(ApiResponseDto response, long startNanos, Integer httpStatus, String errorBody) {
+        response.setLatencyMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        response.setHttpStatus(httpStatus);
+        response.setErrorBody(errorBody);
+        return response;
+    }
+
+    /**
+     * Variante para falhas: extrai status e corpo da resposta de erro quando disponíveis
+     */
+    private ApiResponseDto withDiagnostics(ApiResponseDto response, long startNanos, RestClientException e) {
+        if (e instanceof RestClientResponseException responseException) {
+            return withDiagnostics(response, startNanos, responseException.getStatusCode().value(),
+                    responseException.getResponseBodyAsString());
         }
+        return withDiagnostics(response, startNanos, null, e.getMessage());
     }
 }
\ No newline at end of file
@@ -1,20 +1,54 @@
 package com.examplex.demo.service;
 
-import com.examplex.demo.model.LoginManagement;
+import com.examplex.demo.config.ConnectionBudget;
+import com.examplex.demo.config.ReadReplica;
 import com.examplex.demo.model.LoginManagementGroups;
 import com.examplex.demo.model.dto.ApiResponseDto;
 import com.examplex.demo.model.dto.DadosComplementaresDto;
+import com.examplex.demo.model.projection.LoginManagementWorkItem;
 import com.examplex.demo.repository.LoginManagementRepository;
 import com.examplex.demo.repository.LoginManagementGroupsRepository;
+import com.examplex.demo.service.create.CreateFlowState;
+import com.examplex.demo.service.create.CreateStep;
+import com.examplex.demo.service.event.ItemStatusEvent;
+import com.examplex.demo.service.event.ItemStatusEventPublisher;
+import com.examplex.demo.service.journal.ProcessingJournalEntry;
+import com.examplex.demo.service.journal.ProcessingJournalWriter;
+import com.examplex.demo.service.latency.LatencyTracker;
+import com.examplex.demo.service.lane.LaneDispatcher;
+import com.examplex.demo.service.lane.PriorityLaneScheduler;
+import com.examplex.demo.service.lane.ProcessingLane;
+import com.examplex.demo.service.partner.Partner;
+import com.examplex.demo.service.partner.PartnerRegistry;
+import com.examplex.demo.service.quota.ApiQuotaAccountant;
+import com.examplex.demo.service.status.ItemStatusCache;
+import com.examplex.demo.service.userstate.IcredUserStateCache;
+import com.examplex.demo.service.userstate.IcredUserStateCache.UserState;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -25,9 +59,40 @@ public class LoginManagementService {
     private final LoginManagementGroupsRepository groupsRepository;
     private final ExternalApiService externalApiService;
     private final ObjectMapper objectMapper;
+    private final PriorityLaneScheduler laneScheduler;
+    private final ThreadPoolTaskExecutor loginManagementExecutor;
+    private final ProcessingJournalWriter journalWriter;
+    private final ConnectionBudget connectionBudget;
+    private final LatencyTracker latencyTracker;
+    private final ItemStatusEventPublisher eventPublisher;
+    private final ItemStatusCache statusCache;
+    private final PartnerRegistry partnerRegistry;
+    private final IcredUserStateCache userStateCache;
+    private final ApiQuotaAccountant quotaAccountant;
 
-    @Value("${external-api.partner-uuid}")
-    private String partnerUuid;
+    // Tentativas por item nesta instância (removidas quando o item é concluído com sucesso)
+    private final Map<Integer, Integer> attempts = new ConcurrentHashMap<>();
+
+    // Itens em andamento (usado para drenar o processamento no desligamento)
+    private final Map<Integer, CompletableFuture<Boolean>> inFlightTasks = new ConcurrentHashMap<>();
+
+    // Falso após o início do desligamento: nenhum item novo é iniciado
+    private volatile boolean accepting = true;
+
+    // Sinalizado quando um item conclui e libera a vaga do seu parceiro
+    private final Object partnerSlotReleased = new Object();
+
+    @Value("${login-management.processing.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${login-management.processing.block-unblock-delay-ms:500}")
+    private long blockUnblockDelayMs;
+
+    @Value("${login-management.processing.item-pause-ms:500}")
+    private long itemPauseMs;
+
+    @Value("${login-management.create.max-retries:3}")
+    private int createMaxRetries;
 
     // Status constants
     private static final int STATUS_ERROR = -4108;
@@ -40,17 +105,30 @@ public class LoginManagementService {
     private static final int TYPE_CREATE = 3833;
     private static final int TYPE_RESET = 2268;  // Reset de senha (Block + Unblock)
 
+    // Espera máxima por uma vaga de parceiro antes de reavaliar os itens adiados
+    private static final long PARTNER_SLOT_POLL_MS = 200;
+
     // Limite de caracteres para log_Alteracao_Rastro
     private static final int LOG_MAX_LENGTH = 50;
 
+    // Limite de caracteres da mensagem no journal (o corpo de erro é gravado completo)
+    private static final int JOURNAL_MESSAGE_MAX_LENGTH = 1000;
+
     /**
-     * Processa todos os itens pendentes de Login Management
+     * Processa todos os itens pendentes de Login Management.
+     * Trabalha sobre projeções (sem entidades gerenciadas); cada atualização de status
+     * é um UPDATE direto com sua própria transação.
      */
-    @Transactional
     public void processLoginManagement() {
+        if (!accepting) {
+            log.info("Aplicação em desligamento, processamento ignorado");
+            return;
+        }
+
         log.info("Iniciando processamento de Login Management");
 
-        List<LoginManagement> pendingItems = repository.findPendingProcessing();
+        List<LoginManagementWorkItem> pendingItems = connectionBudget.withProcessorConnection(
+                repository::findPendingWorkItems);
 
         if (pendingItems.isEmpty()) {
             log.info("Nenhum item pendente encontrado");
@@ -59,352 +137,553 @@ public class LoginManagementService {
 
         log.info("Encontrados {} itens para processamento", pendingItems.size());
 
-        int successCount = 0;
-        int errorCount = 0;
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger errorCount = new AtomicInteger();
 
-        for (LoginManagement item : pendingItems) {
-            try {
-                boolean success = processItem(item);
-                if (success) {
-                    successCount++;
-                } else {
-                    errorCount++;
+        // Tipos desconhecidos não entram em nenhuma fila: são marcados como erro imediatamente
+        for (LoginManagementWorkItem item : pendingItems) {
+            if (ProcessingLane.fromManagementType(item.managementType()) == null) {
+                processItem(item);
+                errorCount.incrementAndGet();
+            }
+        }
+
+        for (Partner partner : partnerRegistry.all()) {
+            String bulkDeferral = quotaAccountant.bulkDeferralReason(partner);
+            if (bulkDeferral != null) {
+                log.info("Trabalho em lote do parceiro {} adiado: {}", partner.getId(), bulkDeferral);
+            }
+        }
+
+        LaneDispatcher dispatcher = laneScheduler.open(pendingItems,
+                () -> connectionBudget.withProcessorConnection(() -> repository.findPendingWorkItemsByType(TYPE_BLOCK)));
+        log.info("Itens por fila: {}", dispatcher.depths());
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<Boolean>> tasks = new ArrayList<>();
+        Deque<LoginManagementWorkItem> deferred = new ArrayDeque<>();
+
+        try {
+            while (accepting) {
+                // O próximo item só é escolhido quando há vaga, respeitando a prioridade das filas
+                inFlight.acquire();
+                LoginManagementWorkItem item = accepting ? nextItem(dispatcher, deferred) : null;
+                if (item == null) {
+                    inFlight.release();
+                    break;
                 }
 
-                Thread.sleep(500);
+                // Registrado antes do envio ao executor: a drenagem do desligamento sempre enxerga o item.
+                // Se o desligamento começou depois da escolha, o item não é iniciado e continua na fila.
+                CompletableFuture<Boolean> registration = new CompletableFuture<>();
+                inFlightTasks.put(item.id(), registration);
+                if (!accepting) {
+                    inFlightTasks.remove(item.id());
+                    registration.complete(false);
+                    releasePartnerSlot(partnerOf(item));
+                    inFlight.release();
+                    break;
+                }
 
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Processamento interrompido");
-                break;
-            } catch (Exception e) {
-                log.error("Erro inesperado ao processar item ID {}: {}", item.getId(), e.getMessage(), e);
-                updateItemStatus(item.getId(), STATUS_ERROR, "Erro inesperado", null, null);
-                errorCount++;
+                dispatcher.recordStart(item);
+                long dispatchedAt = System.nanoTime();
+                CompletableFuture<Boolean> task = CompletableFuture
+                        .supplyAsync(() -> processItem(item), loginManagementExecutor)
+                        .thenCompose(Function.identity())
+                        .exceptionally(e -> handleUnexpectedError(item, e));
+
+                tasks.add(task.whenComplete((success, e) -> {
+                    inFlightTasks.remove(item.id());
+                    registration.complete(Boolean.TRUE.equals(success));
+                    releasePartnerSlot(partnerOf(item));
+                    recordCompletionLatency(item, dispatchedAt);
+                    if (Boolean.TRUE.equals(success)) {
+                        successCount.incrementAndGet();
+                        attempts.remove(item.id());
+                    } else {
+                        errorCount.incrementAndGet();
+                    }
+                    // Pausa entre itens: a vaga só é liberada após o atraso, sem ocupar nenhum worker
+                    CompletableFuture.delayedExecutor(itemPauseMs, TimeUnit.MILLISECONDS).execute(inFlight::release);
+                }));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Processamento interrompido");
         }
 
-        log.info("Processamento finalizado. Sucessos: {}, Erros: {}", successCount, errorCount);
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+
+        log.info("Processamento finalizado. Sucessos: {}, Erros: {}", successCount.get(), errorCount.get());
+    }
+
+    /**
+     * Próximo item a processar cuja vaga de parceiro foi reservada. Itens de parceiros sem vaga ficam
+     * adiados (na ordem em que saíram das filas) e têm preferência assim que o parceiro liberar uma vaga,
+     * de modo que o volume de um parceiro não ocupa todos os workers. Retorna null quando não há mais itens.
+     */
+    private LoginManagementWorkItem nextItem(LaneDispatcher dispatcher, Deque<LoginManagementWorkItem> deferred)
+            throws InterruptedException {
+        while (accepting) {
+            for (Iterator<LoginManagementWorkItem> it = deferred.iterator(); it.hasNext(); ) {
+                LoginManagementWorkItem item = it.next();
+                if (isBulkDeferred(item)) {
+                    it.remove();
+                } else if (partnerOf(item).tryAcquireItemSlot()) {
+                    it.remove();
+                    return item;
+                }
+            }
+
+            LoginManagementWorkItem item;
+            while ((item = dispatcher.next()) != null) {
+                if (isBulkDeferred(item)) {
+                    continue;
+                }
+                if (partnerOf(item).tryAcquireItemSlot()) {
+                    return item;
+                }
+                deferred.add(item);
+            }
+
+            if (deferred.isEmpty()) {
+                return null;
+            }
+
+            // Restam apenas itens de parceiros sem vaga: aguarda a conclusão de algum item
+            synchronized (partnerSlotReleased) {
+                partnerSlotReleased.wait(PARTNER_SLOT_POLL_MS);
+            }
+        }
+        return null;
     }
 
     /**
-     * Processa um item individual
+     * Item de fila em lote (ex.: CREATE) fora da janela fora de pico ou sem orçamento da API do seu
+     * parceiro: não é iniciado neste ciclo e continua na fila. As operações urgentes nunca são adiadas.
      */
-    private boolean processItem(LoginManagement item) {
+    private boolean isBulkDeferred(LoginManagementWorkItem item) {
+        if (!quotaAccountant.isBulk(ProcessingLane.fromManagementType(item.managementType()))
+                || quotaAccountant.isBulkAllowed(partnerOf(item))) {
+            return false;
+        }
+        log.debug("Item ID: {} - Trabalho em lote adiado para um próximo ciclo", item.id());
+        return true;
+    }
+
+    private void releasePartnerSlot(Partner partner) {
+        partner.releaseItemSlot();
+        synchronized (partnerSlotReleased) {
+            partnerSlotReleased.notifyAll();
+        }
+    }
+
+    /**
+     * Parceiro do item, pelo credenciador
+     */
+    private Partner partnerOf(LoginManagementWorkItem item) {
+        return partnerRegistry.forCredenciador(item.credenciadorId());
+    }
+
+    /**
+     * Registra o tempo de processamento (do despacho à conclusão) e o tempo total desde a entrada na fila
+     */
+    private void recordCompletionLatency(LoginManagementWorkItem item, long dispatchedAt) {
+        ProcessingLane lane = ProcessingLane.fromManagementType(item.managementType());
+        latencyTracker.record(LatencyTracker.Kind.PROCESSING, lane, Duration.ofNanos(System.nanoTime() - dispatchedAt));
+        if (item.queuedAt() != null) {
+            latencyTracker.record(LatencyTracker.Kind.END_TO_END, lane,
+                    Duration.between(item.queuedAt(), LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Interrompe a retirada de novos itens da fila (início do desligamento)
+     */
+    public void stopAccepting() {
+        accepting = false;
+        log.info("Processamento deixou de aceitar novos itens. Em andamento: {}", inFlightTasks.size());
+    }
+
+    /**
+     * Aguarda os itens em andamento até o prazo; os que não terminarem são registrados como checkpoint
+     * (o progresso do CREATE já está salvo passo a passo e o item permanece na fila para ser retomado)
+     */
+    public void drainInFlight(long timeoutMs) {
+        CompletableFuture<?>[] pending = inFlightTasks.values().toArray(new CompletableFuture[0]);
+        if (pending.length == 0) {
+            return;
+        }
+
+        log.info("Aguardando {} itens em andamento (prazo: {} ms)", pending.length, timeoutMs);
+        try {
+            CompletableFuture.allOf(pending).get(timeoutMs, TimeUnit.MILLISECONDS);
+            log.info("Itens em andamento concluídos antes do desligamento");
+        } catch (TimeoutException e) {
+            checkpointInFlight();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            checkpointInFlight();
+        } catch (ExecutionException e) {
+            log.warn("Item concluído com erro durante o desligamento: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registra no journal os itens que não terminaram dentro do prazo de desligamento
+     */
+    private void checkpointInFlight() {
+        for (Integer itemId : inFlightTasks.keySet()) {
+            log.warn("Item ID: {} não concluído no desligamento; permanece na fila para ser retomado", itemId);
+            journalWriter.record(new ProcessingJournalEntry(itemId, "SHUTDOWN_CHECKPOINT", false, null, null,
+                    attempts.getOrDefault(itemId, 1), "Interrompido no desligamento", null, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Trata exceções não capturadas do processamento assíncrono de um item
+     */
+    private boolean handleUnexpectedError(LoginManagementWorkItem item, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Erro inesperado ao processar item ID {}: {}", item.id(), cause.getMessage(), cause);
+        updateItemStatus(item, STATUS_ERROR, "Erro inesperado", null, null);
+        return false;
+    }
+
+    /**
+     * Executor que roda a continuação nos workers após o atraso informado
+     * (o worker fica livre durante a espera)
+     */
+    private Executor afterDelay(long delayMs) {
+        return CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, loginManagementExecutor);
+    }
+
+    /**
+     * Processa um item individual. O futuro é concluído quando todas as etapas do item terminam.
+     */
+    private CompletableFuture<Boolean> processItem(LoginManagementWorkItem item) {
         try {
-            log.info("Processando item ID: {} | Tipo: {} | UserCode: {}",
-                    item.getId(), getManagementTypeDescription(item.getManagementType()), item.getUserCode());
+            int attempt = attempts.merge(item.id(), 1, Integer::sum);
+            log.info("Processando item ID: {} | Tipo: {} | UserCode: {} | Tentativa: {}",
+                    item.id(), getManagementTypeDescription(item.managementType()), item.userCode(), attempt);
 
             // ========== CREATE ==========
-            if (item.getManagementType() == TYPE_CREATE) {
+            if (item.managementType() == TYPE_CREATE) {
                 return processCreateUser(item);
             }
             // ========== RESET ==========
-            else if (item.getManagementType() == TYPE_RESET) {
+            else if (item.managementType() == TYPE_RESET) {
                 return processResetPassword(item);
             }
             // ========== BLOCK ==========
-            else if (item.getManagementType() == TYPE_BLOCK) {
-                return processBlockUser(item);
+            else if (item.managementType() == TYPE_BLOCK) {
+                return CompletableFuture.completedFuture(processBlockUser(item));
             }
             // ========== UNBLOCK ==========
-            else if (item.getManagementType() == TYPE_UNBLOCK) {
-                return processUnblockUser(item);
+            else if (item.managementType() == TYPE_UNBLOCK) {
+                return CompletableFuture.completedFuture(processUnblockUser(item));
             }
             // ========== TIPO DESCONHECIDO ==========
             else {
-                log.warn("Tipo de management desconhecido: {} para item ID: {}", item.getManagementType(), item.getId());
-                updateItemStatus(item.getId(), STATUS_ERROR, "Tipo desconhecido", null, null);
-                return false;
+                log.warn("Tipo de management desconhecido: {} para item ID: {}", item.managementType(), item.id());
+                updateItemStatus(item, STATUS_ERROR, "Tipo desconhecido", null, null);
+                return CompletableFuture.completedFuture(false);
             }
 
         } catch (Exception e) {
-            log.error("Erro inesperado no processamento do item ID: {} - {}", item.getId(), e.getMessage(), e);
-            updateItemStatus(item.getId(), STATUS_ERROR, "Erro no processamento", null, null);
-            return false;
+            log.error("Erro inesperado no processamento do item ID: {} - {}", item.id(), e.getMessage(), e);
+            updateItemStatus(item, STATUS_ERROR, "Erro no processamento", null, null);
+            return CompletableFuture.completedFuture(false);
         }
     }
 
     /**
-     * Processa criação de usuário (com análise de grupo)
+     * Processa criação de usuário (com análise de grupo).
+     *
+     * Fluxo: Criar usuário -> Grupo (vincular existente ou criar novo) -> Block -> Unblock.
+     * Cada passo concluído é persistido em dadosComplementares/externalKey; em caso de falha
+     * a próxima tentativa retoma a partir do passo que falhou, sem repetir chamadas.
      */
-    private boolean processCreateUser(LoginManagement item) {
+    private CompletableFuture<Boolean> processCreateUser(LoginManagementWorkItem item) {
         // Validação do UserCode
-        if (item.getUserCode() == null || item.getUserCode().trim().isEmpty()) {
-            log.warn("UserCode vazio para item ID: {}", item.getId());
-            updateItemStatus(item.getId(), STATUS_ERROR, "UserCode vazio", null, null);
-            return false;
+        if (item.userCode() == null || item.userCode().trim().isEmpty()) {
+            log.warn("UserCode vazio para item ID: {}", item.id());
+            updateItemStatus(item, STATUS_ERROR, "UserCode vazio", null, null);
+            return CompletableFuture.completedFuture(false);
         }
 
-        // Parse do JSON de dadosComplementares
-        DadosComplementaresDto dados = parseDadosComplementares(item.getDadosComplementares());
-
-        if (dados == null) {
-            log.warn("Item ID: {} - dadosComplementares inválido ou vazio", item.getId());
-            // Se não tem dados complementares, cria usuário sem grupo
-            return createUserOnly(item);
+        CreateFlowState state = CreateFlowState.from(item.dadosComplementares(), objectMapper);
+        if (state.isResumed()) {
+            log.info("Item ID: {} - Retomando CREATE. Passos já concluídos: {}", item.id(), state.getCompleted());
         }
 
-        String groupUuid = dados.getManagementGroupsUuid();
-        String groupNome = dados.getManagementGroupsNome();
+        // Passo 1: Criar usuário
+        if (!state.isDone(CreateStep.USER_CREATED)) {
+            ApiResponseDto createResponse = externalApiService.createUser(partnerOf(item), item.userCode());
+            journalStep(item.id(), "CREATE_USER", createResponse);
+
+            if (!createResponse.isSuccess()) {
+                String errorMsg = extractErrorCode(createResponse.getMessage());
+                updateItemStatus(item, STATUS_ERROR, errorMsg, null, null);
+                log.error("Erro ao criar usuário do item ID: {} - {}", item.id(), createResponse.getMessage());
+                return CompletableFuture.completedFuture(false);
+            }
 
-        // Cenário 1: Tem UUID do grupo - vincular a grupo existente
-        if (groupUuid != null && !groupUuid.trim().isEmpty()) {
-            log.info("Item ID: {} - Criar usuário e vincular ao grupo UUID: {}", item.getId(), groupUuid);
-            return createUserAndLinkToExistingGroup(item, groupUuid, groupNome);
+            state.setUserUuid((String) createResponse.getData());
+            state.markDone(CreateStep.USER_CREATED);
+            saveCreateProgress(item.id(), state, "Usuário criado");
+            log.info("Item ID: {} - Usuário criado com UUID: {}", item.id(), state.getUserUuid());
         }
 
-        // Cenário 2: Tem nome mas não tem UUID - criar novo grupo
-        if (groupNome != null && !groupNome.trim().isEmpty()) {
-            log.info("Item ID: {} - Criar usuário e criar novo grupo: {}", item.getId(), groupNome);
-            return createUserAndCreateNewGroup(item, groupNome);
-        }
+        String userUuid = state.getUserUuid();
+
+        // Passos 2 e 3 dependem apenas do userUuid e são independentes entre si:
+        // grupo e ativação (BLOCK -> UNBLOCK) rodam em paralelo nos workers
+        // O ramo de grupo conclui com a falha inesperada (ou null), para que ela chegue à gravação final
+        CompletableFuture<Throwable> groupBranch = state.isDone(CreateStep.GROUP_LINKED)
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(() -> runGroupBranch(item, state, userUuid), loginManagementExecutor)
+                        .handle((ignored, e) -> e);
 
-        // Cenário 3: Não tem nem nome nem UUID - apenas criar usuário
-        log.info("Item ID: {} - Criar usuário sem grupo", item.getId());
-        return createUserOnly(item);
+        CompletableFuture<String> activationBranch = activateUser(item.id(), partnerOf(item), state, userUuid);
+
+        // Junta os ramos antes da gravação final do status
+        return activationBranch.thenCombine(groupBranch,
+                (activationError, groupError) -> finishCreateUser(item, state, userUuid, activationError, groupError));
     }
 
     /**
-     * Cenário 1: Criar usuário e vincular a grupo existente
+     * Gravação final do CREATE, após a conclusão dos dois ramos.
+     * Com falha em um dos ramos o item fica em ERRO com o estado gravado: a próxima tentativa
+     * retoma apenas o que não foi concluído (ex.: GROUP_LINKED, sem repetir a ativação).
      */
-    private boolean createUserAndLinkToExistingGroup(LoginManagement item, String groupUuid, String groupNome) {
-        // Passo 1: Criar usuário
-        ApiResponseDto createResponse = externalApiService.createUser(item.getUserCode());
-
-        if (!createResponse.isSuccess()) {
-            String errorMsg = extractErrorCode(createResponse.getMessage());
-            updateItemStatus(item.getId(), STATUS_ERROR, errorMsg, null, null);
-            log.error("Erro ao criar usuário do item ID: {} - {}", item.getId(), createResponse.getMessage());
-            return false;
+    private boolean finishCreateUser(LoginManagementWorkItem item, CreateFlowState state, String userUuid,
+                                     String activationError, Throwable groupError) {
+        if (groupError != null) {
+            Throwable cause = groupError instanceof CompletionException && groupError.getCause() != null
+                    ? groupError.getCause() : groupError;
+            log.error("Item ID: {} - Erro no tratamento de grupo: {}", item.id(), cause.getMessage(), cause);
         }
 
-        String userUuid = (String) createResponse.getData();
-        log.info("Item ID: {} - Usuário criado com UUID: {}", item.getId(), userUuid);
-
-        // Passo 2: Vincular ao grupo existente
-        ApiResponseDto groupResponse = externalApiService.addUserToGroup(groupUuid, userUuid);
+        if (activationError != null || groupError != null) {
+            String errorMsg = activationError != null ? activationError : "Erro no tratamento de grupo";
+            int failures = state.recordFailure();
+            if (failures <= createMaxRetries) {
+                updateItemStatus(item, STATUS_ERROR, errorMsg, state.toJson(), null);
+                return false;
+            }
 
-        if (!groupResponse.isSuccess()) {
-            log.warn("Item ID: {} - Usuário criado mas falhou ao vincular ao grupo: {}",
-                    item.getId(), groupResponse.getMessage());
-            String dados = buildDadosJson(userUuid, null, null, "Erro ao vincular");
-            updateItemStatusWithExternalKey(item.getId(), STATUS_SUCCESS, "Criado sem grupo", dados, userUuid);
-            return executeBlockAndUnblock(item.getId(), userUuid);
+            // Tentativas esgotadas: o usuário já existe, então o item é encerrado como antes do
+            // fluxo retomável (sucesso com aviso), sem voltar à fila
+            state.setWarning(errorMsg);
+            String finalMsg = activationError != null ? "Criado sem ativação" : "Criado sem grupo";
+            updateItemStatusWithExternalKey(item, STATUS_SUCCESS, finalMsg, state.toJson(), userUuid);
+            log.warn("Item ID: {} - CREATE encerrado após {} falhas: {}", item.id(), failures, errorMsg);
+            return true;
         }
 
-        log.info("Item ID: {} - Usuário vinculado ao grupo com sucesso", item.getId());
-        String dados = buildDadosJson(userUuid, groupUuid, groupNome, null);
-        updateItemStatusWithExternalKey(item.getId(), STATUS_SUCCESS, "Criado com grupo", dados, userUuid);
-
-        // Passo 3: Executar BLOCK e UNBLOCK
-        return executeBlockAndUnblock(item.getId(), userUuid);
+        updateItemStatusWithExternalKey(item, STATUS_SUCCESS, "Criado e ativado", state.toJson(), userUuid);
+        log.info("Item ID: {} - Fluxo CREATE completo: Criar -> (Grupo || Block -> Unblock)", item.id());
+        return true;
     }
 
     /**
-     * Cenário 2: Criar usuário e criar novo grupo
+     * Ramo de grupo do CREATE. Falhas de API no grupo são registradas como aviso (o usuário segue criado);
+     * uma exceção inesperada deixa GROUP_LINKED pendente e o item em ERRO, sem impedir a ativação.
      */
-    private boolean createUserAndCreateNewGroup(LoginManagement item, String groupNome) {
-        // Passo 1: Criar usuário
-        ApiResponseDto createResponse = externalApiService.createUser(item.getUserCode());
-
-        if (!createResponse.isSuccess()) {
-            String errorMsg = extractErrorCode(createResponse.getMessage());
-            updateItemStatus(item.getId(), STATUS_ERROR, errorMsg, null, null);
-            log.error("Erro ao criar usuário do item ID: {} - {}", item.getId(), createResponse.getMessage());
-            return false;
-        }
-
-        String userUuid = (String) createResponse.getData();
-        log.info("Item ID: {} - Usuário criado com UUID: {}", item.getId(), userUuid);
+    private void runGroupBranch(LoginManagementWorkItem item, CreateFlowState state, String userUuid) {
+        handleCreateGroup(item, state, userUuid);
+        state.markDone(CreateStep.GROUP_LINKED);
+        saveCreateProgress(item.id(), state, "Grupo tratado");
+    }
 
-        // Passo 2: Criar novo grupo
-        String partnerExternalKey = item.getUserCode();
-        ApiResponseDto createGroupResponse = externalApiService.createSellerGroup(groupNome, partnerExternalKey);
+    /**
+     * Trata o grupo do usuário criado conforme dadosComplementares:
+     *   Cenário 1: tem UUID do grupo - vincular a grupo existente
+     *   Cenário 2: tem nome mas não tem UUID - criar novo grupo e vincular
+     *   Cenário 3: não tem nem nome nem UUID - usuário sem grupo
+     */
+    private void handleCreateGroup(LoginManagementWorkItem item, CreateFlowState state, String userUuid) {
+        DadosComplementaresDto dados = parseDadosComplementares(item.dadosComplementares());
 
-        if (!createGroupResponse.isSuccess()) {
-            log.warn("Item ID: {} - Usuário criado mas falhou ao criar grupo: {}",
-                    item.getId(), createGroupResponse.getMessage());
-            String dados = buildDadosJson(userUuid, null, null, "Erro ao criar grupo");
-            updateItemStatusWithExternalKey(item.getId(), STATUS_SUCCESS, "Criado sem grupo", dados, userUuid);
-            return executeBlockAndUnblock(item.getId(), userUuid);
-        }
+        String groupUuid = dados != null ? dados.getManagementGroupsUuid() : null;
+        String groupNome = dados != null ? dados.getManagementGroupsNome() : null;
 
-        String newGroupUuid = (String) createGroupResponse.getData();
-        log.info("Item ID: {} - Grupo criado com UUID: {}", item.getId(), newGroupUuid);
+        // Cenário 1: vincular a grupo existente
+        if (groupUuid != null && !groupUuid.trim().isEmpty()) {
+            log.info("Item ID: {} - Vincular usuário ao grupo UUID: {}", item.id(), groupUuid);
+            ApiResponseDto groupResponse = externalApiService.addUserToGroup(partnerOf(item), groupUuid, userUuid);
+            journalStep(item.id(), "ADD_USER_TO_GROUP", groupResponse);
+
+            if (!groupResponse.isSuccess()) {
+                log.warn("Item ID: {} - Usuário criado mas falhou ao vincular ao grupo: {}",
+                        item.id(), groupResponse.getMessage());
+                state.setWarning("Erro ao vincular");
+                return;
+            }
 
-        // Passo 3: Salvar grupo no banco
-        try {
-            LoginManagementGroups newGroup = new LoginManagementGroups();
-            newGroup.setUuid(newGroupUuid);
-            newGroup.setNome(groupNome);
-            newGroup.setPartnerExternalKey(partnerExternalKey);
-            groupsRepository.save(newGroup);
-            log.info("Item ID: {} - Grupo salvo no banco com ID: {}", item.getId(), newGroup.getId());
-        } catch (Exception e) {
-            log.error("Item ID: {} - Erro ao salvar grupo no banco: {}", item.getId(), e.getMessage());
+            log.info("Item ID: {} - Usuário vinculado ao grupo com sucesso", item.id());
+            state.setGroup(groupUuid, groupNome);
+            return;
         }
 
-        // Passo 4: Vincular usuário ao grupo recém-criado
-        ApiResponseDto linkResponse = externalApiService.addUserToGroup(newGroupUuid, userUuid);
+        // Cenário 2: criar novo grupo
+        if (groupNome != null && !groupNome.trim().isEmpty()) {
+            String partnerExternalKey = item.userCode();
+
+            if (!state.isDone(CreateStep.GROUP_CREATED)) {
+                log.info("Item ID: {} - Criar novo grupo: {}", item.id(), groupNome);
+                ApiResponseDto createGroupResponse = externalApiService.createSellerGroup(partnerOf(item), groupNome, partnerExternalKey);
+                journalStep(item.id(), "CREATE_GROUP", createGroupResponse);
+
+                if (!createGroupResponse.isSuccess()) {
+                    log.warn("Item ID: {} - Usuário criado mas falhou ao criar grupo: {}",
+                            item.id(), createGroupResponse.getMessage());
+                    state.setWarning("Erro ao criar grupo");
+                    return;
+                }
 
-        if (!linkResponse.isSuccess()) {
-            log.warn("Item ID: {} - Grupo criado mas falhou ao vincular usuário: {}",
-                    item.getId(), linkResponse.getMessage());
-            String dados = buildDadosJson(userUuid, newGroupUuid, groupNome, "Grupo criado mas não vinculado");
-            updateItemStatusWithExternalKey(item.getId(), STATUS_SUCCESS, "Criado sem vínculo", dados, userUuid);
-            return executeBlockAndUnblock(item.getId(), userUuid);
-        }
+                String newGroupUuid = (String) createGroupResponse.getData();
+                log.info("Item ID: {} - Grupo criado com UUID: {}", item.id(), newGroupUuid);
+
+                // Salvar grupo no banco
+                try {
+                    LoginManagementGroups newGroup = new LoginManagementGroups();
+                    newGroup.setUuid(newGroupUuid);
+                    newGroup.setNome(groupNome);
+                    newGroup.setPartnerExternalKey(partnerExternalKey);
+                    connectionBudget.withProcessorConnection(() -> groupsRepository.save(newGroup));
+                    log.info("Item ID: {} - Grupo salvo no banco com ID: {}", item.id(), newGroup.getId());
+                } catch (Exception e) {
+                    log.error("Item ID: {} - Erro ao salvar grupo no banco: {}", item.id(), e.getMessage());
+                }
 
-        log.info("Item ID: {} - Usuário vinculado ao novo grupo com sucesso", item.getId());
-        String dados = buildDadosJson(userUuid, newGroupUuid, groupNome, null);
-        updateItemStatusWithExternalKey(item.getId(), STATUS_SUCCESS, "Criado com novo grupo", dados, userUuid);
+                state.setGroup(newGroupUuid, groupNome);
+                state.markDone(CreateStep.GROUP_CREATED);
+                saveCreateProgress(item.id(), state, "Grupo criado");
+            }
 
-        // Passo 5: Executar BLOCK e UNBLOCK
-        return executeBlockAndUnblock(item.getId(), userUuid);
-    }
+            // Vincular usuário ao grupo recém-criado
+            String newGroupUuid = state.getGroupUuid();
+            ApiResponseDto linkResponse = externalApiService.addUserToGroup(partnerOf(item), newGroupUuid, userUuid);
+            journalStep(item.id(), "ADD_USER_TO_GROUP", linkResponse);
 
-    /**
-     * Cenário 3: Criar apenas usuário (sem grupo)
-     */
-    private boolean createUserOnly(LoginManagement item) {
-        ApiResponseDto createResponse = externalApiService.createUser(item.getUserCode());
+            if (!linkResponse.isSuccess()) {
+                log.warn("Item ID: {} - Grupo criado mas falhou ao vincular usuário: {}",
+                        item.id(), linkResponse.getMessage());
+                state.setWarning("Grupo criado mas não vinculado");
+                return;
+            }
 
-        if (!createResponse.isSuccess()) {
-            String errorMsg = extractErrorCode(createResponse.getMessage());
-            updateItemStatus(item.getId(), STATUS_ERROR, errorMsg, null, null);
-            log.error("Erro ao criar usuário do item ID: {} - {}", item.getId(), createResponse.getMessage());
-            return false;
+            log.info("Item ID: {} - Usuário vinculado ao novo grupo com sucesso", item.id());
+            return;
         }
 
-        String userUuid = (String) createResponse.getData();
-        log.info("Item ID: {} - Usuário criado com sucesso (sem grupo)", item.getId());
-
-        String dados = buildDadosJson(userUuid, null, null, null);
-        updateItemStatusWithExternalKey(item.getId(), STATUS_SUCCESS, "Criado OK", dados, userUuid);
-
-        // Executar BLOCK e UNBLOCK
-        return executeBlockAndUnblock(item.getId(), userUuid);
+        // Cenário 3: usuário sem grupo
+        log.info("Item ID: {} - Usuário sem grupo", item.id());
     }
 
     /**
-     * Executa BLOCK seguido de UNBLOCK após criar usuário
+     * Ramo de ativação do CREATE: BLOCK seguido de UNBLOCK após criar usuário.
+     * O UNBLOCK é agendado após a pausa, liberando o worker durante a espera.
+     * Conclui com null em caso de sucesso (senha registrada no estado) ou com a mensagem de erro;
+     * o progresso fica salvo e a próxima tentativa retoma daqui. Usuário já ativado não é reativado
+     * (um novo UNBLOCK geraria outra senha).
      */
-    private boolean executeBlockAndUnblock(Integer itemId, String userUuid) {
-        try {
-            log.info("Item ID: {} - Iniciando BLOCK do usuário {}", itemId, userUuid);
+    private CompletableFuture<String> activateUser(Integer itemId, Partner partner, CreateFlowState state, String userUuid) {
+        if (state.isDone(CreateStep.ACTIVATED)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (state.isDone(CreateStep.BLOCKED)) {
+            return CompletableFuture.completedFuture(unblockCreatedUser(itemId, partner, state, userUuid));
+        }
 
+        try {
             // Passo 1: BLOQUEAR usuário
-            ApiResponseDto blockResponse = externalApiService.blockUser(userUuid);
+            log.info("Item ID: {} - Iniciando BLOCK do usuário {}", itemId, userUuid);
+            ApiResponseDto blockResponse = externalApiService.blockUser(partner, userUuid);
+            journalStep(itemId, "BLOCK", blockResponse);
 
             if (!blockResponse.isSuccess()) {
                 log.error("Item ID: {} - Falha ao bloquear usuário: {}", itemId, blockResponse.getMessage());
-                // Não consideramos falha crítica - usuário já foi criado
-                return true;
+                return CompletableFuture.completedFuture("Erro no block: " + extractErrorCode(blockResponse.getMessage()));
             }
 
+            userStateCache.record(partner, userUuid, UserState.BLOCKED);
+            state.markDone(CreateStep.BLOCKED);
+            saveCreateProgress(itemId, state, "Usuário bloqueado");
             log.info("Item ID: {} - Usuário bloqueado com sucesso", itemId);
 
-            // Pequena pausa entre block e unblock
-            Thread.sleep(500);
+        } catch (Exception e) {
+            log.error("Item ID: {} - Erro durante Block: {}", itemId, e.getMessage(), e);
+            return CompletableFuture.completedFuture("Erro no block/unblock");
+        }
+
+        // Passo 2: DESBLOQUEAR usuário após a pausa
+        return CompletableFuture.supplyAsync(() -> unblockCreatedUser(itemId, partner, state, userUuid),
+                afterDelay(blockUnblockDelayMs));
+    }
 
-            // Passo 2: DESBLOQUEAR usuário
+    /**
+     * Segunda etapa da ativação do CREATE: UNBLOCK e registro da senha no estado
+     */
+    private String unblockCreatedUser(Integer itemId, Partner partner, CreateFlowState state, String userUuid) {
+        try {
             log.info("Item ID: {} - Iniciando UNBLOCK do usuário {}", itemId, userUuid);
-            ApiResponseDto unblockResponse = externalApiService.unblockUser(userUuid);
+            ApiResponseDto unblockResponse = externalApiService.unblockUser(partner, userUuid);
+            journalStep(itemId, "UNBLOCK", unblockResponse);
 
             if (!unblockResponse.isSuccess()) {
                 log.error("Item ID: {} - Falha ao desbloquear usuário: {}", itemId, unblockResponse.getMessage());
-                // Não consideramos falha crítica - usuário já foi criado
-                return true;
+                return "Erro no unblock: " + extractErrorCode(unblockResponse.getMessage());
             }
 
-            // Atualizar dadosComplementares com a senha (ou mensagem padrão)
+            // Registrar a senha (ou mensagem padrão) no estado
             String newPassword = (String) unblockResponse.getData();
             log.info("Item ID: {} - Usuário desbloqueado. Senha: {}", itemId,
                     newPassword != null ? "[SENHA GERADA]" : "[SEM SENHA]");
 
-            // Buscar item novamente para pegar dados atuais
-            LoginManagement currentItem = repository.findById(itemId).orElse(null);
-            if (currentItem != null && currentItem.getDadosComplementares() != null) {
-                // Adiciona a senha aos dados complementares existentes
-                String updatedDados = addPasswordToDados(currentItem.getDadosComplementares(), newPassword);
-                updateItemStatus(itemId, STATUS_SUCCESS, "Criado e ativado", updatedDados, null);
-            }
-
-            log.info("Item ID: {} - Fluxo CREATE completo: Criar -> Block -> Unblock", itemId);
-            return true;
+            state.setNewPassword(newPassword != null && !newPassword.trim().isEmpty()
+                    ? newPassword : "Usuário ativo. Clicar em esqueci minha senha.");
+            userStateCache.record(partner, userUuid, UserState.ACTIVE);
+            state.markDone(CreateStep.ACTIVATED);
+            saveCreateProgress(itemId, state, "Usuário ativado");
+            return null;
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Item ID: {} - Processamento interrompido durante Block/Unblock", itemId);
-            return true; // Usuário já foi criado
         } catch (Exception e) {
-            log.error("Item ID: {} - Erro durante Block/Unblock: {}", itemId, e.getMessage(), e);
-            return true; // Usuário já foi criado
+            log.error("Item ID: {} - Erro durante Unblock: {}", itemId, e.getMessage(), e);
+            return "Erro no block/unblock";
         }
     }
 
     /**
-     * Adiciona a senha ao JSON de dadosComplementares
+     * Registra a chamada à API no journal de processamento (assíncrono, não bloqueia o item)
      */
-    private String addPasswordToDados(String currentDados, String newPassword) {
-        try {
-            if (currentDados == null || currentDados.trim().isEmpty()) {
-                // Se não tem dados, cria um JSON novo
-                if (newPassword != null && !newPassword.trim().isEmpty()) {
-                    return "{\"newPassword\":\"" + escapeJson(newPassword) + "\"}";
-                }
-                return "{\"newPassword\":\"Usuário ativo. Clicar em esqueci minha senha.\"}";
-            }
-
-            // Remove espaços e valida se é um JSON válido
-            String dados = currentDados.trim();
-
-            // Se termina com }, remove para adicionar a senha
-            if (dados.endsWith("}")) {
-                String base = dados.substring(0, dados.length() - 1);
-
-                // Se o JSON está vazio {}, não precisa de vírgula
-                if (base.trim().equals("{")) {
-                    if (newPassword != null && !newPassword.trim().isEmpty()) {
-                        return "{\"newPassword\":\"" + escapeJson(newPassword) + "\"}";
-                    }
-                    return "{\"newPassword\":\"Usuário ativo. Clicar em esqueci minha senha.\"}";
-                }
-
-                // Adiciona vírgula e a senha
-                if (newPassword != null && !newPassword.trim().isEmpty()) {
-                    return base + ",\"newPassword\":\"" + escapeJson(newPassword) + "\"}";
-                }
-                return base + ",\"newPassword\":\"Usuário ativo. Clicar em esqueci minha senha.\"}";
-            }
-
-            // Se não termina com }, retorna o original (JSON inválido)
-            log.warn("JSON de dadosComplementares inválido: {}", currentDados);
-            return currentDados;
-
-        } catch (Exception e) {
-            log.error("Erro ao adicionar senha ao JSON: {}", e.getMessage(), e);
-            // Em caso de erro, retorna um JSON válido com a senha
-            if (newPassword != null && !newPassword.trim().isEmpty()) {
-                return "{\"newPassword\":\"" + escapeJson(newPassword) + "\"}";
-            }
-            return "{\"newPassword\":\"Usuário ativo. Clicar em esqueci minha senha.\"}";
+    private void journalStep(Integer itemId, String step, ApiResponseDto response) {
+        String message = response.getMessage();
+        if (message != null && message.length() > JOURNAL_MESSAGE_MAX_LENGTH) {
+            message = message.substring(0, JOURNAL_MESSAGE_MAX_LENGTH);
         }
+
+        journalWriter.record(new ProcessingJournalEntry(itemId, step, response.isSuccess(),
+                response.getHttpStatus(), response.getLatencyMs(), attempts.getOrDefault(itemId, 1),
+                message, response.getErrorBody(), LocalDateTime.now()));
     }
 
     /**
-     * Escapa caracteres especiais para JSON
+     * Persiste o progresso do CREATE sem alterar o status do item
      */
-    private String escapeJson(String text) {
-        if (text == null) {
-            return "";
+    private void saveCreateProgress(Integer itemId, CreateFlowState state, String logMessage) {
+        try {
+            // Os ramos paralelos gravam o mesmo estado: serializa para que um snapshot antigo não sobrescreva um novo
+            synchronized (state) {
+                connectionBudget.runWithProcessorConnection(() -> repository.updateProgress(itemId, LocalDateTime.now(),
+                        truncateLog(logMessage), state.toJson(), state.getUserUuid()));
+            }
+            log.debug("Item ID: {} - Progresso do CREATE salvo: {}", itemId, state.getCompleted());
+        } catch (Exception e) {
+            log.error("Item ID: {} - Erro ao salvar progresso do CREATE: {}", itemId, e.getMessage(), e);
         }
-        return text.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
     }
 
     /**
@@ -423,94 +702,88 @@ public class LoginManagementService {
         }
     }
 
-    /**
-     * Constrói JSON de resultado para salvar em dadosComplementares
-     */
-    private String buildDadosJson(String userUuid, String groupUuid, String groupNome, String warning) {
-        StringBuilder json = new StringBuilder("{");
-        json.append("\"userUuid\":\"").append(userUuid).append("\"");
-
-        if (groupUuid != null) {
-            json.append(",\"groupUuid\":\"").append(groupUuid).append("\"");
-        }
-
-        if (groupNome != null) {
-            json.append(",\"groupNome\":\"").append(groupNome).append("\"");
-        }
-
-        if (warning != null) {
-            json.append(",\"warning\":\"").append(warning).append("\"");
-        }
-
-        json.append("}");
-        return json.toString();
-    }
-
     /**
      * Processa reset de senha (Block + Unblock)
      */
-    private boolean processResetPassword(LoginManagement item) {
+    private CompletableFuture<Boolean> processResetPassword(LoginManagementWorkItem item) {
         // Validação do ExternalKey
-        if (item.getExternalKey() == null || item.getExternalKey().trim().isEmpty()) {
-            log.warn("ExternalKey vazia para item ID: {}", item.getId());
-            updateItemStatus(item.getId(), STATUS_ERROR, "ExternalKey vazia", null, null);
-            return false;
+        if (item.externalKey() == null || item.externalKey().trim().isEmpty()) {
+            log.warn("ExternalKey vazia para item ID: {}", item.id());
+            updateItemStatus(item, STATUS_ERROR, "ExternalKey vazia", null, null);
+            return CompletableFuture.completedFuture(false);
         }
 
-        log.info("Item ID: {} - Iniciando RESET de senha para usuário {}", item.getId(), item.getExternalKey());
+        log.info("Item ID: {} - Iniciando RESET de senha para usuário {}", item.id(), item.externalKey());
 
         try {
             // Passo 1: BLOQUEAR usuário
-            log.info("Item ID: {} - Bloqueando usuário {}", item.getId(), item.getExternalKey());
-            ApiResponseDto blockResponse = externalApiService.blockUser(item.getExternalKey());
-
-            if (!blockResponse.isSuccess()) {
+            log.info("Item ID: {} - Bloqueando usuário {}", item.id(), item.externalKey());
+            Partner partner = partnerOf(item);
+            ApiResponseDto blockResponse = externalApiService.blockUser(partner, item.externalKey());
+            journalStep(item.id(), "BLOCK", blockResponse);
+
+            // Já bloqueado (422 ALREADY_BLOCKED) não impede o reset: segue para o UNBLOCK
+            if (blockResponse.isSuccess()
+                    || userStateCache.recordAlreadyInState(partner, item.externalKey(), blockResponse) == UserState.BLOCKED) {
+                userStateCache.record(partner, item.externalKey(), UserState.BLOCKED);
+            } else {
                 String errorMsg = extractErrorCode(blockResponse.getMessage());
-                updateItemStatus(item.getId(), STATUS_ERROR, "Erro no block: " + errorMsg, null, null);
-                log.error("Item ID: {} - Falha ao bloquear usuário: {}", item.getId(), blockResponse.getMessage());
-                return false;
+                updateItemStatus(item, STATUS_ERROR, "Erro no block: " + errorMsg, null, null);
+                log.error("Item ID: {} - Falha ao bloquear usuário: {}", item.id(), blockResponse.getMessage());
+                return CompletableFuture.completedFuture(false);
             }
 
-            log.info("Item ID: {} - Usuário bloqueado com sucesso", item.getId());
+            log.info("Item ID: {} - Usuário bloqueado com sucesso", item.id());
+
+        } catch (Exception e) {
+            log.error("Item ID: {} - Erro durante Reset: {}", item.id(), e.getMessage(), e);
+            updateItemStatus(item, STATUS_ERROR, "Erro no reset", null, null);
+            return CompletableFuture.completedFuture(false);
+        }
 
-            // Pequena pausa entre block e unblock
-            Thread.sleep(500);
+        // Passo 2: DESBLOQUEAR usuário após a pausa, sem ocupar o worker durante a espera
+        return CompletableFuture.supplyAsync(() -> finishResetPassword(item), afterDelay(blockUnblockDelayMs));
+    }
 
-            // Passo 2: DESBLOQUEAR usuário
-            log.info("Item ID: {} - Desbloqueando usuário {}", item.getId(), item.getExternalKey());
-            ApiResponseDto unblockResponse = externalApiService.unblockUser(item.getExternalKey());
+    /**
+     * Segunda etapa do reset: UNBLOCK e gravação da nova senha
+     */
+    private boolean finishResetPassword(LoginManagementWorkItem item) {
+        try {
+            log.info("Item ID: {} - Desbloqueando usuário {}", item.id(), item.externalKey());
+            Partner partner = partnerOf(item);
+            ApiResponseDto unblockResponse = externalApiService.unblockUser(partner, item.externalKey());
+            journalStep(item.id(), "UNBLOCK", unblockResponse);
 
             if (!unblockResponse.isSuccess()) {
+                userStateCache.invalidate(partner, item.externalKey());
                 String errorMsg = extractErrorCode(unblockResponse.getMessage());
-                updateItemStatus(item.getId(), STATUS_ERROR, "Erro no unblock: " + errorMsg, null, null);
-                log.error("Item ID: {} - Falha ao desbloquear usuário: {}", item.getId(), unblockResponse.getMessage());
+                updateItemStatus(item, STATUS_ERROR, "Erro no unblock: " + errorMsg, null, null);
+                log.error("Item ID: {} - Falha ao desbloquear usuário: {}", item.id(), unblockResponse.getMessage());
                 return false;
             }
 
+            userStateCache.record(partner, item.externalKey(), UserState.ACTIVE);
+
             // Passo 3: Salvar senha gerada
             String newPassword = (String) unblockResponse.getData();
             String dadosComplementares = null;
 
             if (newPassword != null && !newPassword.trim().isEmpty()) {
                 dadosComplementares = "{\"newPassword\":\"" + newPassword + "\"}";
-                log.info("Item ID: {} - Reset OK. Nova senha: {}", item.getId(), newPassword);
+                log.info("Item ID: {} - Reset OK. Nova senha: {}", item.id(), newPassword);
             } else {
                 dadosComplementares = "{\"newPassword\":\"Usuário ativo. Clicar em esqueci minha senha.\"}";
-                log.info("Item ID: {} - Reset OK. Sem senha gerada", item.getId());
+                log.info("Item ID: {} - Reset OK. Sem senha gerada", item.id());
             }
 
-            updateItemStatus(item.getId(), STATUS_SUCCESS, "Reset OK", dadosComplementares, null);
-            log.info("Item ID: {} - Fluxo RESET completo: Block -> Unblock", item.getId());
+            updateItemStatus(item, STATUS_SUCCESS, "Reset OK", dadosComplementares, null);
+            log.info("Item ID: {} - Fluxo RESET completo: Block -> Unblock", item.id());
             return true;
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Item ID: {} - Processamento interrompido durante Reset", item.getId());
-            updateItemStatus(item.getId(), STATUS_ERROR, "Processamento interrompido", null, null);
-            return false;
         } catch (Exception e) {
-            log.error("Item ID: {} - Erro durante Reset: {}", item.getId(), e.getMessage(), e);
-            updateItemStatus(item.getId(), STATUS_ERROR, "Erro no reset", null, null);
+            log.error("Item ID: {} - Erro durante Reset: {}", item.id(), e.getMessage(), e);
+            updateItemStatus(item, STATUS_ERROR, "Erro no reset", null, null);
             return false;
         }
     }
@@ -518,23 +791,34 @@ public class LoginManagementService {
     /**
      * Processa bloqueio de usuário
      */
-    private boolean processBlockUser(LoginManagement item) {
-        if (item.getExternalKey() == null || item.getExternalKey().trim().isEmpty()) {
-            log.warn("ExternalKey vazia para item ID: {}", item.getId());
-            updateItemStatus(item.getId(), STATUS_ERROR, "ExternalKey vazia", null, null);
+    private boolean processBlockUser(LoginManagementWorkItem item) {
+        if (item.externalKey() == null || item.externalKey().trim().isEmpty()) {
+            log.warn("ExternalKey vazia para item ID: {}", item.id());
+            updateItemStatus(item, STATUS_ERROR, "ExternalKey vazia", null, null);
             return false;
         }
 
-        ApiResponseDto apiResponse = externalApiService.blockUser(item.getExternalKey());
+        // Sempre chama a API: o estado em cache é por instância e pode não refletir um UNBLOCK feito por
+        // outra réplica ou fora da aplicação. O 422 ALREADY_BLOCKED já conclui o item sem nova tentativa.
+        Partner partner = partnerOf(item);
+        ApiResponseDto apiResponse = externalApiService.blockUser(partner, item.externalKey());
+        journalStep(item.id(), "BLOCK", apiResponse);
 
         if (apiResponse.isSuccess()) {
-            updateItemStatus(item.getId(), STATUS_SUCCESS, "Bloqueio OK", null, null);
-            log.info("Item ID: {} - Bloqueio realizado com sucesso", item.getId());
+            userStateCache.record(partner, item.externalKey(), UserState.BLOCKED);
+            updateItemStatus(item, STATUS_SUCCESS, "Bloqueio OK", null, null);
+            log.info("Item ID: {} - Bloqueio realizado com sucesso", item.id());
+            return true;
+        } else if (userStateCache.recordAlreadyInState(partner, item.externalKey(), apiResponse) == UserState.BLOCKED) {
+            // 422 ALREADY_BLOCKED: o usuário já está no estado pedido
+            updateItemStatus(item, STATUS_SUCCESS, "Já bloqueado (sem alteração)", null, null);
+            log.info("Item ID: {} - Usuário já estava bloqueado", item.id());
             return true;
         } else {
+            userStateCache.invalidate(partner, item.externalKey());
             String errorMsg = extractErrorCode(apiResponse.getMessage());
-            updateItemStatus(item.getId(), STATUS_ERROR, errorMsg, null, null);
-            log.error("Erro no bloqueio do item ID: {} - {}", item.getId(), apiResponse.getMessage());
+            updateItemStatus(item, STATUS_ERROR, errorMsg, null, null);
+            log.error("Erro no bloqueio do item ID: {} - {}", item.id(), apiResponse.getMessage());
             return false;
         }
     }
@@ -542,32 +826,43 @@ public class LoginManagementService {
     /**
      * Processa desbloqueio de usuário
      */
-    private boolean processUnblockUser(LoginManagement item) {
-        if (item.getExternalKey() == null || item.getExternalKey().trim().isEmpty()) {
-            log.warn("ExternalKey vazia para item ID: {}", item.getId());
-            updateItemStatus(item.getId(), STATUS_ERROR, "ExternalKey vazia", null, null);
+    private boolean processUnblockUser(LoginManagementWorkItem item) {
+        if (item.externalKey() == null || item.externalKey().trim().isEmpty()) {
+            log.warn("ExternalKey vazia para item ID: {}", item.id());
+            updateItemStatus(item, STATUS_ERROR, "ExternalKey vazia", null, null);
             return false;
         }
 
-        ApiResponseDto apiResponse = externalApiService.unblockUser(item.getExternalKey());
+        // Sempre chama a API, como no BLOCK: o estado em cache é por instância e pode estar desatualizado.
+        // O 422 ALREADY_ACTIVE conclui o item sem nova tentativa.
+        Partner partner = partnerOf(item);
+        ApiResponseDto apiResponse = externalApiService.unblockUser(partner, item.externalKey());
+        journalStep(item.id(), "UNBLOCK", apiResponse);
 
         if (apiResponse.isSuccess()) {
+            userStateCache.record(partner, item.externalKey(), UserState.ACTIVE);
             String newPassword = (String) apiResponse.getData();
             String dadosComplementares = null;
 
             if (newPassword != null && !newPassword.trim().isEmpty()) {
                 dadosComplementares = "{\"newPassword\":\"" + newPassword + "\"}";
-                log.info("Item ID: {} - Desbloqueio OK. Senha: {}", item.getId(), newPassword);
+                log.info("Item ID: {} - Desbloqueio OK. Senha: {}", item.id(), newPassword);
             } else {
-                log.info("Item ID: {} - Desbloqueio OK", item.getId());
+                log.info("Item ID: {} - Desbloqueio OK", item.id());
             }
 
-            updateItemStatus(item.getId(), STATUS_SUCCESS, "Desbloqueio OK", dadosComplementares, null);
+            updateItemStatus(item, STATUS_SUCCESS, "Desbloqueio OK", dadosComplementares, null);
+            return true;
+        } else if (userStateCache.recordAlreadyInState(partner, item.externalKey(), apiResponse) == UserState.ACTIVE) {
+            // 422 ALREADY_ACTIVE: o usuário já está no estado pedido
+            updateItemStatus(item, STATUS_SUCCESS, "Já ativo (sem alteração)", null, null);
+            log.info("Item ID: {} - Usuário já estava ativo", item.id());
             return true;
         } else {
+            userStateCache.invalidate(partner, item.externalKey());
             String errorMsg = extractErrorCode(apiResponse.getMessage());
-            updateItemStatus(item.getId(), STATUS_ERROR, errorMsg, null, null);
-            log.error("Erro no desbloqueio do item ID: {} - {}", item.getId(), apiResponse.getMessage());
+            updateItemStatus(item, STATUS_ERROR, errorMsg, null, null);
+            log.error("Erro no desbloqueio do item ID: {} - {}", item.id(), apiResponse.getMessage());
             return false;
         }
     }
@@ -638,9 +933,28 @@ public class LoginManagementService {
     }
 
     /**
-     * Atualiza o status de um item no banco de dados
+     * Atualiza o status de um item no banco de dados, no cache de status e publica a mudança
+     * para os streams de status
+     */
+    private void updateItemStatus(LoginManagementWorkItem item, Integer newStatus, String logMessage,
+                                  String dadosComplementares, String externalKey) {
+        String writtenLog = connectionBudget.withProcessorConnection(() ->
+                writeItemStatus(item.id(), newStatus, logMessage, dadosComplementares, externalKey));
+
+        if (writtenLog != null) {
+            ItemStatusEvent event = new ItemStatusEvent(item.id(), item.credenciadorId(), item.managementType(),
+                    item.userCode(), externalKey != null ? externalKey : item.externalKey(), newStatus,
+                    getStatusDescription(newStatus), writtenLog, dadosComplementares, LocalDateTime.now());
+            statusCache.onStatusChange(event);
+            eventPublisher.publish(event);
+        }
+    }
+
+    /**
+     * Grava o status (com fallback para mensagem mínima em caso de erro).
+     * Retorna a mensagem gravada em log_Alteracao_Rastro, ou null se nada pôde ser gravado.
      */
-    private void updateItemStatus(Integer itemId, Integer newStatus, String logMessage, String dadosComplementares, String externalKey) {
+    private String writeItemStatus(Integer itemId, Integer newStatus, String logMessage, String dadosComplementares, String externalKey) {
         try {
             String truncatedLog = truncateLog(logMessage);
 
@@ -657,6 +971,7 @@ public class LoginManagementService {
             }
 
             log.debug("Status do item ID: {} atualizado para: {} - {}", itemId, getStatusDescription(newStatus), truncatedLog);
+            return truncatedLog;
         } catch (Exception e) {
             log.error("Erro ao atualizar status do item ID: {} - {}", itemId, e.getMessage(), e);
 
@@ -668,8 +983,10 @@ public class LoginManagementService {
                     repository.updateStatus(itemId, newStatus, LocalDateTime.now(), minimalLog);
                 }
                 log.info("Status atualizado com mensagem mínima para item ID: {}", itemId);
+                return minimalLog;
             } catch (Exception ex) {
                 log.error("Falha crítica ao atualizar item ID: {}", itemId, ex);
+                return null;
             }
         }
     }
@@ -677,17 +994,17 @@ public class LoginManagementService {
     /**
      * Atualiza status COM externalKey (usado exclusivamente no CREATE)
      */
-    private void updateItemStatusWithExternalKey(Integer itemId, Integer newStatus, String logMessage,
+    private void updateItemStatusWithExternalKey(LoginManagementWorkItem item, Integer newStatus, String logMessage,
                                                  String dadosComplementares, String externalKey) {
-        updateItemStatus(itemId, newStatus, logMessage, dadosComplementares, externalKey);
+        updateItemStatus(item, newStatus, logMessage, dadosComplementares, externalKey);
     }
 
     /**
-     * Retorna o número de itens pendentes
+     * Retorna o número de itens pendentes (lido da réplica, quando configurada)
      */
     public long getPendingCount() {
         try {
-            return repository.countPendingProcessing();
+            return ReadReplica.read(repository::countPendingProcessing);
         } catch (Exception e) {
             log.error("Erro ao contar itens pendentes: {}", e.getMessage());
             return 0;
@@ -0,0 +1,63 @@
+package com.examplex.demo.service;
+
+import com.examplex.demo.service.event.ItemStatusEventPublisher;
+import com.examplex.demo.service.journal.ProcessingJournalWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Desligamento gracioso do processamento.
+ *
+ * Ao parar o contexto (rolling deploy, parada do pod): deixa de retirar itens da fila,
+ * aguarda os itens em andamento até o prazo configurado, grava o journal pendente e encerra
+ * os streams SSE de status (que do contrário prenderiam o desligamento gracioso do servidor web),
+ * antes de o pool de conexões e os executores serem encerrados.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessingLifecycle implements SmartLifecycle {
+
+    private final LoginManagementService loginManagementService;
+    private final ProcessingJournalWriter journalWriter;
+    private final ItemStatusEventPublisher eventPublisher;
+
+    @Value("${login-management.shutdown.drain-timeout-ms:20000}")
+    private long drainTimeoutMs;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        log.info("Desligamento: drenando processamento de Login Management");
+
+        loginManagementService.stopAccepting();
+        loginManagementService.drainInFlight(drainTimeoutMs);
+        journalWriter.flush();
+        eventPublisher.complete();
+
+        running = false;
+        log.info("Desligamento: processamento drenado");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Fase mais alta: para antes do servidor web e dos demais componentes
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,95 @@
+package com.examplex.demo.service;
+
+import com.examplex.demo.config.ReadReplica;
+import com.examplex.demo.repository.LoginManagementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SystemStatusService {
+
+    private final LoginManagementRepository repository;
+    private final AuthTokenService authTokenService;
+
+    @Value("${status-cache.max-staleness-ms:120000}")
+    private long maxStalenessMs;
+
+    private volatile StatusSnapshot snapshot;
+
+    /**
+     * Estado do sistema mantido em memória (token da API e contagem da fila)
+     */
+    public record StatusSnapshot(
+            boolean apiHealthy,
+            String tokenStatus,
+            boolean dbHealthy,
+            long pendingCount,
+            long refreshedAt
+    ) {
+        public long ageMs() {
+            return System.currentTimeMillis() - refreshedAt;
+        }
+    }
+
+    /**
+     * Atualiza o snapshot em segundo plano
+     */
+    @Scheduled(fixedDelayString = "${status-cache.refresh-interval-ms:30000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Retorna o último snapshot, atualizando de forma síncrona apenas se ultrapassar o limite de defasagem
+     */
+    public StatusSnapshot getSnapshot() {
+        StatusSnapshot current = snapshot;
+        if (current == null || current.ageMs() > maxStalenessMs) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || current.ageMs() > maxStalenessMs) {
+                    current = refresh();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Consulta token e banco uma única vez e publica o novo snapshot
+     */
+    private synchronized StatusSnapshot refresh() {
+        boolean apiHealthy = false;
+        String tokenStatus;
+        boolean dbHealthy = false;
+        long pendingCount = 0;
+
+        try {
+            // Só faz chamada de autenticação se o token atual estiver expirado
+            String token = authTokenService.getValidToken();
+            apiHealthy = token != null && !token.isEmpty();
+            tokenStatus = apiHealthy ? "VALID" : "INVALID";
+        } catch (Exception e) {
+            tokenStatus = "ERROR: " + e.getMessage();
+        }
+
+        try {
+            // Contagem para status/health: aceita a defasagem da réplica, quando configurada
+            pendingCount = ReadReplica.read(repository::countPendingProcessing);
+            dbHealthy = true;
+        } catch (Exception e) {
+            log.error("Erro na conexão com banco: {}", e.getMessage());
+        }
+
+        StatusSnapshot refreshed = new StatusSnapshot(apiHealthy, tokenStatus, dbHealthy, pendingCount,
+                System.currentTimeMillis());
+        this.snapshot = refreshed;
+        log.debug("Snapshot de status atualizado: api={}, db={}, pendentes={}", apiHealthy, dbHealthy, pendingCount);
+        return refreshed;
+    }
+}
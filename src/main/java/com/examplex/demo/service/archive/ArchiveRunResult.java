@@ -0,0 +1,26 @@
+package com.examplex.demo.service.archive;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado de uma execução do arquivamento: linhas movidas e custo da movimentação
+ */
+public record ArchiveRunResult(
+        LocalDateTime startedAt,
+        LocalDateTime cutoff,
+        long rowsMoved,
+        int batches,
+        long elapsedMs,
+        long batchTimeMs,
+        long maxBatchMs,
+        String stopReason,
+        String error
+) {
+
+    /**
+     * Tempo médio de banco por lote (ms), sem as pausas entre lotes
+     */
+    public long avgBatchMs() {
+        return batches == 0 ? 0 : batchTimeMs / batches;
+    }
+}
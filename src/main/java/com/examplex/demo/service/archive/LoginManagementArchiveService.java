@@ -0,0 +1,136 @@
+package com.examplex.demo.service.archive;
+
+import com.examplex.demo.config.ConnectionBudget;
+import com.examplex.demo.repository.LoginManagementHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Arquivamento de itens concluídos: move os itens SUCCESS (-4107) sem alteração há mais de
+ * retention-days de crm_Login_Management para crm_Login_Management_History, mantendo pequena a tabela
+ * consultada a cada ciclo de processamento.
+ *
+ * A movimentação é feita em lotes de batch-size (cada lote é um DELETE ... OUTPUT INTO, atômico),
+ * com pausa entre lotes e duração máxima por execução, para não disputar o banco com o processamento.
+ * Cada lote usa uma conexão do orçamento de segundo plano.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoginManagementArchiveService {
+
+    private final LoginManagementHistoryRepository historyRepository;
+    private final MeterRegistry meterRegistry;
+    private final ConnectionBudget connectionBudget;
+
+    @Value("${login-management.archive.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${login-management.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${login-management.archive.pause-ms:500}")
+    private long pauseMs;
+
+    @Value("${login-management.archive.max-duration-ms:600000}")
+    private long maxDurationMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ArchiveRunResult lastRun;
+
+    private Timer batchTimer;
+    private Counter rowsCounter;
+
+    @PostConstruct
+    public void init() {
+        batchTimer = Timer.builder("login_management.archive.batch")
+                .description("Duração de cada lote de arquivamento")
+                .register(meterRegistry);
+        rowsCounter = Counter.builder("login_management.archive.rows")
+                .description("Itens movidos para o histórico")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa o arquivamento até não haver mais itens elegíveis ou atingir a duração máxima.
+     * Retorna null se já houver uma execução em andamento.
+     */
+    public ArchiveRunResult archive() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Arquivamento já está em execução");
+            return null;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minusDays(retentionDays);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+
+        long rowsMoved = 0;
+        int batches = 0;
+        long batchTimeNanos = 0;
+        long maxBatchNanos = 0;
+        String stopReason = "concluído";
+        String error = null;
+
+        log.info("Iniciando arquivamento de itens concluídos antes de {}", cutoff);
+
+        try {
+            while (true) {
+                long batchStart = System.nanoTime();
+                int moved = connectionBudget.withBackgroundConnection(
+                        () -> historyRepository.moveCompleted(batchSize, cutoff));
+                long batchNanos = System.nanoTime() - batchStart;
+
+                batchTimer.record(batchNanos, TimeUnit.NANOSECONDS);
+                rowsCounter.increment(moved);
+                batches++;
+                rowsMoved += moved;
+                batchTimeNanos += batchNanos;
+                maxBatchNanos = Math.max(maxBatchNanos, batchNanos);
+
+                if (moved < batchSize) {
+                    break;
+                }
+                if (System.nanoTime() >= deadline) {
+                    stopReason = "duração máxima atingida";
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopReason = "interrompido";
+        } catch (Exception e) {
+            stopReason = "erro";
+            error = e.getMessage();
+            log.error("Erro no arquivamento após {} itens: {}", rowsMoved, e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+
+        ArchiveRunResult result = new ArchiveRunResult(startedAt, cutoff, rowsMoved, batches,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), TimeUnit.NANOSECONDS.toMillis(batchTimeNanos),
+                TimeUnit.NANOSECONDS.toMillis(maxBatchNanos), stopReason, error);
+        lastRun = result;
+
+        log.info("Arquivamento finalizado ({}): {} itens em {} lotes, {} ms (média {} ms/lote, máximo {} ms)",
+                result.stopReason(), result.rowsMoved(), result.batches(), result.elapsedMs(),
+                result.avgBatchMs(), result.maxBatchMs());
+        return result;
+    }
+
+    public ArchiveRunResult getLastRun() {
+        return lastRun;
+    }
+}
@@ -0,0 +1,85 @@
+package com.examplex.demo.service.concurrency;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Aplica o limite adaptativo às requisições de um RestTemplate: aguarda uma vaga antes de enviar e
+ * informa ao limitador a latência e o resultado de cada resposta.
+ *
+ * Requisições feitas dentro de withSlotHeld não passam pelo limitador: a vaga já foi obtida por quem
+ * chamou (ex.: antes do hedging, para que a espera pela vaga não conte na latência da requisição).
+ */
+public class AdaptiveConcurrencyInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final ThreadLocal<Boolean> SLOT_HELD = new ThreadLocal<>();
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdaptiveConcurrencyInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (Boolean.TRUE.equals(SLOT_HELD.get())) {
+            return execution.execute(request, body);
+        }
+        try {
+            if (!limiter.acquire()) {
+                throw new IOException("Sem vaga no limite de concorrência da API iCred (limite atual: "
+                        + limiter.getLimit() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido aguardando o limite de concorrência da API iCred");
+        }
+
+        long start = System.nanoTime();
+        AdaptiveConcurrencyLimiter.Outcome outcome = AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            outcome = classify(response.getStatusCode());
+            return response;
+        } finally {
+            limiter.release(outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executa requisições desta thread sem passar pelo limitador (vaga obtida por quem chamou)
+     */
+    public static <T> T withSlotHeld(Supplier<T> request) {
+        SLOT_HELD.set(Boolean.TRUE);
+        try {
+            return request.get();
+        } finally {
+            SLOT_HELD.remove();
+        }
+    }
+
+    /**
+     * Resultado para o limitador a partir do status HTTP; sem status (falha de rede ou timeout) conta como sobrecarga
+     */
+    public static AdaptiveConcurrencyLimiter.Outcome classify(Integer status) {
+        return status == null ? AdaptiveConcurrencyLimiter.Outcome.DROPPED : classify(HttpStatusCode.valueOf(status));
+    }
+
+    private static AdaptiveConcurrencyLimiter.Outcome classify(HttpStatusCode status) {
+        if (status.value() == 429 || status.is5xxServerError()) {
+            return AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+        }
+        if (status.is4xxClientError()) {
+            return AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+        }
+        return AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+    }
+}
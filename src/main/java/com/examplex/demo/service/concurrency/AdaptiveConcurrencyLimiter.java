@@ -0,0 +1,126 @@
+package com.examplex.demo.service.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite adaptativo de requisições simultâneas à API iCred (AIMD).
+ *
+ * Enquanto a latência fica próxima da linha de base, o limite cresce em uma unidade a cada "limite"
+ * respostas com o limite em uso (aumento aditivo). Quando a latência média recente passa de
+ * latency-tolerance vezes a linha de base, ou a requisição falha por sobrecarga (429, 5xx, timeout),
+ * o limite é multiplicado por backoff-ratio (redução multiplicativa), no máximo uma vez por latência
+ * média, para que uma rajada de respostas lentas conte como um único sinal.
+ *
+ * A linha de base acompanha o menor valor observado e sobe lentamente, de modo que uma degradação
+ * permanente da API passa a ser o novo normal em vez de manter o limite no mínimo.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome {
+        // Resposta recebida: a latência entra no cálculo
+        SUCCESS,
+        // Sobrecarga da API (429, 5xx, timeout): reduz o limite
+        DROPPED,
+        // Erro do cliente (4xx): não diz nada sobre a capacidade da API
+        IGNORED
+    }
+
+    // Suavização da latência média recente
+    private static final double RECENT_SMOOTHING = 0.1;
+    // Velocidade com que a linha de base sobe em direção à latência observada
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final String name;
+    private final AdaptiveConcurrencyProperties properties;
+
+    private double limit;
+    private int inFlight;
+    private double baselineNanos;
+    private double recentNanos;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, AdaptiveConcurrencyProperties properties) {
+        this.name = name;
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * Aguarda uma vaga dentro do limite atual; retorna false se não houver vaga em acquire-timeout-ms
+     */
+    public synchronized boolean acquire() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getAcquireTimeoutMs());
+        while (inFlight >= (int) limit) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Libera a vaga e ajusta o limite conforme o resultado e a latência da requisição
+     */
+    public synchronized void release(Outcome outcome, long latencyNanos) {
+        int inFlightAtRelease = inFlight;
+        inFlight--;
+
+        switch (outcome) {
+            case DROPPED -> decrease("falha por sobrecarga");
+            case SUCCESS -> onSuccess(latencyNanos, inFlightAtRelease);
+            case IGNORED -> { }
+        }
+
+        notifyAll();
+    }
+
+    private void onSuccess(long latencyNanos, int inFlightAtRelease) {
+        if (baselineNanos == 0) {
+            baselineNanos = latencyNanos;
+            recentNanos = latencyNanos;
+            return;
+        }
+
+        recentNanos += (latencyNanos - recentNanos) * RECENT_SMOOTHING;
+        baselineNanos = latencyNanos < baselineNanos
+                ? latencyNanos
+                : baselineNanos + (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+
+        if (recentNanos > baselineNanos * properties.getLatencyTolerance()) {
+            decrease("latência em alta");
+        } else if (inFlightAtRelease * 2 >= limit) {
+            // Só cresce quando o limite está de fato em uso
+            limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+        }
+    }
+
+    private void decrease(String reason) {
+        long now = System.nanoTime();
+        if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < recentNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+
+        double previous = limit;
+        limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+        if ((int) previous != (int) limit) {
+            log.info("Limite de concorrência {} reduzido de {} para {} ({}; latência recente {} ms, base {} ms)",
+                    name, (int) previous, (int) limit, reason,
+                    TimeUnit.NANOSECONDS.toMillis((long) recentNanos), TimeUnit.NANOSECONDS.toMillis((long) baselineNanos));
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,27 @@
+package com.examplex.demo.service.concurrency;
+
+import lombok.Data;
+
+/**
+ * Configuração do limite adaptativo de concorrência (external-api.adaptive-concurrency.*)
+ */
+@Data
+public class AdaptiveConcurrencyProperties {
+
+    private boolean enabled = false;
+
+    private int initialLimit = 4;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 32;
+
+    // Fator aplicado ao limite a cada sinal de sobrecarga
+    private double backoffRatio = 0.75;
+
+    // Latência recente acima de tolerance x linha de base é tratada como sobrecarga
+    private double latencyTolerance = 2.0;
+
+    // Espera máxima por uma vaga antes de falhar a requisição
+    private long acquireTimeoutMs = 30000;
+}
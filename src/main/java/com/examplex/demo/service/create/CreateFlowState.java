@@ -0,0 +1,143 @@
+package com.examplex.demo.service.create;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumSet;
+
+/**
+ * Estado do fluxo de CREATE de um item, guardado em dadosComplementares.
+ *
+ * Os campos originais do JSON (grupo, telefonePIN) são preservados; os passos concluídos
+ * e os identificadores gerados (userUuid, groupUuid) são acrescentados, para que uma nova
+ * tentativa retome a partir do passo que falhou.
+ */
+@Slf4j
+public class CreateFlowState {
+
+    private static final String STEPS_FIELD = "createSteps";
+    private static final String FAILURES_FIELD = "createFailures";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectNode data;
+    private final EnumSet<CreateStep> completed;
+
+    private CreateFlowState(ObjectMapper objectMapper, ObjectNode data, EnumSet<CreateStep> completed) {
+        this.objectMapper = objectMapper;
+        this.data = data;
+        this.completed = completed;
+    }
+
+    /**
+     * Lê o estado a partir do JSON de dadosComplementares (vazio ou inválido = nenhum passo concluído)
+     */
+    public static CreateFlowState from(String json, ObjectMapper objectMapper) {
+        ObjectNode data = null;
+
+        if (json != null && !json.trim().isEmpty()) {
+            try {
+                JsonNode node = objectMapper.readTree(json);
+                if (node instanceof ObjectNode objectNode) {
+                    data = objectNode;
+                }
+            } catch (Exception e) {
+                log.warn("Erro ao ler estado do CREATE em dadosComplementares: {}", e.getMessage());
+            }
+        }
+
+        if (data == null) {
+            data = objectMapper.createObjectNode();
+        }
+
+        EnumSet<CreateStep> completed = EnumSet.noneOf(CreateStep.class);
+        JsonNode steps = data.get(STEPS_FIELD);
+        if (steps != null && steps.isArray()) {
+            for (JsonNode step : steps) {
+                try {
+                    completed.add(CreateStep.valueOf(step.asText()));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Passo de CREATE desconhecido ignorado: {}", step.asText());
+                }
+            }
+        }
+
+        return new CreateFlowState(objectMapper, data, completed);
+    }
+
+    public synchronized boolean isDone(CreateStep step) {
+        return completed.contains(step);
+    }
+
+    public synchronized boolean isResumed() {
+        return !completed.isEmpty();
+    }
+
+    public synchronized EnumSet<CreateStep> getCompleted() {
+        return EnumSet.copyOf(completed);
+    }
+
+    public synchronized void markDone(CreateStep step) {
+        completed.add(step);
+
+        ArrayNode steps = data.putArray(STEPS_FIELD);
+        completed.forEach(done -> steps.add(done.name()));
+    }
+
+    public synchronized String getUserUuid() {
+        return text("userUuid");
+    }
+
+    public synchronized void setUserUuid(String userUuid) {
+        data.put("userUuid", userUuid);
+    }
+
+    public synchronized String getGroupUuid() {
+        return text("groupUuid");
+    }
+
+    public synchronized void setGroup(String groupUuid, String groupNome) {
+        data.put("groupUuid", groupUuid);
+        data.put("groupNome", groupNome);
+    }
+
+    public synchronized void setWarning(String warning) {
+        data.put("warning", warning);
+    }
+
+    public synchronized void setNewPassword(String newPassword) {
+        data.put("newPassword", newPassword);
+    }
+
+    /**
+     * Registra uma tentativa que falhou após a criação do usuário; retorna o total de falhas
+     */
+    public synchronized int recordFailure() {
+        int failures = getFailures() + 1;
+        data.put(FAILURES_FIELD, failures);
+        return failures;
+    }
+
+    public synchronized int getFailures() {
+        JsonNode value = data.get(FAILURES_FIELD);
+        return value != null && value.canConvertToInt() ? value.asInt() : 0;
+    }
+
+    /**
+     * Serializa o estado para gravação em dadosComplementares
+     */
+    public synchronized String toJson() {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (Exception e) {
+            throw new IllegalStateException("Erro ao serializar estado do CREATE: " + e.getMessage(), e);
+        }
+    }
+
+    private String text(String field) {
+        JsonNode value = data.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,22 @@
+package com.examplex.demo.service.create;
+
+/**
+ * Passos do fluxo de CREATE, persistidos conforme são concluídos
+ */
+public enum CreateStep {
+
+    /** Usuário criado na iCred (userUuid conhecido) */
+    USER_CREATED,
+
+    /** Novo grupo criado na iCred (groupUuid conhecido) */
+    GROUP_CREATED,
+
+    /** Tratamento de grupo finalizado (vinculado, sem grupo ou com aviso) */
+    GROUP_LINKED,
+
+    /** Usuário bloqueado (primeira etapa da ativação) */
+    BLOCKED,
+
+    /** Usuário desbloqueado e senha gerada */
+    ACTIVATED
+}
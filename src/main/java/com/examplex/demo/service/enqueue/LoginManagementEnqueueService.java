@@ -0,0 +1,450 @@
+package com.examplex.demo.service.enqueue;
+
+import com.examplex.demo.model.dto.DadosComplementaresDto;
+import com.examplex.demo.model.dto.EnqueueItemDto;
+import com.examplex.demo.config.ConnectionBudget;
+import com.examplex.demo.model.dto.EnqueueResultDto;
+import com.examplex.demo.service.lane.ProcessingLane;
+import com.examplex.demo.service.status.ItemStatusCache;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Enfileiramento em lote de solicitações em crm_Login_Management.
+ *
+ * O payload (array JSON ou CSV) é lido em streaming; cada item é validado, deduplicado contra as
+ * linhas já pendentes e contra o próprio payload, e gravado via JDBC batch a cada lote.
+ * Cada lote é confirmado isoladamente: se a carga for interrompida, reenviá-la é seguro,
+ * pois os itens já gravados passam a ser descartados como duplicados.
+ *
+ * O lote incompleto só é gravado se o payload foi lido até o fim (ou até o limite de itens); com o
+ * payload ilegível ou uma falha de banco, os itens ainda não gravados são contados em discarded.
+ * O resultado (com as contagens) e as métricas são produzidos em todos os casos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoginManagementEnqueueService {
+
+    private static final int STATUS_QUEUE = -4106;
+    private static final int MAX_REJECTIONS_DETAILED = 100;
+
+    private static final String PENDING_KEYS_SQL = "SELECT gpa_DropDown_LoginManagementType, " +
+            "crm_Login_Management_User_Code, crm_Login_Management_External_Key " +
+            "FROM crm_Login_Management " +
+            "WHERE gpa_DropDown_ManagementLoginStatus IN (-4106, -4108) " +
+            "AND crm_Login_Management_RegistroExcluido = 0";
+
+    private static final String INSERT_SQL = "INSERT INTO crm_Login_Management (" +
+            "crm_Login_Id, crm_Login_Management_User_Code, crm_Login_Management_External_Key, " +
+            "crm_Ferramenta_Id, crm_Credenciador_Id, gpa_DropDown_LoginManagementType, " +
+            "gpa_DropDown_ManagementLoginStatus, crm_Login_Management_IdUsuarioCriacao, " +
+            "crm_Login_Management_DataCriacao, crm_Login_Management_RegistroExcluido, " +
+            "log_Alteracao_Rastro, crm_Login_Management_DadosComplementares) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ItemStatusCache statusCache;
+    private final ConnectionBudget connectionBudget;
+
+    @Value("${login-management.enqueue.batch-size:500}")
+    private int batchSize;
+
+    @Value("${login-management.enqueue.max-items:100000}")
+    private int maxItems;
+
+    @Value("${login-management.enqueue.usuario-criacao-id:#{null}}")
+    private Integer usuarioCriacaoId;
+
+    /**
+     * Enfileira os itens de um array JSON
+     */
+    public synchronized EnqueueResultDto enqueueJson(InputStream input) {
+        EnqueueResultDto result = new EnqueueResultDto();
+        Batch batch = new Batch(loadPendingKeys(), result);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                result.setError("O payload deve ser um array JSON");
+                return finish(result, "JSON");
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    result.setError("JSON truncado após o item " + result.getReceived());
+                    batch.discard();
+                    break;
+                }
+                boolean proceed;
+                if (token == JsonToken.START_OBJECT) {
+                    proceed = batch.accept(parser.readValueAs(EnqueueItemDto.class));
+                } else {
+                    // Elemento que não é objeto (número, null, array...): rejeitado e ignorado
+                    parser.skipChildren();
+                    proceed = batch.reject("elemento não é um objeto JSON (" + token + ")");
+                }
+                if (!proceed) {
+                    break;
+                }
+            }
+            batch.complete();
+        } catch (IOException e) {
+            log.warn("Enfileiramento JSON interrompido no item {}: {}", result.getReceived() + 1, e.getMessage());
+            result.setError("JSON inválido no item " + (result.getReceived() + 1) + ": " + e.getMessage());
+            batch.discard();
+        } catch (DataAccessException e) {
+            batch.fail(e);
+        }
+
+        return finish(result, "JSON");
+    }
+
+    /**
+     * Enfileira as linhas de um CSV com cabeçalho (separador ',' ou ';').
+     * Colunas: managementType, crmLoginId, userCode, externalKey, credenciadorId, ferramentaId,
+     * telefonePIN, managementGroups_nome, managementGroups_uuid
+     */
+    public synchronized EnqueueResultDto enqueueCsv(InputStream input) {
+        EnqueueResultDto result = new EnqueueResultDto();
+        Batch batch = new Batch(loadPendingKeys(), result);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null || header.isBlank()) {
+                result.setError("CSV sem cabeçalho");
+                return finish(result, "CSV");
+            }
+            header = header.replace("\uFEFF", "");
+
+            char separator = header.indexOf(';') >= 0 ? ';' : ',';
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = splitCsvLine(header, separator);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (!batch.accept(fromCsv(splitCsvLine(line, separator), columns))) {
+                    break;
+                }
+            }
+            batch.complete();
+        } catch (IOException e) {
+            log.warn("Enfileiramento CSV interrompido: {}", e.getMessage());
+            result.setError("Falha ao ler CSV: " + e.getMessage());
+            batch.discard();
+        } catch (DataAccessException e) {
+            batch.fail(e);
+        }
+
+        return finish(result, "CSV");
+    }
+
+    private EnqueueResultDto finish(EnqueueResultDto result, String format) {
+        meterRegistry.counter("login_management.enqueue.items", "outcome", "inserted").increment(result.getInserted());
+        meterRegistry.counter("login_management.enqueue.items", "outcome", "duplicate").increment(result.getDuplicates());
+        meterRegistry.counter("login_management.enqueue.items", "outcome", "rejected").increment(result.getRejected());
+        meterRegistry.counter("login_management.enqueue.items", "outcome", "discarded").increment(result.getDiscarded());
+
+        log.info("Enfileiramento {} concluído: {} recebidos, {} inseridos, {} duplicados, {} rejeitados, {} descartados",
+                format, result.getReceived(), result.getInserted(), result.getDuplicates(), result.getRejected(),
+                result.getDiscarded());
+        return result;
+    }
+
+    private Set<String> loadPendingKeys() {
+        Set<String> keys = new HashSet<>();
+        connectionBudget.runWithBackgroundConnection(() -> jdbcTemplate.query(PENDING_KEYS_SQL, rs -> {
+            keys.add(dedupKey(rs.getInt(1), rs.getString(2), rs.getString(3)));
+        }));
+        return keys;
+    }
+
+    /**
+     * Chave de deduplicação. No CREATE o externalKey é ignorado: o item chega sem ele e, em andamento,
+     * passa a ter o userUuid gerado pela iCred gravado nessa coluna (retomada do fluxo)
+     */
+    private static String dedupKey(int managementType, String userCode, String externalKey) {
+        if (managementType == ProcessingLane.CREATE.getManagementType()) {
+            return managementType + "|" + normalize(userCode);
+        }
+        return managementType + "|" + normalize(userCode) + "|" + normalize(externalKey);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Valida o item e retorna a mensagem de rejeição, ou null se válido
+     */
+    private String validate(EnqueueItemDto item, ProcessingLane lane) {
+        if (lane == null) {
+            return "managementType inválido: " + item.getManagementType();
+        }
+        if (item.getCrmLoginId() == null) {
+            return "crmLoginId é obrigatório";
+        }
+        if (isBlank(item.getUserCode())) {
+            return "userCode é obrigatório";
+        }
+        if (lane != ProcessingLane.CREATE && isBlank(item.getExternalKey())) {
+            return "externalKey é obrigatório para " + lane;
+        }
+        if (item.getDadosComplementares() != null && !item.getDadosComplementares().isNull()
+                && !item.getDadosComplementares().isObject()) {
+            return "dadosComplementares deve ser um objeto JSON";
+        }
+        return null;
+    }
+
+    private static ProcessingLane resolveLane(String managementType) {
+        if (isBlank(managementType)) {
+            return null;
+        }
+        String value = managementType.trim();
+        try {
+            return ProcessingLane.fromManagementType(Integer.valueOf(value));
+        } catch (NumberFormatException e) {
+            try {
+                return ProcessingLane.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private EnqueueItemDto fromCsv(List<String> values, Map<String, Integer> columns) {
+        EnqueueItemDto item = new EnqueueItemDto();
+        item.setManagementType(column(values, columns, "managementtype"));
+        item.setCrmLoginId(parseInteger(column(values, columns, "crmloginid")));
+        item.setUserCode(column(values, columns, "usercode"));
+        item.setExternalKey(column(values, columns, "externalkey"));
+        item.setCredenciadorId(parseInteger(column(values, columns, "credenciadorid")));
+        item.setFerramentaId(parseInteger(column(values, columns, "ferramentaid")));
+
+        String telefonePIN = column(values, columns, "telefonepin");
+        String groupNome = column(values, columns, "managementgroups_nome");
+        String groupUuid = column(values, columns, "managementgroups_uuid");
+        if (telefonePIN != null || groupNome != null || groupUuid != null) {
+            item.setDadosComplementares(objectMapper.valueToTree(
+                    new DadosComplementaresDto(telefonePIN, groupNome, groupUuid)));
+        }
+        return item;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer parseInteger(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Separa uma linha CSV respeitando campos entre aspas ("" representa aspas literais)
+     */
+    private static List<String> splitCsvLine(String line, char separator) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Acumula os itens válidos e grava em lotes de batchSize
+     */
+    private class Batch {
+
+        private final Set<String> knownKeys;
+        private final EnqueueResultDto result;
+        private final List<Object[]> rows = new ArrayList<>();
+        private final LocalDateTime now = LocalDateTime.now();
+
+        Batch(Set<String> knownKeys, EnqueueResultDto result) {
+            this.knownKeys = knownKeys;
+            this.result = result;
+        }
+
+        /**
+         * Processa um item; retorna false quando o limite de itens por carga foi atingido
+         */
+        boolean accept(EnqueueItemDto item) {
+            if (!receive()) {
+                return false;
+            }
+
+            ProcessingLane lane = resolveLane(item.getManagementType());
+            String rejection = validate(item, lane);
+            if (rejection != null) {
+                addRejection(rejection);
+                return true;
+            }
+
+            String externalKey = isBlank(item.getExternalKey()) ? null : item.getExternalKey().trim();
+            if (!knownKeys.add(dedupKey(lane.getManagementType(), item.getUserCode(), externalKey))) {
+                result.setDuplicates(result.getDuplicates() + 1);
+                return true;
+            }
+
+            JsonNode dados = item.getDadosComplementares();
+            rows.add(new Object[]{
+                    item.getCrmLoginId(),
+                    item.getUserCode().trim(),
+                    externalKey,
+                    item.getFerramentaId(),
+                    item.getCredenciadorId(),
+                    lane.getManagementType(),
+                    STATUS_QUEUE,
+                    usuarioCriacaoId,
+                    Timestamp.valueOf(now),
+                    "Enfileirado via API",
+                    dados == null || dados.isNull() ? null : dados.toString()
+            });
+
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+            return true;
+        }
+
+        /**
+         * Conta um item recebido que não pôde ser lido; retorna false quando o limite de itens por carga
+         * foi atingido
+         */
+        boolean reject(String rejection) {
+            if (!receive()) {
+                return false;
+            }
+            addRejection(rejection);
+            return true;
+        }
+
+        private boolean receive() {
+            if (result.getReceived() >= maxItems) {
+                result.setError("Limite de " + maxItems + " itens por carga atingido");
+                return false;
+            }
+            result.setReceived(result.getReceived() + 1);
+            return true;
+        }
+
+        private void addRejection(String rejection) {
+            result.setRejected(result.getRejected() + 1);
+            if (result.getRejections().size() < MAX_REJECTIONS_DETAILED) {
+                result.getRejections().add("Item " + result.getReceived() + ": " + rejection);
+            }
+        }
+
+        /**
+         * Grava o lote incompleto ao fim de uma leitura completa
+         */
+        void complete() {
+            flush();
+        }
+
+        /**
+         * Descarta os itens ainda não gravados (o payload não pôde ser lido até o fim)
+         */
+        void discard() {
+            result.setDiscarded(result.getDiscarded() + rows.size());
+            rows.clear();
+        }
+
+        /**
+         * Falha de banco ao gravar um lote: a carga é interrompida e o resultado mantém as contagens
+         */
+        void fail(DataAccessException e) {
+            log.error("Falha ao gravar lote do enfileiramento após {} itens inseridos: {}",
+                    result.getInserted(), e.getMessage(), e);
+            result.setError("Falha ao gravar lote no banco após " + result.getInserted() + " itens inseridos: "
+                    + e.getMostSpecificCause().getMessage());
+            result.setDatabaseError(true);
+            discard();
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            int[] types = {Types.INTEGER, Types.NVARCHAR, Types.NVARCHAR, Types.INTEGER, Types.INTEGER,
+                    Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, Types.NVARCHAR, Types.NVARCHAR};
+            connectionBudget.runWithBackgroundConnection(() -> jdbcTemplate.batchUpdate(INSERT_SQL, rows, types));
+            for (Object[] row : rows) {
+                statusCache.evictKeys((String) row[1], (String) row[2]);
+            }
+            result.setInserted(result.getInserted() + rows.size());
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.examplex.demo.service.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mudança de status de um item de Login Management (publicada após a gravação no banco).
+ * dadosComplementares traz o conteúdo gravado junto com o status (ex.: nova senha do RESET/UNBLOCK)
+ * e só é enviado no stream SSE a quem assina um item específico.
+ */
+public record ItemStatusEvent(
+        Integer itemId,
+        Integer credenciadorId,
+        Integer managementType,
+        String userCode,
+        String externalKey,
+        Integer status,
+        String statusDescription,
+        String message,
+        String dadosComplementares,
+        LocalDateTime occurredAt
+) {
+
+    /**
+     * Cópia sem os dados complementares (streams não filtrados por item)
+     */
+    public ItemStatusEvent withoutDadosComplementares() {
+        if (dadosComplementares == null) {
+            return this;
+        }
+        return new ItemStatusEvent(itemId, credenciadorId, managementType, userCode, externalKey, status,
+                statusDescription, message, null, occurredAt);
+    }
+}
@@ -0,0 +1,84 @@
+package com.examplex.demo.service.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * Distribui as mudanças de status para os assinantes do stream SSE.
+ *
+ * Não há replay: o assinante recebe apenas as transições ocorridas após a conexão. Um assinante lento
+ * não atrasa o processamento nem os demais: os eventos que ele não consumir a tempo são descartados
+ * apenas para ele (login_management.status_events.dropped conta os eventos que nenhum assinante recebeu).
+ */
+@Component
+@Slf4j
+public class ItemStatusEventPublisher {
+
+    private final Sinks.Many<ItemStatusEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+
+    @Value("${login-management.events.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+
+    public ItemStatusEventPublisher(MeterRegistry meterRegistry) {
+        this.publishedCounter = Counter.builder("login_management.status_events.published").register(meterRegistry);
+        this.droppedCounter = Counter.builder("login_management.status_events.dropped").register(meterRegistry);
+        meterRegistry.gauge("login_management.status_events.subscribers", sink, Sinks.Many::currentSubscriberCount);
+    }
+
+    /**
+     * Publica uma mudança de status (chamado por várias threads de processamento)
+     */
+    public synchronized void publish(ItemStatusEvent event) {
+        if (sink.currentSubscriberCount() == 0) {
+            return;
+        }
+
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isSuccess()) {
+            publishedCounter.increment();
+        } else {
+            droppedCounter.increment();
+            log.debug("Evento de status do item ID: {} não entregue: {}", event.itemId(), result);
+        }
+    }
+
+    /**
+     * Encerra os streams abertos (desligamento)
+     */
+    public synchronized void complete() {
+        sink.tryEmitComplete();
+    }
+
+    /**
+     * Stream de eventos filtrado por item e/ou credenciador (null = sem filtro),
+     * com comentário periódico para manter a conexão aberta em proxies.
+     * Os dados complementares (ex.: senhas geradas) só seguem quando o stream é de um item específico.
+     */
+    public Flux<ServerSentEvent<ItemStatusEvent>> stream(Integer itemId, Integer credenciadorId) {
+        Flux<ServerSentEvent<ItemStatusEvent>> events = sink.asFlux()
+                .filter(event -> itemId == null || itemId.equals(event.itemId()))
+                .filter(event -> credenciadorId == null || credenciadorId.equals(event.credenciadorId()))
+                .map(event -> itemId != null ? event : event.withoutDadosComplementares())
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(event.itemId() + "-" + event.status())
+                        .event("status")
+                        .build());
+
+        Flux<ServerSentEvent<ItemStatusEvent>> heartbeat = Flux.interval(Duration.ofMillis(heartbeatIntervalMs))
+                .map(tick -> ServerSentEvent.<ItemStatusEvent>builder().comment("keep-alive").build());
+
+        // O heartbeat termina junto com os eventos, para o stream ser encerrado no desligamento
+        return events.publish(shared -> Flux.merge(shared, heartbeat.takeUntilOther(shared.then())));
+    }
+}
@@ -0,0 +1,16 @@
+package com.examplex.demo.service.export;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros da exportação. Datas sobre a data de criação do item, ambas inclusivas; campos nulos não filtram.
+ */
+public record ExportFilter(
+        LocalDate from,
+        LocalDate to,
+        Integer managementType,
+        Integer managementStatus,
+        Integer credenciadorId,
+        boolean includeHistory
+) {
+}
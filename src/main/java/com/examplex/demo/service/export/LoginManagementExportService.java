@@ -0,0 +1,237 @@
+package com.examplex.demo.service.export;
+
+import com.examplex.demo.config.ConnectionBudget;
+import com.examplex.demo.config.ReadReplica;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exportação de solicitações de Login Management em CSV ou NDJSON, em streaming.
+ *
+ * As linhas são lidas por um cursor forward-only/read-only com fetch-size linhas por ida ao banco e
+ * escritas direto na saída da resposta, uma a uma: o uso de memória não depende da quantidade exportada.
+ * A tabela principal e o histórico (arquivamento) são lidos em sequência, cada um na ordem do Id,
+ * na réplica de leitura quando configurada. O cursor ocupa uma conexão do orçamento de segundo plano durante
+ * toda a leitura da tabela, pois a réplica pode cair para o primário.
+ *
+ * Os dados complementares não são exportados, pois podem conter a senha gerada no RESET.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoginManagementExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String[] COLUMNS = {
+            "crm_Login_Management_Id", "crm_Login_Id", "crm_Login_Management_User_Code",
+            "crm_Login_Management_External_Key", "crm_Ferramenta_Id", "crm_Credenciador_Id",
+            "gpa_DropDown_LoginManagementType", "gpa_DropDown_ManagementLoginStatus",
+            "crm_Login_Management_DataCriacao", "crm_Login_Management_DataAlteracao",
+            "crm_Login_Management_RegistroExcluido", "log_Alteracao_Rastro"
+    };
+
+    // Nomes dos campos na exportação, na ordem de COLUMNS
+    private static final String[] FIELDS = {
+            "id", "crmLoginId", "userCode", "externalKey", "ferramentaId", "credenciadorId",
+            "managementType", "managementStatus", "dataCriacao", "dataAlteracao", "registroExcluido",
+            "logAlteracaoRastro"
+    };
+
+    private static final char CSV_SEPARATOR = ';';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ConnectionBudget connectionBudget;
+
+    @Value("${login-management.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Escreve na saída todas as linhas que atendem ao filtro; retorna a quantidade exportada
+     */
+    public long export(ExportFilter filter, Format format, OutputStream output) throws IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        rowWriter.writeHeader();
+        long rows = exportTable("crm_Login_Management", filter, rowWriter);
+        if (filter.includeHistory()) {
+            rows += exportTable("crm_Login_Management_History", filter, rowWriter);
+        }
+        rowWriter.finish();
+        writer.flush();
+
+        meterRegistry.counter("login_management.export.rows", "format", format.name()).increment(rows);
+        log.info("Exportação {} concluída: {} linhas em {} ms", format, rows, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long exportTable(String table, ExportFilter filter, RowWriter rowWriter) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", COLUMNS))
+                .append(" FROM ").append(table).append(" WHERE 1 = 1");
+
+        if (filter.from() != null) {
+            sql.append(" AND crm_Login_Management_DataCriacao >= ?");
+            params.add(Timestamp.valueOf(filter.from().atStartOfDay()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND crm_Login_Management_DataCriacao < ?");
+            params.add(Timestamp.valueOf(filter.to().plusDays(1).atStartOfDay()));
+        }
+        if (filter.managementType() != null) {
+            sql.append(" AND gpa_DropDown_LoginManagementType = ?");
+            params.add(filter.managementType());
+        }
+        if (filter.managementStatus() != null) {
+            sql.append(" AND gpa_DropDown_ManagementLoginStatus = ?");
+            params.add(filter.managementStatus());
+        }
+        if (filter.credenciadorId() != null) {
+            sql.append(" AND crm_Credenciador_Id = ?");
+            params.add(filter.credenciadorId());
+        }
+        sql.append(" ORDER BY crm_Login_Management_Id");
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        };
+
+        long[] rows = {0};
+        RowCallbackHandler handler = rs -> {
+            try {
+                rowWriter.writeRow(rs);
+            } catch (IOException e) {
+                // Cliente desconectado: interrompe a leitura do cursor
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        };
+        connectionBudget.runWithBackgroundConnection(() -> ReadReplica.read(() -> {
+            jdbcTemplate.query(statement, handler);
+            return null;
+        }));
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void writeHeader() throws IOException;
+
+        void writeRow(ResultSet rs) throws SQLException, IOException;
+
+        default void finish() throws IOException {
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writer.write(String.join(String.valueOf(CSV_SEPARATOR), FIELDS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void writeRow(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(CSV_SEPARATOR);
+                }
+                Object value = rs.getObject(i);
+                if (value != null) {
+                    writer.write(escape(value instanceof Timestamp timestamp
+                            ? timestamp.toLocalDateTime().toString() : value.toString()));
+                }
+            }
+            writer.write('\n');
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(CSV_SEPARATOR) < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            // Uma linha por objeto: o separador entre objetos é a quebra de linha escrita após cada um
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+                    .configure(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM, false)
+                    .setRootValueSeparator(null);
+        }
+
+        @Override
+        public void writeHeader() {
+        }
+
+        @Override
+        public void writeRow(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                Object value = rs.getObject(i);
+                if (value == null) {
+                    generator.writeNullField(FIELDS[i - 1]);
+                } else if (value instanceof Number number) {
+                    generator.writeNumberField(FIELDS[i - 1], number.intValue());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBooleanField(FIELDS[i - 1], bool);
+                } else if (value instanceof Timestamp timestamp) {
+                    generator.writeStringField(FIELDS[i - 1], timestamp.toLocalDateTime().toString());
+                } else {
+                    generator.writeStringField(FIELDS[i - 1], value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
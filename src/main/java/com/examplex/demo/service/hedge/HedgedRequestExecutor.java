@@ -0,0 +1,209 @@
+package com.examplex.demo.service.hedge;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Hedging de uma operação idempotente: se a requisição não responder dentro do limiar (p95 recente),
+ * uma segunda requisição idêntica é enviada e vale a primeira resposta com sucesso.
+ *
+ * O número de reforços é limitado por um orçamento (token bucket): cada chamada acumula budget-ratio
+ * de token, até max-tokens, e cada reforço consome um token. Com o orçamento esgotado a chamada
+ * apenas aguarda a requisição original.
+ *
+ * A requisição deve conter apenas a troca HTTP: limites de taxa, orçamento e vaga de concorrência são
+ * obtidos antes, para que a espera local não entre no p95 nem dispare reforços. O reforço é uma
+ * requisição a mais e só sai se admitHedge permitir (sem aguardar).
+ */
+@Slf4j
+public class HedgedRequestExecutor {
+
+    private final String operation;
+    private final String partner;
+    private final ThreadPoolTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer latencyTimer;
+    private final HedgingProperties properties;
+
+    private double tokens;
+
+    public HedgedRequestExecutor(String operation, String partner, ThreadPoolTaskExecutor executor,
+                                 MeterRegistry meterRegistry, HedgingProperties properties) {
+        this.operation = operation;
+        this.partner = partner;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.tokens = properties.maxTokens();
+        this.latencyTimer = Timer.builder("external_api.hedge.latency")
+                .description("Latência de cada requisição da operação com hedging")
+                .tag("operation", operation)
+                .tag("partner", partner)
+                .publishPercentiles(0.95)
+                .distributionStatisticExpiry(Duration.ofMillis(properties.windowMs()))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a operação com hedging. onError converte exceções da requisição em resultado de falha.
+     */
+    public <T> T execute(Supplier<T> request, Predicate<T> isSuccess, Function<Throwable, T> onError) {
+        return execute(request, () -> true, isSuccess, onError);
+    }
+
+    /**
+     * Variante em que o reforço só é enviado se admitHedge permitir (ex.: permissão livre no limite de
+     * requisições do parceiro); admitHedge não deve aguardar
+     */
+    public <T> T execute(Supplier<T> request, BooleanSupplier admitHedge, Predicate<T> isSuccess,
+                         Function<Throwable, T> onError) {
+        Supplier<T> timedRequest = () -> {
+            long start = System.nanoTime();
+            try {
+                return request.get();
+            } finally {
+                latencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+
+        if (!properties.enabled()) {
+            return timedRequest.get();
+        }
+        addToken();
+
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(timedRequest, executor);
+        } catch (TaskRejectedException e) {
+            count("rejected");
+            return timedRequest.get();
+        }
+
+        long thresholdMs = thresholdMs();
+        try {
+            return primary.get(thresholdMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return hedge(primary, timedRequest, admitHedge, isSuccess, onError, thresholdMs);
+        } catch (ExecutionException e) {
+            return onError.apply(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return onError.apply(e);
+        }
+    }
+
+    /**
+     * A original não respondeu no limiar: envia o reforço (se houver orçamento) e aguarda o primeiro sucesso
+     */
+    private <T> T hedge(CompletableFuture<T> primary, Supplier<T> request, BooleanSupplier admitHedge,
+                        Predicate<T> isSuccess, Function<Throwable, T> onError, long thresholdMs) {
+        if (!tryAcquireToken()) {
+            count("budget_exhausted");
+            return await(primary, onError);
+        }
+        if (!admitHedge.getAsBoolean()) {
+            refundToken();
+            count("not_admitted");
+            return await(primary, onError);
+        }
+
+        CompletableFuture<T> secondary;
+        try {
+            secondary = CompletableFuture.supplyAsync(request, executor);
+        } catch (TaskRejectedException e) {
+            count("rejected");
+            return await(primary, onError);
+        }
+
+        count("fired");
+        log.info("Hedging {} ({}): sem resposta em {} ms, enviando requisição de reforço", operation, partner,
+                thresholdMs);
+
+        // Vale o primeiro sucesso; se as duas falharem, vale a última resposta
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        primary.whenComplete((result, e) -> complete(winner, remaining, result, e, isSuccess, onError));
+        secondary.whenComplete((result, e) -> {
+            if (complete(winner, remaining, result, e, isSuccess, onError)) {
+                count("won");
+            }
+        });
+
+        return await(winner, onError);
+    }
+
+    /**
+     * Completa o vencedor com esta resposta se for um sucesso (ou a última).
+     * Retorna true se esta resposta foi o sucesso vencedor.
+     */
+    private <T> boolean complete(CompletableFuture<T> winner, AtomicInteger remaining, T result, Throwable e,
+                                 Predicate<T> isSuccess, Function<Throwable, T> onError) {
+        T response = e != null ? onError.apply(e) : result;
+        boolean success = response != null && isSuccess.test(response);
+        boolean last = remaining.decrementAndGet() == 0;
+        return (success || last) && winner.complete(response) && success;
+    }
+
+    private <T> T await(CompletableFuture<T> future, Function<Throwable, T> onError) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return onError.apply(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return onError.apply(e);
+        }
+    }
+
+    /**
+     * p95 recente, limitado ao mínimo configurado; antes de min-samples usa o limiar inicial
+     */
+    private long thresholdMs() {
+        if (latencyTimer.count() < properties.minSamples()) {
+            return properties.initialDelayMs();
+        }
+        for (ValueAtPercentile percentile : latencyTimer.takeSnapshot().percentileValues()) {
+            double p95 = percentile.value(TimeUnit.MILLISECONDS);
+            if (p95 > 0) {
+                return Math.max(properties.minDelayMs(), (long) p95);
+            }
+        }
+        return properties.initialDelayMs();
+    }
+
+    private synchronized void addToken() {
+        tokens = Math.min(properties.maxTokens(), tokens + properties.budgetRatio());
+    }
+
+    private synchronized boolean tryAcquireToken() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private synchronized void refundToken() {
+        tokens = Math.min(properties.maxTokens(), tokens + 1);
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("external_api.hedge", "operation", operation, "partner", partner, "outcome", outcome)
+                .increment();
+    }
+}
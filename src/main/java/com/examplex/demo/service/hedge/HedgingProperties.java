@@ -0,0 +1,23 @@
+package com.examplex.demo.service.hedge;
+
+/**
+ * Configuração do hedging de uma operação
+ *
+ * @param enabled        habilita o hedging
+ * @param minDelayMs     limiar mínimo antes do reforço
+ * @param initialDelayMs limiar usado até haver amostras suficientes
+ * @param minSamples     amostras necessárias para usar o p95
+ * @param windowMs       janela do p95
+ * @param budgetRatio    tokens acumulados por chamada (0.1 = até 10% das chamadas com reforço)
+ * @param maxTokens      máximo de tokens acumulados (rajada de reforços)
+ */
+public record HedgingProperties(
+        boolean enabled,
+        long minDelayMs,
+        long initialDelayMs,
+        long minSamples,
+        long windowMs,
+        double budgetRatio,
+        double maxTokens
+) {
+}
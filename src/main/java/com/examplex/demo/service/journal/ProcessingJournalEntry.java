@@ -0,0 +1,19 @@
+package com.examplex.demo.service.journal;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de uma etapa do processamento de um item (uma chamada à API iCred)
+ */
+public record ProcessingJournalEntry(
+        Integer itemId,
+        String step,
+        boolean success,
+        Integer httpStatus,
+        Long latencyMs,
+        int attempt,
+        String message,
+        String errorBody,
+        LocalDateTime registeredAt
+) {
+}
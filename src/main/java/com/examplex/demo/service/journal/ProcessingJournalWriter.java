@@ -0,0 +1,207 @@
+package com.examplex.demo.service.journal;
+
+import com.examplex.demo.config.ConnectionBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação assíncrona e em lote do journal de processamento (crm_Login_Management_Journal).
+ *
+ * O processamento apenas enfileira o registro em um buffer limitado; uma thread em segundo plano
+ * grava os registros em lotes via JDBC batch. Quando o buffer está cheio aplica-se a política
+ * configurada: DROP descarta o registro, BLOCK aguarda até o tempo limite e então descarta.
+ * Cada lote é gravado com uma conexão do orçamento de segundo plano.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessingJournalWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO crm_Login_Management_Journal (" +
+            "crm_Login_Management_Id, crm_Login_Management_Journal_Step, crm_Login_Management_Journal_Success, " +
+            "crm_Login_Management_Journal_HttpStatus, crm_Login_Management_Journal_LatencyMs, " +
+            "crm_Login_Management_Journal_Attempt, crm_Login_Management_Journal_Message, " +
+            "crm_Login_Management_Journal_ErrorBody, crm_Login_Management_Journal_DataRegistro) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ConnectionBudget connectionBudget;
+
+    @Value("${processing-journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${processing-journal.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${processing-journal.batch-size:200}")
+    private int batchSize;
+
+    @Value("${processing-journal.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${processing-journal.overflow-policy:DROP}")
+    private String overflowPolicy;
+
+    @Value("${processing-journal.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    private BlockingQueue<ProcessingJournalEntry> buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+
+        writtenCounter = Counter.builder("processing_journal.written").register(meterRegistry);
+        droppedCounter = Counter.builder("processing_journal.dropped").register(meterRegistry);
+        failedCounter = Counter.builder("processing_journal.failed").register(meterRegistry);
+        Gauge.builder("processing_journal.buffer_size", buffer, BlockingQueue::size).register(meterRegistry);
+
+        if (!enabled) {
+            log.info("Journal de processamento desabilitado");
+            return;
+        }
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "processing-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Enfileira um registro sem bloquear o processamento (exceto na política BLOCK, até o tempo limite)
+     */
+    public void record(ProcessingJournalEntry entry) {
+        if (!enabled) {
+            return;
+        }
+
+        boolean accepted;
+        if ("BLOCK".equalsIgnoreCase(overflowPolicy)) {
+            try {
+                accepted = buffer.offer(entry, blockTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = buffer.offer(entry);
+        }
+
+        if (!accepted) {
+            droppedCounter.increment();
+            log.debug("Buffer do journal cheio, registro do item ID {} descartado", entry.itemId());
+        }
+    }
+
+    /**
+     * Grava imediatamente tudo o que está no buffer
+     */
+    public synchronized void flush() {
+        List<ProcessingJournalEntry> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        log.info("Journal de processamento finalizado. Pendentes descartados: {}", buffer.size());
+    }
+
+    private void writeLoop() {
+        List<ProcessingJournalEntry> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                ProcessingJournalEntry first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+
+                synchronized (this) {
+                    writeBatch(batch);
+                }
+                batch.clear();
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Erro inesperado no writer do journal: {}", e.getMessage(), e);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<ProcessingJournalEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            connectionBudget.runWithBackgroundConnection(() -> insertBatch(batch));
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("Erro ao gravar lote de {} registros do journal: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void insertBatch(List<ProcessingJournalEntry> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+            ps.setInt(1, entry.itemId());
+            ps.setString(2, entry.step());
+            ps.setBoolean(3, entry.success());
+            if (entry.httpStatus() != null) {
+                ps.setInt(4, entry.httpStatus());
+            } else {
+                ps.setNull(4, Types.INTEGER);
+            }
+            if (entry.latencyMs() != null) {
+                ps.setLong(5, entry.latencyMs());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+            ps.setInt(6, entry.attempt());
+            ps.setString(7, entry.message());
+            ps.setString(8, entry.errorBody());
+            ps.setTimestamp(9, Timestamp.valueOf(entry.registeredAt()));
+        });
+    }
+}
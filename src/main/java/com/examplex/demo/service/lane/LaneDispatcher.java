@@ -0,0 +1,198 @@
+package com.examplex.demo.service.lane;
+
+import com.examplex.demo.model.projection.LoginManagementWorkItem;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Distribui os itens de uma execução entre as filas por tipo.
+ *
+ * Ordem de escolha a cada item:
+ *   1. Proteção contra inanição: fila (exceto BLOCK) sem atendimento há mais que o limite
+ *   2. Prioridade estrita de BLOCK (se habilitada)
+ *   3. Round-robin ponderado suave entre as filas não vazias
+ *
+ * Instância por execução; thread-safe.
+ */
+@Slf4j
+public class LaneDispatcher {
+
+    private record Entry(LoginManagementWorkItem item, long admittedAt) {
+    }
+
+    private final Map<ProcessingLane, Deque<Entry>> queues = new EnumMap<>(ProcessingLane.class);
+    private final Map<ProcessingLane, Integer> weights;
+    private final Map<ProcessingLane, Long> currentWeights = new EnumMap<>(ProcessingLane.class);
+    private final Map<ProcessingLane, Long> lastServedAt = new EnumMap<>(ProcessingLane.class);
+    private final Set<Integer> admittedIds = new HashSet<>();
+
+    private final boolean blockStrictPriority;
+    private final long starvationThresholdMs;
+    private final long blockRefreshIntervalMs;
+    private final Supplier<List<LoginManagementWorkItem>> blockRefresher;
+    private final BiConsumer<ProcessingLane, Duration> queueLatencyRecorder;
+
+    private long lastBlockRefresh;
+
+    LaneDispatcher(Map<ProcessingLane, Integer> weights,
+                   boolean blockStrictPriority,
+                   long starvationThresholdMs,
+                   long blockRefreshIntervalMs,
+                   Supplier<List<LoginManagementWorkItem>> blockRefresher,
+                   BiConsumer<ProcessingLane, Duration> queueLatencyRecorder) {
+        this.weights = weights;
+        this.blockStrictPriority = blockStrictPriority;
+        this.starvationThresholdMs = starvationThresholdMs;
+        this.blockRefreshIntervalMs = blockRefreshIntervalMs;
+        this.blockRefresher = blockRefresher;
+        this.queueLatencyRecorder = queueLatencyRecorder;
+        this.lastBlockRefresh = System.currentTimeMillis();
+
+        for (ProcessingLane lane : ProcessingLane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            currentWeights.put(lane, 0L);
+        }
+    }
+
+    /**
+     * Adiciona itens às suas filas, ignorando os que já foram admitidos nesta execução
+     */
+    public synchronized int admit(List<LoginManagementWorkItem> items) {
+        long now = System.currentTimeMillis();
+        int admitted = 0;
+
+        for (LoginManagementWorkItem item : items) {
+            ProcessingLane lane = ProcessingLane.fromManagementType(item.managementType());
+            if (lane == null || !admittedIds.add(item.id())) {
+                continue;
+            }
+            queues.get(lane).addLast(new Entry(item, now));
+            admitted++;
+        }
+        return admitted;
+    }
+
+    /**
+     * Retorna o próximo item a processar, ou null quando todas as filas estão vazias
+     */
+    public synchronized LoginManagementWorkItem next() {
+        refreshBlockLaneIfDue();
+
+        ProcessingLane lane = selectLane();
+        if (lane == null) {
+            return null;
+        }
+
+        Entry entry = queues.get(lane).pollFirst();
+        lastServedAt.put(lane, System.currentTimeMillis());
+        return entry.item();
+    }
+
+    /**
+     * Registra a espera na fila de um item cujo processamento está começando. Não é feito em next():
+     * o item retirado da fila ainda pode ser adiado (trabalho em lote, parceiro sem vaga) e só a espera
+     * até o início efetivo conta para a latência da fila.
+     */
+    public void recordStart(LoginManagementWorkItem item) {
+        ProcessingLane lane = ProcessingLane.fromManagementType(item.managementType());
+        if (queueLatencyRecorder == null || lane == null || item.queuedAt() == null) {
+            return;
+        }
+        Duration wait = Duration.between(item.queuedAt(), LocalDateTime.now());
+        if (!wait.isNegative()) {
+            queueLatencyRecorder.accept(lane, wait);
+        }
+    }
+
+    /**
+     * Quantidade de itens aguardando por fila
+     */
+    public synchronized Map<ProcessingLane, Integer> depths() {
+        Map<ProcessingLane, Integer> depths = new EnumMap<>(ProcessingLane.class);
+        queues.forEach((lane, queue) -> depths.put(lane, queue.size()));
+        return depths;
+    }
+
+    private ProcessingLane selectLane() {
+        long now = System.currentTimeMillis();
+
+        // 1. Proteção contra inanição: a fila esperando há mais tempo ganha a vez
+        ProcessingLane starving = null;
+        long oldestService = Long.MAX_VALUE;
+        for (ProcessingLane lane : ProcessingLane.values()) {
+            Deque<Entry> queue = queues.get(lane);
+            if (lane == ProcessingLane.BLOCK || queue.isEmpty()) {
+                continue;
+            }
+            long since = Math.max(lastServedAt.getOrDefault(lane, 0L), queue.peekFirst().admittedAt());
+            if (now - since >= starvationThresholdMs && since < oldestService) {
+                starving = lane;
+                oldestService = since;
+            }
+        }
+        if (starving != null) {
+            log.debug("Fila {} atendida por proteção contra inanição", starving);
+            return starving;
+        }
+
+        // 2. Prioridade estrita de BLOCK
+        if (blockStrictPriority && !queues.get(ProcessingLane.BLOCK).isEmpty()) {
+            return ProcessingLane.BLOCK;
+        }
+
+        // 3. Round-robin ponderado suave
+        ProcessingLane selected = null;
+        long totalWeight = 0;
+        for (ProcessingLane lane : ProcessingLane.values()) {
+            if (queues.get(lane).isEmpty()) {
+                continue;
+            }
+            int weight = Math.max(1, weights.getOrDefault(lane, 1));
+            totalWeight += weight;
+            long current = currentWeights.get(lane) + weight;
+            currentWeights.put(lane, current);
+            if (selected == null || current > currentWeights.get(selected)) {
+                selected = lane;
+            }
+        }
+        if (selected != null) {
+            currentWeights.put(selected, currentWeights.get(selected) - totalWeight);
+        }
+        return selected;
+    }
+
+    /**
+     * Reconsulta o banco por novos BLOCKs periodicamente, para que não esperem a próxima execução
+     */
+    private void refreshBlockLaneIfDue() {
+        if (blockRefresher == null || blockRefreshIntervalMs <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastBlockRefresh < blockRefreshIntervalMs) {
+            return;
+        }
+        lastBlockRefresh = now;
+
+        try {
+            int admitted = admit(blockRefresher.get());
+            if (admitted > 0) {
+                log.info("{} novos itens BLOCK adicionados à fila durante a execução", admitted);
+            }
+        } catch (Exception e) {
+            log.warn("Erro ao reabastecer fila de BLOCK: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.examplex.demo.service.lane;
+
+import com.examplex.demo.model.projection.LoginManagementWorkItem;
+import com.examplex.demo.service.latency.LatencyTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cria os dispatchers de cada execução com os pesos e prioridades configurados
+ */
+@Component
+@RequiredArgsConstructor
+public class PriorityLaneScheduler {
+
+    private final LatencyTracker latencyTracker;
+
+    @Value("${login-management.lanes.weight.block:8}")
+    private int blockWeight;
+
+    @Value("${login-management.lanes.weight.unblock:4}")
+    private int unblockWeight;
+
+    @Value("${login-management.lanes.weight.reset:4}")
+    private int resetWeight;
+
+    @Value("${login-management.lanes.weight.create:1}")
+    private int createWeight;
+
+    @Value("${login-management.lanes.block-strict-priority:true}")
+    private boolean blockStrictPriority;
+
+    @Value("${login-management.lanes.starvation-threshold-ms:30000}")
+    private long starvationThresholdMs;
+
+    @Value("${login-management.lanes.block-refresh-interval-ms:5000}")
+    private long blockRefreshIntervalMs;
+
+    /**
+     * Abre um dispatcher para os itens da execução atual
+     */
+    public LaneDispatcher open(List<LoginManagementWorkItem> items,
+                               Supplier<List<LoginManagementWorkItem>> blockRefresher) {
+        Map<ProcessingLane, Integer> weights = new EnumMap<>(ProcessingLane.class);
+        weights.put(ProcessingLane.BLOCK, blockWeight);
+        weights.put(ProcessingLane.UNBLOCK, unblockWeight);
+        weights.put(ProcessingLane.RESET, resetWeight);
+        weights.put(ProcessingLane.CREATE, createWeight);
+
+        LaneDispatcher dispatcher = new LaneDispatcher(weights, blockStrictPriority, starvationThresholdMs,
+                blockRefreshIntervalMs, blockRefresher,
+                (lane, wait) -> latencyTracker.record(LatencyTracker.Kind.QUEUE_WAIT, lane, wait));
+        dispatcher.admit(items);
+        return dispatcher;
+    }
+}
@@ -0,0 +1,37 @@
+package com.examplex.demo.service.lane;
+
+/**
+ * Filas lógicas de processamento, uma por tipo de management
+ */
+public enum ProcessingLane {
+
+    BLOCK(-4104),
+    UNBLOCK(-4105),
+    RESET(2268),
+    CREATE(3833);
+
+    private final int managementType;
+
+    ProcessingLane(int managementType) {
+        this.managementType = managementType;
+    }
+
+    public int getManagementType() {
+        return managementType;
+    }
+
+    /**
+     * Retorna a fila do tipo informado, ou null se o tipo for desconhecido
+     */
+    public static ProcessingLane fromManagementType(Integer managementType) {
+        if (managementType == null) {
+            return null;
+        }
+        for (ProcessingLane lane : values()) {
+            if (lane.managementType == managementType) {
+                return lane;
+            }
+        }
+        return null;
+    }
+}
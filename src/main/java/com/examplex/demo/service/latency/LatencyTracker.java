@@ -0,0 +1,134 @@
+package com.examplex.demo.service.latency;
+
+import com.examplex.demo.service.lane.ProcessingLane;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latências do processamento por tipo de management: espera na fila, tempo de processamento
+ * e tempo total (entrada na fila até a conclusão).
+ *
+ * Cada medida é registrada em um Timer por janela configurada; os percentis são calculados pelo
+ * histograma HDR do Micrometer, que descarta as amostras mais antigas que a janela (janela deslizante
+ * em buffer-length fatias).
+ */
+@Component
+@RequiredArgsConstructor
+public class LatencyTracker {
+
+    public enum Kind {
+        QUEUE_WAIT("login_management.latency.queue_wait", "Espera do item na fila até o início do processamento"),
+        PROCESSING("login_management.latency.processing", "Tempo de processamento do item"),
+        END_TO_END("login_management.latency.end_to_end", "Tempo da entrada na fila até a conclusão do item");
+
+        private final String meterName;
+        private final String description;
+
+        Kind(String meterName, String description) {
+            this.meterName = meterName;
+            this.description = description;
+        }
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${login-management.latency.windows:1m,15m}")
+    private List<String> windowNames;
+
+    @Value("${login-management.latency.buffer-length:5}")
+    private int bufferLength;
+
+    private final Map<String, Duration> windows = new LinkedHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String name : windowNames) {
+            windows.put(name.trim(), parseWindow(name.trim()));
+        }
+    }
+
+    public void record(Kind kind, ProcessingLane lane, Duration duration) {
+        if (lane == null || duration == null || duration.isNegative()) {
+            return;
+        }
+        for (String window : windows.keySet()) {
+            timer(kind, lane, window).record(duration);
+        }
+    }
+
+    /**
+     * Percentis (ms) por janela, tipo de medida e fila. Filas sem amostras na janela são omitidas.
+     */
+    public Map<String, Object> percentiles() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String window : windows.keySet()) {
+            Map<String, Object> byKind = new LinkedHashMap<>();
+            for (Kind kind : Kind.values()) {
+                Map<String, Object> byLane = new LinkedHashMap<>();
+                for (ProcessingLane lane : ProcessingLane.values()) {
+                    Timer timer = timers.get(key(kind, lane, window));
+                    if (timer == null) {
+                        continue;
+                    }
+                    HistogramSnapshot snapshot = timer.takeSnapshot();
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                        values.put("p" + Math.round(percentile.percentile() * 100),
+                                Math.round(percentile.value(TimeUnit.MILLISECONDS)));
+                    }
+                    values.put("max", Math.round(snapshot.max(TimeUnit.MILLISECONDS)));
+                    values.put("totalCount", snapshot.count());
+                    byLane.put(lane.name(), values);
+                }
+                byKind.put(kind.name(), byLane);
+            }
+            result.put(window, byKind);
+        }
+        return result;
+    }
+
+    private Timer timer(Kind kind, ProcessingLane lane, String window) {
+        return timers.computeIfAbsent(key(kind, lane, window), k -> Timer.builder(kind.meterName)
+                .description(kind.description)
+                .tag("lane", lane.name())
+                .tag("window", window)
+                .publishPercentiles(PERCENTILES)
+                .percentilePrecision(2)
+                .distributionStatisticExpiry(windows.get(window))
+                .distributionStatisticBufferLength(bufferLength)
+                .register(meterRegistry));
+    }
+
+    private static String key(Kind kind, ProcessingLane lane, String window) {
+        return kind.name() + "|" + lane.name() + "|" + window;
+    }
+
+    /**
+     * Converte "30s", "1m", "15m", "1h" em Duration
+     */
+    private static Duration parseWindow(String value) {
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Janela de latência inválida: " + value);
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.examplex.demo.service.partner;
+
+import com.examplex.demo.service.concurrency.AdaptiveConcurrencyLimiter;
+import lombok.Getter;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Parceiro iCred com credenciais, cliente HTTP, limite de requisições e vagas de processamento próprios,
+ * para que o volume ou a limitação de um parceiro não afete os demais
+ */
+@Getter
+public class Partner {
+
+    private final String id;
+    private final String partnerUuid;
+    private final String authorizationHeader;
+    private final Integer userProfileId;
+    private final RestTemplate restTemplate;
+    private final RequestRateLimiter rateLimiter;
+    private final int maxInFlight;
+    private final Semaphore itemSlots;
+    // Nulo quando o limite adaptativo está desabilitado
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public Partner(String id, String partnerUuid, String authorizationHeader, Integer userProfileId,
+                   RestTemplate restTemplate, RequestRateLimiter rateLimiter, int maxInFlight,
+                   AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.id = id;
+        this.partnerUuid = partnerUuid;
+        this.authorizationHeader = authorizationHeader;
+        this.userProfileId = userProfileId;
+        this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.maxInFlight = maxInFlight;
+        this.itemSlots = new Semaphore(maxInFlight);
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Reserva uma vaga de processamento de item para o parceiro, sem aguardar
+     */
+    public boolean tryAcquireItemSlot() {
+        return itemSlots.tryAcquire();
+    }
+
+    public void releaseItemSlot() {
+        itemSlots.release();
+    }
+}
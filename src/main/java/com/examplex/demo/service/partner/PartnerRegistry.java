@@ -0,0 +1,119 @@
+package com.examplex.demo.service.partner;
+
+import com.examplex.demo.config.PartnerProperties;
+import com.examplex.demo.service.concurrency.AdaptiveConcurrencyInterceptor;
+import com.examplex.demo.service.concurrency.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parceiros configurados e roteamento dos itens pelo credenciador (crm_Credenciador_Id)
+ */
+@Component
+@Slf4j
+public class PartnerRegistry {
+
+    private final Map<String, Partner> partners = new LinkedHashMap<>();
+    private final Map<Integer, Partner> byCredenciador = new HashMap<>();
+    private final Partner defaultPartner;
+
+    public PartnerRegistry(PartnerProperties properties, MeterRegistry meterRegistry) {
+        Map<String, PartnerProperties.PartnerConfig> configs = properties.getPartners();
+        if (configs.isEmpty()) {
+            configs = Map.of(properties.getDefaultPartner(), new PartnerProperties.PartnerConfig());
+        }
+
+        configs.forEach((id, config) -> {
+            AdaptiveConcurrencyLimiter limiter = properties.getAdaptiveConcurrency().isEnabled()
+                    ? new AdaptiveConcurrencyLimiter(id, properties.getAdaptiveConcurrency())
+                    : null;
+            Partner partner = build(id, config, properties, limiter);
+            partners.put(id, partner);
+            for (Integer credenciadorId : config.getCredenciadorIds()) {
+                Partner previous = byCredenciador.put(credenciadorId, partner);
+                if (previous != null) {
+                    throw new IllegalStateException("Credenciador " + credenciadorId
+                            + " mapeado para os parceiros " + previous.getId() + " e " + id);
+                }
+            }
+
+            Gauge.builder("external_api.partner.items_in_flight", partner,
+                            p -> p.getMaxInFlight() - p.getItemSlots().availablePermits())
+                    .tag("partner", id)
+                    .register(meterRegistry);
+            if (limiter != null) {
+                Gauge.builder("external_api.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                        .description("Limite adaptativo de requisições simultâneas à API iCred")
+                        .tag("partner", id)
+                        .register(meterRegistry);
+                Gauge.builder("external_api.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                        .description("Requisições à API iCred em andamento")
+                        .tag("partner", id)
+                        .register(meterRegistry);
+            }
+            log.info("Parceiro {} configurado (credenciadores: {}, itens simultâneos: {}, requisições/s: {})",
+                    id, config.getCredenciadorIds(), config.getMaxInFlight(), config.getRequestsPerSecond());
+        });
+
+        defaultPartner = partners.get(properties.getDefaultPartner());
+        if (defaultPartner == null) {
+            throw new IllegalStateException("Parceiro padrão não configurado: " + properties.getDefaultPartner());
+        }
+    }
+
+    private static Partner build(String id, PartnerProperties.PartnerConfig config, PartnerProperties defaults,
+                                 AdaptiveConcurrencyLimiter limiter) {
+        String partnerUuid = config.getPartnerUuid() != null ? config.getPartnerUuid() : defaults.getPartnerUuid();
+        String authorizationHeader = config.getAuthorizationHeader() != null
+                ? config.getAuthorizationHeader() : defaults.getAuthorizationHeader();
+        Integer userProfileId = config.getUserProfileId() != null ? config.getUserProfileId() : defaults.getUserProfileId();
+
+        if (partnerUuid == null || authorizationHeader == null) {
+            throw new IllegalStateException("Parceiro " + id + " sem partner-uuid ou authorization-header");
+        }
+
+        // Cliente HTTP próprio (pool de conexões isolado por parceiro)
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMs()))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(config.getReadTimeoutMs()));
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        if (limiter != null) {
+            restTemplate.getInterceptors().add(new AdaptiveConcurrencyInterceptor(limiter));
+        }
+
+        return new Partner(id, partnerUuid, authorizationHeader, userProfileId, restTemplate,
+                new RequestRateLimiter(config.getRequestsPerSecond()), config.getMaxInFlight(), limiter);
+    }
+
+    /**
+     * Parceiro do credenciador do item; credenciadores não mapeados vão para o parceiro padrão
+     */
+    public Partner forCredenciador(Integer credenciadorId) {
+        if (credenciadorId == null) {
+            return defaultPartner;
+        }
+        return byCredenciador.getOrDefault(credenciadorId, defaultPartner);
+    }
+
+    public Partner defaultPartner() {
+        return defaultPartner;
+    }
+
+    public Collection<Partner> all() {
+        return partners.values();
+    }
+}
@@ -0,0 +1,68 @@
+package com.examplex.demo.service.partner;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de requisições por segundo (token bucket com rajada de até um segundo de requisições).
+ * acquire() aguarda até haver permissão; tryAcquire() só a usa se estiver livre.
+ */
+public class RequestRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double maxPermits;
+
+    private double permits;
+    private long lastRefillNanos = System.nanoTime();
+
+    public RequestRateLimiter(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = Math.max(1, permitsPerSecond);
+        this.permits = maxPermits;
+    }
+
+    /**
+     * Aguarda uma permissão; retorna o tempo de espera em nanossegundos
+     */
+    public long acquire() throws InterruptedException {
+        if (permitsPerSecond <= 0) {
+            return 0;
+        }
+
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Usa uma permissão somente se houver uma livre agora, sem aguardar
+     */
+    public synchronized boolean tryAcquire() {
+        if (permitsPerSecond <= 0) {
+            return true;
+        }
+        refill();
+        if (permits < 1) {
+            return false;
+        }
+        permits -= 1;
+        return true;
+    }
+
+    /**
+     * Reserva a próxima permissão (o saldo pode ficar negativo) e retorna quanto esperar por ela
+     */
+    private synchronized long reserve() {
+        refill();
+
+        permits -= 1;
+        return permits >= 0 ? 0 : (long) (-permits / permitsPerSecond * 1_000_000_000d);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        permits = Math.min(maxPermits, permits + (now - lastRefillNanos) * permitsPerSecond / 1_000_000_000d);
+        lastRefillNanos = now;
+    }
+}
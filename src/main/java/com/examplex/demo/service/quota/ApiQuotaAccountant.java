@@ -0,0 +1,285 @@
+package com.examplex.demo.service.quota;
+
+import com.examplex.demo.config.ApiQuotaProperties;
+import com.examplex.demo.service.lane.ProcessingLane;
+import com.examplex.demo.service.partner.Partner;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contabiliza as chamadas à API iCred por parceiro e operação em janelas fixas de hora e de dia
+ * (horário local) contra os orçamentos configurados. Cada parceiro chama a iCred com as próprias
+ * credenciais, então cada um tem o seu orçamento e o volume de um não adia o lote dos demais.
+ *
+ * As chamadas são sempre contadas e nunca bloqueadas aqui: o orçamento só é aplicado ao trabalho em lote
+ * (filas em api-quota.bulk.lanes, por padrão CREATE), que é adiado fora das janelas fora de pico ou quando
+ * o parceiro já consumiu bulk.share de algum orçamento. As operações urgentes (BLOCK etc.) continuam sendo
+ * processadas e usam a reserva restante.
+ *
+ * A contagem é por instância, em memória: com api-quota.instances = N, cada instância aplica 1/N de cada
+ * orçamento, para que a soma das réplicas respeite o orçamento configurado.
+ */
+@Component
+@Slf4j
+public class ApiQuotaAccountant {
+
+    private record UsageKey(String partner, String operation) {
+    }
+
+    private final ApiQuotaProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Set<ProcessingLane> bulkLanes = EnumSet.noneOf(ProcessingLane.class);
+    private final List<LocalTime[]> bulkWindows = new ArrayList<>();
+    private final Map<UsageKey, Usage> usage = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ApiQuotaProperties.Budget>> budgetsByPartner = new ConcurrentHashMap<>();
+
+    public ApiQuotaAccountant(ApiQuotaProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        if (properties.getInstances() < 1) {
+            throw new IllegalStateException("api-quota.instances deve ser pelo menos 1");
+        }
+        for (String lane : properties.getBulk().getLanes()) {
+            bulkLanes.add(ProcessingLane.valueOf(lane.trim().toUpperCase(Locale.ROOT)));
+        }
+        for (String window : properties.getBulk().getWindows()) {
+            String[] bounds = window.trim().split("-");
+            if (bounds.length != 2) {
+                throw new IllegalStateException("Janela fora de pico inválida: " + window + " (use HH:mm-HH:mm)");
+            }
+            bulkWindows.add(new LocalTime[]{LocalTime.parse(bounds[0].trim()), LocalTime.parse(bounds[1].trim())});
+        }
+
+        log.info("Orçamento da API: {} (por parceiro; {} instância(s)); específicos: {}; lote: filas {}, janelas {}, fração {}",
+                properties.getBudgets().keySet(), properties.getInstances(), properties.getPartners().keySet(),
+                bulkLanes, properties.getBulk().getWindows(), properties.getBulk().getShare());
+    }
+
+    /**
+     * Registra uma chamada da operação feita com as credenciais do parceiro
+     */
+    public void record(Partner partner, String operation) {
+        record(partner.getId(), operation, LocalDateTime.now());
+    }
+
+    void record(String partnerId, String operation, LocalDateTime now) {
+        usage(partnerId, operation).increment(now);
+    }
+
+    public boolean isBulk(ProcessingLane lane) {
+        return lane != null && bulkLanes.contains(lane);
+    }
+
+    /**
+     * true se o trabalho em lote do parceiro pode ser iniciado agora: dentro de uma janela fora de pico
+     * (quando configuradas) e sem ter atingido a fração do lote em nenhum orçamento do parceiro
+     */
+    public boolean isBulkAllowed(Partner partner) {
+        return bulkDeferralReason(partner) == null;
+    }
+
+    /**
+     * Motivo do adiamento do lote do parceiro, ou null se permitido
+     */
+    public String bulkDeferralReason(Partner partner) {
+        return bulkDeferralReason(partner.getId(), LocalDateTime.now());
+    }
+
+    String bulkDeferralReason(String partnerId, LocalDateTime now) {
+        if (!isOffPeak(now.toLocalTime())) {
+            return "fora da janela fora de pico " + properties.getBulk().getWindows();
+        }
+        String exhausted = exhaustedBulkBudget(partnerId, now);
+        return exhausted != null ? "orçamento do lote do parceiro " + partnerId + " esgotado (" + exhausted + ")" : null;
+    }
+
+    /**
+     * Uso e saldo por parceiro, operação e janela, mais a situação do lote de cada parceiro
+     */
+    public Map<String, Object> snapshot() {
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, Map<String, Object>> operationsByPartner = new TreeMap<>();
+        usage.forEach((key, operationUsage) -> {
+            ApiQuotaProperties.Budget budget = budgetsFor(key.partner()).get(key.operation());
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("hourUsed", operationUsage.hourly(now));
+            values.put("dayUsed", operationUsage.daily(now));
+            if (budget != null) {
+                values.put("hourBudget", limit(budget.getHourly()));
+                values.put("dayBudget", limit(budget.getDaily()));
+                values.put("hourRemaining", remaining(limit(budget.getHourly()), operationUsage.hourly(now)));
+                values.put("dayRemaining", remaining(limit(budget.getDaily()), operationUsage.daily(now)));
+            }
+            operationsByPartner.computeIfAbsent(key.partner(), k -> new TreeMap<>()).put(key.operation(), values);
+        });
+
+        Map<String, Object> partners = new LinkedHashMap<>();
+        operationsByPartner.forEach((partnerId, operations) -> {
+            String deferralReason = bulkDeferralReason(partnerId, now);
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("operations", operations);
+            values.put("bulkAllowed", deferralReason == null);
+            values.put("bulkDeferralReason", deferralReason);
+            partners.put(partnerId, values);
+        });
+
+        Map<String, Object> bulk = new LinkedHashMap<>();
+        bulk.put("lanes", bulkLanes);
+        bulk.put("windows", properties.getBulk().getWindows());
+        bulk.put("share", properties.getBulk().getShare());
+        bulk.put("offPeak", isOffPeak(now.toLocalTime()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        // Contagem em memória desta instância; os orçamentos exibidos já são a fração da instância
+        result.put("scope", "instance");
+        result.put("instances", properties.getInstances());
+        result.put("partners", partners);
+        result.put("bulk", bulk);
+        return result;
+    }
+
+    private String exhaustedBulkBudget(String partnerId, LocalDateTime now) {
+        double share = properties.getBulk().getShare();
+        for (Map.Entry<String, ApiQuotaProperties.Budget> entry : budgetsFor(partnerId).entrySet()) {
+            Usage operationUsage = usage(partnerId, entry.getKey());
+            long hourly = limit(entry.getValue().getHourly());
+            long daily = limit(entry.getValue().getDaily());
+            if (hourly > 0 && operationUsage.hourly(now) >= hourly * share) {
+                return entry.getKey() + "/hora";
+            }
+            if (daily > 0 && operationUsage.daily(now) >= daily * share) {
+                return entry.getKey() + "/dia";
+            }
+        }
+        return null;
+    }
+
+    boolean isOffPeak(LocalTime now) {
+        if (bulkWindows.isEmpty()) {
+            return true;
+        }
+        for (LocalTime[] window : bulkWindows) {
+            boolean inside = window[0].isBefore(window[1])
+                    ? !now.isBefore(window[0]) && now.isBefore(window[1])
+                    : !now.isBefore(window[0]) || now.isBefore(window[1]);
+            if (inside) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orçamentos do parceiro: os padrão (api-quota.budgets) sobrepostos pelos específicos
+     * (api-quota.partners.<parceiro>.<operação>)
+     */
+    private Map<String, ApiQuotaProperties.Budget> budgetsFor(String partnerId) {
+        return budgetsByPartner.computeIfAbsent(partnerId, id -> {
+            Map<String, ApiQuotaProperties.Budget> budgets = new LinkedHashMap<>(properties.getBudgets());
+            budgets.putAll(properties.getPartners().getOrDefault(id, Map.of()));
+            return budgets;
+        });
+    }
+
+    private Usage usage(String partnerId, String operation) {
+        return usage.computeIfAbsent(new UsageKey(partnerId, operation), key -> {
+            Usage operationUsage = new Usage();
+            registerGauges(key, operationUsage);
+            return operationUsage;
+        });
+    }
+
+    private void registerGauges(UsageKey key, Usage operationUsage) {
+        ApiQuotaProperties.Budget budget = budgetsFor(key.partner()).get(key.operation());
+        if (budget == null) {
+            return;
+        }
+        if (budget.getHourly() > 0) {
+            Gauge.builder("external_api.quota.remaining", operationUsage,
+                            u -> remaining(limit(budget.getHourly()), u.hourly(LocalDateTime.now())))
+                    .tag("partner", key.partner())
+                    .tag("operation", key.operation())
+                    .tag("window", "hour")
+                    .register(meterRegistry);
+        }
+        if (budget.getDaily() > 0) {
+            Gauge.builder("external_api.quota.remaining", operationUsage,
+                            u -> remaining(limit(budget.getDaily()), u.daily(LocalDateTime.now())))
+                    .tag("partner", key.partner())
+                    .tag("operation", key.operation())
+                    .tag("window", "day")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Parcela do orçamento desta instância (0 = sem limite)
+     */
+    private long limit(long budget) {
+        if (budget <= 0) {
+            return 0;
+        }
+        return Math.max(1, (budget + properties.getInstances() - 1) / properties.getInstances());
+    }
+
+    private static long remaining(long budget, long used) {
+        return budget <= 0 ? -1 : Math.max(0, budget - used);
+    }
+
+    /**
+     * Contadores da hora e do dia correntes; zerados na virada da janela
+     */
+    private static class Usage {
+
+        private LocalDateTime hour;
+        private LocalDateTime day;
+        private long hourCount;
+        private long dayCount;
+
+        synchronized void increment(LocalDateTime now) {
+            roll(now);
+            hourCount++;
+            dayCount++;
+        }
+
+        synchronized long hourly(LocalDateTime now) {
+            roll(now);
+            return hourCount;
+        }
+
+        synchronized long daily(LocalDateTime now) {
+            roll(now);
+            return dayCount;
+        }
+
+        private void roll(LocalDateTime now) {
+            LocalDateTime currentHour = now.truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime currentDay = now.truncatedTo(ChronoUnit.DAYS);
+            if (!currentHour.equals(hour)) {
+                hour = currentHour;
+                hourCount = 0;
+            }
+            if (!currentDay.equals(day)) {
+                day = currentDay;
+                dayCount = 0;
+            }
+        }
+    }
+}
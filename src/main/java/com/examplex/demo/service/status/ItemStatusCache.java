@@ -0,0 +1,146 @@
+package com.examplex.demo.service.status;
+
+import com.examplex.demo.model.projection.LoginManagementStatusView;
+import com.examplex.demo.repository.LoginManagementHistoryRepository;
+import com.examplex.demo.repository.LoginManagementRepository;
+import com.examplex.demo.service.event.ItemStatusEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cache limitado do status dos itens, para consultas de status sem acesso ao banco.
+ *
+ * Entradas por id são carregadas do banco na primeira consulta e atualizadas (write-through) a cada
+ * mudança de status feita pelo processamento. O índice userCode/externalKey aponta para o item mais
+ * recente e expira mais cedo, pois novos itens podem ser inseridos por fora da aplicação.
+ * Ambos usam expiração por escrita e descarte por tamanho (W-TinyLFU do Caffeine).
+ *
+ * Itens que não estão mais na tabela principal são buscados no histórico (arquivamento).
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemStatusCache {
+
+    private final LoginManagementRepository repository;
+    private final LoginManagementHistoryRepository historyRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${login-management.status-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${login-management.status-cache.expire-after-write-ms:600000}")
+    private long expireAfterWriteMs;
+
+    @Value("${login-management.status-cache.key-index-expire-after-write-ms:60000}")
+    private long keyIndexExpireAfterWriteMs;
+
+    private Cache<Integer, LoginManagementStatusView> byId;
+    private Cache<String, Integer> latestIdByKey;
+
+    @PostConstruct
+    public void init() {
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+        latestIdByKey = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(keyIndexExpireAfterWriteMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "login_management.item_status");
+        CaffeineCacheMetrics.monitor(meterRegistry, latestIdByKey, "login_management.item_status_key_index");
+    }
+
+    /**
+     * Status de um item por id
+     */
+    public Optional<LoginManagementStatusView> findById(Integer id) {
+        return Optional.ofNullable(byId.get(id, key -> repository.findStatusViewById(key)
+                .or(() -> historyRepository.findStatusViewById(key))
+                .orElse(null)));
+    }
+
+    /**
+     * Status do item mais recente de um userCode
+     */
+    public Optional<LoginManagementStatusView> findLatestByUserCode(String userCode) {
+        return findLatest("u:" + userCode, () -> repository.findStatusViewsByUserCode(userCode, PageRequest.of(0, 1)),
+                () -> historyRepository.findLatestStatusViewByUserCode(userCode));
+    }
+
+    /**
+     * Status do item mais recente de um externalKey
+     */
+    public Optional<LoginManagementStatusView> findLatestByExternalKey(String externalKey) {
+        return findLatest("e:" + externalKey,
+                () -> repository.findStatusViewsByExternalKey(externalKey, PageRequest.of(0, 1)),
+                () -> historyRepository.findLatestStatusViewByExternalKey(externalKey));
+    }
+
+    private Optional<LoginManagementStatusView> findLatest(String key, Supplier<List<LoginManagementStatusView>> loader,
+                                                           Supplier<List<LoginManagementStatusView>> historyLoader) {
+        Integer id = latestIdByKey.getIfPresent(key);
+        if (id != null) {
+            LoginManagementStatusView cached = byId.getIfPresent(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+
+        List<LoginManagementStatusView> found = loader.get();
+        if (found.isEmpty()) {
+            // Sem itens na tabela principal: o mais recente pode já ter sido arquivado
+            found = historyLoader.get();
+        }
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        LoginManagementStatusView view = found.get(0);
+        byId.put(view.id(), view);
+        latestIdByKey.put(key, view.id());
+        return Optional.of(view);
+    }
+
+    /**
+     * Write-through de uma mudança de status gravada pelo processamento. Só atualiza itens já em cache.
+     */
+    public void onStatusChange(ItemStatusEvent event) {
+        byId.asMap().computeIfPresent(event.itemId(), (id, current) -> new LoginManagementStatusView(
+                id,
+                current.managementType(),
+                event.status(),
+                current.userCode(),
+                event.externalKey() != null ? event.externalKey() : current.externalKey(),
+                current.credenciadorId(),
+                event.message(),
+                event.occurredAt()));
+    }
+
+    /**
+     * Remove do índice as chaves de um item recém-enfileirado (o item mais recente passa a ser outro)
+     */
+    public void evictKeys(String userCode, String externalKey) {
+        if (userCode != null) {
+            latestIdByKey.invalidate("u:" + userCode);
+        }
+        if (externalKey != null) {
+            latestIdByKey.invalidate("e:" + externalKey);
+        }
+    }
+}
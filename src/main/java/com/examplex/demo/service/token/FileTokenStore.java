@@ -0,0 +1,146 @@
+package com.examplex.demo.service.token;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token em arquivo local (compartilhado entre reinícios e entre instâncias no mesmo host/volume).
+ *
+ * O arquivo é regravado de forma atômica (arquivo temporário + move) e, quando o sistema de arquivos
+ * permite, com permissão apenas para o dono. O lock de renovação é um lock de arquivo do sistema
+ * operacional, liberado automaticamente se o processo cair (o lease não é usado).
+ */
+@Slf4j
+public class FileTokenStore implements TokenStore {
+
+    private static final TypeReference<Map<String, StoredToken>> TOKENS_TYPE = new TypeReference<>() {
+    };
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Map<String, HeldLock> heldLocks = new ConcurrentHashMap<>();
+
+    private record HeldLock(String owner, FileChannel channel, FileLock lock) {
+    }
+
+    public FileTokenStore(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized Optional<StoredToken> load(String key) {
+        return Optional.ofNullable(readAll().get(key));
+    }
+
+    @Override
+    public synchronized void save(String key, StoredToken token) {
+        Map<String, StoredToken> tokens = readAll();
+        tokens.put(key, token);
+        writeAll(tokens);
+    }
+
+    @Override
+    public synchronized void clear(String key, String accessToken) {
+        Map<String, StoredToken> tokens = readAll();
+        StoredToken current = tokens.get(key);
+        if (current != null && current.accessToken().equals(accessToken)) {
+            tokens.remove(key);
+            writeAll(tokens);
+        }
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration lease) {
+        if (heldLocks.containsKey(key)) {
+            return false;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(lockPath(key), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock == null || heldLocks.putIfAbsent(key, new HeldLock(owner, channel, lock)) != null) {
+                closeQuietly(channel);
+                return false;
+            }
+            return true;
+        } catch (IOException | OverlappingFileLockException e) {
+            closeQuietly(channel);
+            return false;
+        }
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        HeldLock held = heldLocks.get(key);
+        if (held != null && held.owner().equals(owner) && heldLocks.remove(key, held)) {
+            try {
+                held.lock().release();
+            } catch (IOException e) {
+                log.warn("Falha ao liberar lock do token {}: {}", key, e.getMessage());
+            }
+            closeQuietly(held.channel());
+        }
+    }
+
+    private Map<String, StoredToken> readAll() {
+        if (!Files.exists(path)) {
+            return new HashMap<>();
+        }
+        try {
+            return new HashMap<>(objectMapper.readValue(path.toFile(), TOKENS_TYPE));
+        } catch (IOException e) {
+            log.warn("Arquivo de token ilegível ({}), ignorando: {}", path, e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    private void writeAll(Map<String, StoredToken> tokens) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), tokens);
+            try {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException ignored) {
+                // Sistema de arquivos sem permissões POSIX
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Falha ao gravar arquivo de token {}: {}", path, e.getMessage());
+        }
+    }
+
+    private Path lockPath(String key) {
+        return path.resolveSibling(path.getFileName() + "." + key + ".lock");
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nada a fazer
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.examplex.demo.service.token;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token apenas em memória (comportamento anterior: cada instância obtém o seu)
+ */
+public class InMemoryTokenStore implements TokenStore {
+
+    private final Map<String, StoredToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, String> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<StoredToken> load(String key) {
+        return Optional.ofNullable(tokens.get(key));
+    }
+
+    @Override
+    public void save(String key, StoredToken token) {
+        tokens.put(key, token);
+    }
+
+    @Override
+    public void clear(String key, String accessToken) {
+        tokens.computeIfPresent(key, (k, current) -> current.accessToken().equals(accessToken) ? null : current);
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration lease) {
+        return locks.putIfAbsent(key, owner) == null;
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        locks.remove(key, owner);
+    }
+}
@@ -0,0 +1,90 @@
+package com.examplex.demo.service.token;
+
+import com.examplex.demo.config.ConnectionBudget;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Token compartilhado na tabela crm_Login_Management_Token (todas as instâncias e reinícios).
+ * O lease de renovação é gravado na própria linha da credencial. Cada operação usa uma conexão do
+ * orçamento de segundo plano.
+ */
+public class JdbcTokenStore implements TokenStore {
+
+    private static final String ENSURE_ROW_SQL = "INSERT INTO crm_Login_Management_Token " +
+            "(crm_Login_Management_Token_Key, crm_Login_Management_Token_DataAlteracao) " +
+            "SELECT ?, SYSUTCDATETIME() WHERE NOT EXISTS (SELECT 1 FROM crm_Login_Management_Token WITH (UPDLOCK, HOLDLOCK) " +
+            "WHERE crm_Login_Management_Token_Key = ?)";
+
+    private static final String LOAD_SQL = "SELECT crm_Login_Management_Token_AccessToken, crm_Login_Management_Token_ExpiresAtMs " +
+            "FROM crm_Login_Management_Token WHERE crm_Login_Management_Token_Key = ? " +
+            "AND crm_Login_Management_Token_AccessToken IS NOT NULL";
+
+    private static final String SAVE_SQL = "UPDATE crm_Login_Management_Token SET crm_Login_Management_Token_AccessToken = ?, " +
+            "crm_Login_Management_Token_ExpiresAtMs = ?, crm_Login_Management_Token_DataAlteracao = SYSUTCDATETIME() " +
+            "WHERE crm_Login_Management_Token_Key = ?";
+
+    private static final String CLEAR_SQL = "UPDATE crm_Login_Management_Token SET crm_Login_Management_Token_AccessToken = NULL, " +
+            "crm_Login_Management_Token_ExpiresAtMs = NULL, crm_Login_Management_Token_DataAlteracao = SYSUTCDATETIME() " +
+            "WHERE crm_Login_Management_Token_Key = ? AND crm_Login_Management_Token_AccessToken = ?";
+
+    private static final String LOCK_SQL = "UPDATE crm_Login_Management_Token SET crm_Login_Management_Token_LockOwner = ?, " +
+            "crm_Login_Management_Token_LockUntilMs = ?, crm_Login_Management_Token_DataAlteracao = SYSUTCDATETIME() " +
+            "WHERE crm_Login_Management_Token_Key = ? AND (crm_Login_Management_Token_LockOwner IS NULL " +
+            "OR crm_Login_Management_Token_LockUntilMs < ? OR crm_Login_Management_Token_LockOwner = ?)";
+
+    private static final String UNLOCK_SQL = "UPDATE crm_Login_Management_Token SET crm_Login_Management_Token_LockOwner = NULL, " +
+            "crm_Login_Management_Token_LockUntilMs = NULL " +
+            "WHERE crm_Login_Management_Token_Key = ? AND crm_Login_Management_Token_LockOwner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConnectionBudget connectionBudget;
+
+    public JdbcTokenStore(JdbcTemplate jdbcTemplate, ConnectionBudget connectionBudget) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.connectionBudget = connectionBudget;
+    }
+
+    @Override
+    public Optional<StoredToken> load(String key) {
+        List<StoredToken> tokens = connectionBudget.withBackgroundConnection(() -> jdbcTemplate.query(LOAD_SQL,
+                (rs, rowNum) -> new StoredToken(rs.getString(1), rs.getLong(2)), key));
+        return tokens.stream().findFirst();
+    }
+
+    @Override
+    public void save(String key, StoredToken token) {
+        connectionBudget.runWithBackgroundConnection(() -> {
+            if (jdbcTemplate.update(SAVE_SQL, token.accessToken(), token.expiresAtMs(), key) == 0) {
+                ensureRow(key);
+                jdbcTemplate.update(SAVE_SQL, token.accessToken(), token.expiresAtMs(), key);
+            }
+        });
+    }
+
+    @Override
+    public void clear(String key, String accessToken) {
+        connectionBudget.runWithBackgroundConnection(() -> jdbcTemplate.update(CLEAR_SQL, key, accessToken));
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration lease) {
+        return connectionBudget.withBackgroundConnection(() -> {
+            ensureRow(key);
+            long now = System.currentTimeMillis();
+            return jdbcTemplate.update(LOCK_SQL, owner, now + lease.toMillis(), key, now, owner) == 1;
+        });
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        connectionBudget.runWithBackgroundConnection(() -> jdbcTemplate.update(UNLOCK_SQL, key, owner));
+    }
+
+    private void ensureRow(String key) {
+        jdbcTemplate.update(ENSURE_ROW_SQL, key, key);
+    }
+}
@@ -0,0 +1,14 @@
+package com.examplex.demo.service.token;
+
+/**
+ * Token de acesso e o instante de expiração (epoch ms)
+ */
+public record StoredToken(String accessToken, long expiresAtMs) {
+
+    /**
+     * Válido se ainda restar pelo menos a margem informada antes da expiração
+     */
+    public boolean isValid(long marginMs) {
+        return accessToken != null && System.currentTimeMillis() < expiresAtMs - marginMs;
+    }
+}
@@ -0,0 +1,29 @@
+package com.examplex.demo.service.token;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Armazenamento compartilhado do token de acesso, por credencial (key).
+ *
+ * O lock de renovação é um lease: quem o obtém renova o token e grava no store; as demais instâncias
+ * aguardam o token gravado. Se o dono cair sem liberar, o lease expira e outra instância assume.
+ */
+public interface TokenStore {
+
+    Optional<StoredToken> load(String key);
+
+    void save(String key, StoredToken token);
+
+    /**
+     * Remove o token apenas se ainda for o informado (não descarta um token já renovado por outra instância)
+     */
+    void clear(String key, String accessToken);
+
+    /**
+     * Tenta obter o lease de renovação; retorna false se outra instância o detém
+     */
+    boolean tryLock(String key, String owner, Duration lease);
+
+    void unlock(String key, String owner);
+}
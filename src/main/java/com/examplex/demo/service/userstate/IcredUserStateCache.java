@@ -0,0 +1,106 @@
+package com.examplex.demo.service.userstate;
+
+import com.examplex.demo.model.dto.ApiResponseDto;
+import com.examplex.demo.service.partner.Partner;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Último estado conhecido de cada usuário no iCred (por parceiro e externalKey), alimentado pelas
+ * nossas próprias chamadas com sucesso e pelas respostas 422 que informam que o usuário já está no estado
+ * pedido (ALREADY_ACTIVE / ALREADY_BLOCKED).
+ *
+ * O estado é apenas informativo: BLOCK e UNBLOCK sempre chamam a API, pois o cache é por instância e
+ * não vê alterações feitas por outra réplica ou por fora da aplicação. O 422 de usuário já no estado
+ * pedido conclui o item como sucesso, sem nova tentativa. O estado expira após expire-after-write-ms.
+ */
+@Component
+@RequiredArgsConstructor
+public class IcredUserStateCache {
+
+    public enum UserState { ACTIVE, BLOCKED }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${icred-user-state.enabled:true}")
+    private boolean enabled;
+
+    @Value("${icred-user-state.max-size:50000}")
+    private long maxSize;
+
+    @Value("${icred-user-state.expire-after-write-ms:3600000}")
+    private long expireAfterWriteMs;
+
+    private Cache<String, UserState> states;
+
+    @PostConstruct
+    public void init() {
+        states = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, states, "icred_user_state");
+    }
+
+    public void record(Partner partner, String externalKey, UserState state) {
+        if (enabled && externalKey != null) {
+            states.put(key(partner, externalKey), state);
+        }
+    }
+
+    /**
+     * Registra o estado informado por uma resposta 422 (usuário já no estado pedido).
+     * Retorna o estado ou null se a resposta não for desse tipo.
+     */
+    public UserState recordAlreadyInState(Partner partner, String externalKey, ApiResponseDto response) {
+        UserState state = alreadyInState(response);
+        if (state != null) {
+            record(partner, externalKey, state);
+        }
+        return state;
+    }
+
+    /**
+     * Estado informado por uma resposta 422 ALREADY_ACTIVE / ALREADY_BLOCKED, ou null
+     */
+    public static UserState alreadyInState(ApiResponseDto response) {
+        if (response == null || response.isSuccess()) {
+            return null;
+        }
+        String detail = (response.getErrorBody() != null ? response.getErrorBody() : "")
+                + " " + (response.getMessage() != null ? response.getMessage() : "");
+        boolean unprocessable = Integer.valueOf(422).equals(response.getHttpStatus()) || detail.contains("422");
+        if (!unprocessable) {
+            return null;
+        }
+        if (detail.contains("ALREADY_ACTIVE")) {
+            return UserState.ACTIVE;
+        }
+        if (detail.contains("ALREADY_BLOCKED")) {
+            return UserState.BLOCKED;
+        }
+        return null;
+    }
+
+    /**
+     * Descarta o estado conhecido (falha sem confirmação do estado atual do usuário)
+     */
+    public void invalidate(Partner partner, String externalKey) {
+        if (externalKey != null) {
+            states.invalidate(key(partner, externalKey));
+        }
+    }
+
+    private static String key(Partner partner, String externalKey) {
+        return partner.getId() + "|" + externalKey;
+    }
+}
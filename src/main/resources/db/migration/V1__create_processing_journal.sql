@@ -0,0 +1,17 @@
+-- Journal de processamento: uma linha por chamada à API iCred durante o processamento de um item
+CREATE TABLE crm_Login_Management_Journal (
+    crm_Login_Management_Journal_Id BIGINT IDENTITY(1,1) NOT NULL
+        CONSTRAINT PK_crm_Login_Management_Journal PRIMARY KEY,
+    crm_Login_Management_Id INT NOT NULL,
+    crm_Login_Management_Journal_Step VARCHAR(50) NOT NULL,
+    crm_Login_Management_Journal_Success BIT NOT NULL,
+    crm_Login_Management_Journal_HttpStatus INT NULL,
+    crm_Login_Management_Journal_LatencyMs BIGINT NULL,
+    crm_Login_Management_Journal_Attempt INT NOT NULL,
+    crm_Login_Management_Journal_Message NVARCHAR(1000) NULL,
+    crm_Login_Management_Journal_ErrorBody NVARCHAR(MAX) NULL,
+    crm_Login_Management_Journal_DataRegistro DATETIME2 NOT NULL
+);
+
+CREATE INDEX IX_crm_Login_Management_Journal_Item
+    ON crm_Login_Management_Journal (crm_Login_Management_Id, crm_Login_Management_Journal_DataRegistro);
@@ -0,0 +1,11 @@
+-- Token OAuth compartilhado entre instâncias e reinícios (uma linha por credencial)
+-- Lock_Owner/Lock_Until: lease de renovação, para que apenas uma instância renove o token
+CREATE TABLE crm_Login_Management_Token (
+    crm_Login_Management_Token_Key VARCHAR(100) NOT NULL
+        CONSTRAINT PK_crm_Login_Management_Token PRIMARY KEY,
+    crm_Login_Management_Token_AccessToken NVARCHAR(MAX) NULL,
+    crm_Login_Management_Token_ExpiresAtMs BIGINT NULL,
+    crm_Login_Management_Token_LockOwner VARCHAR(200) NULL,
+    crm_Login_Management_Token_LockUntilMs BIGINT NULL,
+    crm_Login_Management_Token_DataAlteracao DATETIME2 NOT NULL
+);
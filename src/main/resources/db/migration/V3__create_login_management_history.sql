@@ -0,0 +1,28 @@
+-- Histórico de crm_Login_Management: itens concluídos (SUCCESS = -4107) movidos pelo arquivamento
+-- Mesmas colunas da tabela principal (o Id é preservado), mais a data do arquivamento
+CREATE TABLE crm_Login_Management_History (
+    crm_Login_Management_Id INT NOT NULL
+        CONSTRAINT PK_crm_Login_Management_History PRIMARY KEY,
+    crm_Login_Id INT NOT NULL,
+    crm_Login_Management_User_Code NVARCHAR(255) NOT NULL,
+    crm_Login_Management_External_Key NVARCHAR(255) NULL,
+    crm_Ferramenta_Id INT NULL,
+    crm_Credenciador_Id INT NULL,
+    gpa_DropDown_LoginManagementType INT NOT NULL,
+    gpa_DropDown_ManagementLoginStatus INT NOT NULL,
+    crm_Login_Management_IdUsuarioCriacao INT NULL,
+    crm_Login_Management_DataCriacao DATETIME2 NULL,
+    crm_Login_Management_IdUsuarioAlteracao INT NULL,
+    crm_Login_Management_DataAlteracao DATETIME2 NULL,
+    crm_Login_Management_RegistroExcluido BIT NULL,
+    log_Alteracao_Rastro NVARCHAR(MAX) NULL,
+    log_OrigemRastro_Id INT NULL,
+    crm_Login_Management_DadosComplementares NVARCHAR(MAX) NULL,
+    crm_Login_Management_DataArquivamento DATETIME2 NOT NULL
+);
+
+CREATE INDEX IX_crm_Login_Management_History_UserCode
+    ON crm_Login_Management_History (crm_Login_Management_User_Code, crm_Login_Management_Id);
+
+CREATE INDEX IX_crm_Login_Management_History_ExternalKey
+    ON crm_Login_Management_History (crm_Login_Management_External_Key, crm_Login_Management_Id);
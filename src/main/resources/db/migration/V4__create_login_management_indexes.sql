@@ -0,0 +1,37 @@
+-- Índices de crm_Login_Management (tabela existente, não criada pelo Flyway: cada índice só é criado se ainda não existir)
+
+-- A tabela já existe e está em uso: os índices só são criados online (Enterprise, Azure SQL), sem bloquear a
+-- fila durante a migration. Nas demais edições a criação fica para a janela de manutenção (mesmos comandos,
+-- sem ONLINE) e a ausência é apontada pelo LoginManagementIndexCheck.
+DECLARE @online BIT = CASE WHEN CAST(SERVERPROPERTY('EngineEdition') AS INT) IN (3, 5, 8) THEN 1 ELSE 0 END;
+
+IF @online = 0
+    PRINT 'Índices de crm_Login_Management não criados: edição sem criação de índice online';
+
+-- Fila de processamento: filtrado pelo predicado das consultas de pendentes (Fila = -4106, Erro = -4108)
+-- e cobrindo as colunas curtas do LoginManagementWorkItem. DadosComplementares (NVARCHAR(MAX)) fica fora
+-- do INCLUDE: copiá-lo duplicaria o JSON de cada item pendente no índice; é lido por lookup apenas nas
+-- linhas do lote.
+IF @online = 1 AND NOT EXISTS (SELECT 1 FROM sys.indexes
+               WHERE name = 'IX_crm_Login_Management_Pending' AND object_id = OBJECT_ID('crm_Login_Management'))
+    CREATE INDEX IX_crm_Login_Management_Pending
+        ON crm_Login_Management (gpa_DropDown_LoginManagementType, crm_Login_Management_Id)
+        INCLUDE (gpa_DropDown_ManagementLoginStatus, crm_Login_Management_User_Code,
+                 crm_Login_Management_External_Key, crm_Credenciador_Id,
+                 crm_Login_Management_DataAlteracao, crm_Login_Management_DataCriacao)
+        WHERE gpa_DropDown_ManagementLoginStatus IN (-4106, -4108) AND crm_Login_Management_RegistroExcluido = 0
+        WITH (ONLINE = ON);
+
+-- Consulta de status por userCode (item mais recente primeiro)
+IF @online = 1 AND NOT EXISTS (SELECT 1 FROM sys.indexes
+               WHERE name = 'IX_crm_Login_Management_UserCode' AND object_id = OBJECT_ID('crm_Login_Management'))
+    CREATE INDEX IX_crm_Login_Management_UserCode
+        ON crm_Login_Management (crm_Login_Management_User_Code, crm_Login_Management_Id DESC)
+        WITH (ONLINE = ON);
+
+-- Consulta de status por externalKey (item mais recente primeiro)
+IF @online = 1 AND NOT EXISTS (SELECT 1 FROM sys.indexes
+               WHERE name = 'IX_crm_Login_Management_ExternalKey' AND object_id = OBJECT_ID('crm_Login_Management'))
+    CREATE INDEX IX_crm_Login_Management_ExternalKey
+        ON crm_Login_Management (crm_Login_Management_External_Key, crm_Login_Management_Id DESC)
+        WITH (ONLINE = ON);
@@ -0,0 +1,8 @@
+-- Busca paginada por keyset (GET /requests): filtro por status seguido do Id decrescente,
+-- para que cada página seja uma leitura de intervalo a partir do cursor
+IF NOT EXISTS (SELECT 1 FROM sys.indexes
+               WHERE name = 'IX_crm_Login_Management_Status' AND object_id = OBJECT_ID('crm_Login_Management'))
+    CREATE INDEX IX_crm_Login_Management_Status
+        ON crm_Login_Management (gpa_DropDown_ManagementLoginStatus, crm_Login_Management_Id DESC)
+        INCLUDE (gpa_DropDown_LoginManagementType, crm_Credenciador_Id, crm_Ferramenta_Id,
+                 crm_Login_Management_DataCriacao, crm_Login_Management_RegistroExcluido);
@@ -0,0 +1,184 @@
+package com.examplex.demo.service;
+
+import com.examplex.demo.service.partner.Partner;
+import com.examplex.demo.service.partner.PartnerRegistry;
+import com.examplex.demo.service.token.InMemoryTokenStore;
+import com.examplex.demo.service.token.StoredToken;
+import com.examplex.demo.service.token.TokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthTokenServiceTest {
+
+    private static final String AUTH_URL = "https://auth.exemplo/token";
+    private static final String KEY = "icred:parceiro-a";
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+    private final Partner partner = partner("parceiro-a");
+    private final PartnerRegistry partnerRegistry = mock(PartnerRegistry.class);
+
+    @BeforeEach
+    void setUp() {
+        when(partnerRegistry.defaultPartner()).thenReturn(partner);
+        doReturn(ResponseEntity.ok(Map.of("access_token", "renovado", "expires_in", 3600)))
+                .when(restTemplate).exchange(eq(AUTH_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(Map.class));
+    }
+
+    @Test
+    void reusesAValidSharedTokenWithoutAuthenticating() {
+        tokenStore.save(KEY, validToken("compartilhado"));
+
+        assertEquals("compartilhado", service(tokenStore, 1000).getValidToken(partner));
+
+        verifyAuthentications(0);
+    }
+
+    @Test
+    void renewsAnExpiringSharedTokenUnderTheLeaseAndSharesTheResult() {
+        // Dentro da margem de 30 s: tratado como expirado
+        tokenStore.save(KEY, new StoredToken("expirando", System.currentTimeMillis() + 10000));
+
+        assertEquals("renovado", service(tokenStore, 1000).getValidToken(partner));
+
+        verifyAuthentications(1);
+        assertEquals("renovado", tokenStore.load(KEY).orElseThrow().accessToken());
+        // Lease liberado após a renovação
+        assertTrue(tokenStore.tryLock(KEY, "outra-instancia", LEASE));
+    }
+
+    @Test
+    void waitsForTheRenewalOfTheLeaseHolder() {
+        tokenStore.tryLock(KEY, "outra-instancia", LEASE);
+        Thread other = new Thread(() -> {
+            sleep(100);
+            tokenStore.save(KEY, validToken("da-outra-instancia"));
+            tokenStore.unlock(KEY, "outra-instancia");
+        });
+        other.start();
+
+        assertEquals("da-outra-instancia", service(tokenStore, 5000).getValidToken(partner));
+
+        verifyAuthentications(0);
+    }
+
+    @Test
+    void renewsLocallyWhenTheLeaseHolderDoesNotFinishInTime() {
+        tokenStore.tryLock(KEY, "outra-instancia", LEASE);
+
+        long start = System.nanoTime();
+        assertEquals("renovado", service(tokenStore, 100).getValidToken(partner));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+        verifyAuthentications(1);
+        assertEquals("renovado", tokenStore.load(KEY).orElseThrow().accessToken());
+    }
+
+    @Test
+    void storeFailuresDoNotPreventAuthentication() {
+        TokenStore failing = mock(TokenStore.class);
+        RuntimeException down = new IllegalStateException("banco indisponível");
+        when(failing.load(anyString())).thenThrow(down);
+        when(failing.tryLock(anyString(), anyString(), any(Duration.class))).thenThrow(down);
+
+        assertEquals("renovado", service(failing, 1000).getValidToken(partner));
+
+        verifyAuthentications(1);
+    }
+
+    @Test
+    void cachedTokenIsReusedUntilInvalidated() {
+        AuthTokenService service = service(tokenStore, 1000);
+        service.getValidToken(partner);
+        service.getValidToken(partner);
+        verifyAuthentications(1);
+
+        service.invalidateToken(partner);
+
+        assertTrue(tokenStore.load(KEY).isEmpty());
+        service.getValidToken(partner);
+        verifyAuthentications(2);
+    }
+
+    @Test
+    void invalidationKeepsATokenAlreadyRenewedByAnotherInstance() {
+        AuthTokenService service = service(tokenStore, 1000);
+        service.getValidToken(partner);
+        tokenStore.save(KEY, validToken("renovado-por-outra"));
+
+        service.invalidateToken(partner);
+
+        assertEquals("renovado-por-outra", service.getValidToken(partner));
+        verifyAuthentications(1);
+    }
+
+    @Test
+    void eachPartnerHasItsOwnToken() {
+        tokenStore.save(KEY, validToken("token-a"));
+        AuthTokenService service = service(tokenStore, 1000);
+
+        assertEquals("token-a", service.getValidToken(partner));
+        assertEquals("renovado", service.getValidToken(partner("parceiro-b")));
+        // O parceiro padrão é usado pelas chamadas sem parceiro
+        assertEquals("token-a", service.getValidToken());
+
+        verifyAuthentications(1);
+        assertEquals("renovado", tokenStore.load("icred:parceiro-b").orElseThrow().accessToken());
+    }
+
+    private AuthTokenService service(TokenStore store, long lockWaitMs) {
+        AuthTokenService service = new AuthTokenService(restTemplate, store, partnerRegistry);
+        ReflectionTestUtils.setField(service, "authUrl", AUTH_URL);
+        ReflectionTestUtils.setField(service, "tokenKey", "icred");
+        ReflectionTestUtils.setField(service, "lockLeaseMs", LEASE.toMillis());
+        ReflectionTestUtils.setField(service, "lockWaitMs", lockWaitMs);
+        ReflectionTestUtils.setField(service, "lockPollMs", 10L);
+        return service;
+    }
+
+    private static Partner partner(String id) {
+        Partner partner = mock(Partner.class);
+        when(partner.getId()).thenReturn(id);
+        when(partner.getAuthorizationHeader()).thenReturn("Basic " + id);
+        return partner;
+    }
+
+    private void verifyAuthentications(int times) {
+        verify(restTemplate, times == 0 ? never() : times(times))
+                .exchange(eq(AUTH_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(Map.class));
+    }
+
+    private static StoredToken validToken(String accessToken) {
+        return new StoredToken(accessToken, System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
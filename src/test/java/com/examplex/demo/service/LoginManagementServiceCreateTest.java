@@ -0,0 +1,199 @@
+package com.examplex.demo.service;
+
+import com.examplex.demo.config.ConnectionBudget;
+import com.examplex.demo.model.dto.ApiResponseDto;
+import com.examplex.demo.model.projection.LoginManagementWorkItem;
+import com.examplex.demo.repository.LoginManagementGroupsRepository;
+import com.examplex.demo.repository.LoginManagementRepository;
+import com.examplex.demo.service.create.CreateFlowState;
+import com.examplex.demo.service.create.CreateStep;
+import com.examplex.demo.service.event.ItemStatusEventPublisher;
+import com.examplex.demo.service.journal.ProcessingJournalWriter;
+import com.examplex.demo.service.lane.PriorityLaneScheduler;
+import com.examplex.demo.service.latency.LatencyTracker;
+import com.examplex.demo.service.partner.Partner;
+import com.examplex.demo.service.partner.PartnerRegistry;
+import com.examplex.demo.service.quota.ApiQuotaAccountant;
+import com.examplex.demo.service.status.ItemStatusCache;
+import com.examplex.demo.service.userstate.IcredUserStateCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoginManagementServiceCreateTest {
+
+    private static final int ITEM_ID = 7;
+    private static final int STATUS_ERROR = -4108;
+    private static final String GROUP = "{\"managementGroups_uuid\":\"grupo-1\",\"managementGroups_nome\":\"Grupo A\"}";
+
+    private final LoginManagementRepository repository = mock(LoginManagementRepository.class);
+    private final ExternalApiService externalApiService = mock(ExternalApiService.class);
+    private final PartnerRegistry partnerRegistry = mock(PartnerRegistry.class);
+    private final Partner partner = mock(Partner.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private ThreadPoolTaskExecutor executor;
+    private LoginManagementService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setThreadNamePrefix("create-test-");
+        executor.initialize();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new LoginManagementService(repository, mock(LoginManagementGroupsRepository.class),
+                externalApiService, objectMapper, mock(PriorityLaneScheduler.class), executor,
+                mock(ProcessingJournalWriter.class), new ConnectionBudget(new MockEnvironment(), meterRegistry),
+                mock(LatencyTracker.class), mock(ItemStatusEventPublisher.class), mock(ItemStatusCache.class),
+                partnerRegistry, new IcredUserStateCache(meterRegistry), mock(ApiQuotaAccountant.class));
+        ReflectionTestUtils.setField(service, "blockUnblockDelayMs", 0L);
+        ReflectionTestUtils.setField(service, "createMaxRetries", 3);
+        when(partnerRegistry.forCredenciador(any())).thenReturn(partner);
+
+        when(externalApiService.createUser(partner, "u1")).thenReturn(success("user-1"));
+        when(externalApiService.blockUser(partner, "user-1")).thenReturn(success(null));
+        when(externalApiService.unblockUser(partner, "user-1")).thenReturn(success("s3nh4"));
+        when(externalApiService.addUserToGroup(partner, "grupo-1", "user-1")).thenReturn(success(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void unexpectedGroupFailureLeavesTheItemInErrorToResumeAtTheGroup() {
+        when(externalApiService.addUserToGroup(partner, "grupo-1", "user-1"))
+                .thenThrow(new IllegalStateException("conexão perdida"));
+
+        assertFalse(process(item(GROUP)));
+
+        CreateFlowState state = writtenState(STATUS_ERROR);
+        assertEquals(EnumSet.of(CreateStep.USER_CREATED, CreateStep.BLOCKED, CreateStep.ACTIVATED),
+                state.getCompleted());
+        assertFalse(state.isDone(CreateStep.GROUP_LINKED));
+        assertEquals("user-1", state.getUserUuid());
+    }
+
+    @Test
+    void completedCreateIsWrittenAsSuccessWithTheExternalKey() {
+        assertTrue(process(item(GROUP)));
+
+        ArgumentCaptor<String> dados = ArgumentCaptor.forClass(String.class);
+        verify(repository).updateStatusWithDataAndExternalKey(eq(ITEM_ID), eq(-4107), any(LocalDateTime.class),
+                anyString(), dados.capture(), eq("user-1"));
+        CreateFlowState state = CreateFlowState.from(dados.getValue(), objectMapper);
+        assertTrue(state.isDone(CreateStep.GROUP_LINKED));
+        assertTrue(state.isDone(CreateStep.ACTIVATED));
+        assertEquals("grupo-1", state.getGroupUuid());
+    }
+
+    @Test
+    void resumedCreateDoesNotActivateTheUserAgain() {
+        String resumed = "{\"managementGroups_uuid\":\"grupo-1\",\"userUuid\":\"user-1\",\"newPassword\":\"s3nh4\","
+                + "\"createSteps\":[\"USER_CREATED\",\"BLOCKED\",\"ACTIVATED\"]}";
+
+        assertTrue(process(item(resumed)));
+
+        verify(externalApiService, never()).createUser(any(Partner.class), anyString());
+        verify(externalApiService, never()).blockUser(any(Partner.class), anyString());
+        verify(externalApiService, never()).unblockUser(any(Partner.class), anyString());
+        verify(externalApiService).addUserToGroup(partner, "grupo-1", "user-1");
+        ArgumentCaptor<String> dados = ArgumentCaptor.forClass(String.class);
+        verify(repository).updateStatusWithDataAndExternalKey(eq(ITEM_ID), eq(-4107), any(LocalDateTime.class),
+                anyString(), dados.capture(), eq("user-1"));
+        assertTrue(dados.getValue().contains("\"newPassword\":\"s3nh4\""));
+    }
+
+    @Test
+    void activationIsPersistedAsSoonAsTheUserIsUnblocked() {
+        assertTrue(process(item(null)));
+
+        ArgumentCaptor<String> dados = ArgumentCaptor.forClass(String.class);
+        verify(repository, atLeastOnce()).updateProgress(eq(ITEM_ID), any(LocalDateTime.class), eq("Usuário ativado"),
+                dados.capture(), eq("user-1"));
+        assertTrue(CreateFlowState.from(dados.getValue(), objectMapper).isDone(CreateStep.ACTIVATED));
+    }
+
+    @Test
+    void failedActivationIsRetriedUpToTheLimit() {
+        when(externalApiService.unblockUser(partner, "user-1")).thenReturn(new ApiResponseDto(false, "HTTP 503", null));
+
+        assertFalse(process(item(null)));
+
+        CreateFlowState state = writtenState(STATUS_ERROR);
+        assertEquals(1, state.getFailures());
+        assertTrue(state.isDone(CreateStep.BLOCKED));
+        assertFalse(state.isDone(CreateStep.ACTIVATED));
+    }
+
+    @Test
+    void createEndsWithAWarningOnceTheRetriesAreExhausted() {
+        when(externalApiService.unblockUser(partner, "user-1")).thenReturn(new ApiResponseDto(false, "HTTP 503", null));
+        String lastAttempt = "{\"userUuid\":\"user-1\",\"createFailures\":3,"
+                + "\"createSteps\":[\"USER_CREATED\",\"BLOCKED\",\"GROUP_LINKED\"]}";
+
+        assertTrue(process(item(lastAttempt)));
+
+        ArgumentCaptor<String> dados = ArgumentCaptor.forClass(String.class);
+        verify(repository).updateStatusWithDataAndExternalKey(eq(ITEM_ID), eq(-4107), any(LocalDateTime.class),
+                eq("Criado sem ativação"), dados.capture(), eq("user-1"));
+        assertEquals(4, CreateFlowState.from(dados.getValue(), objectMapper).getFailures());
+        verify(repository, never()).updateStatusWithData(eq(ITEM_ID), eq(STATUS_ERROR), any(LocalDateTime.class),
+                anyString(), anyString());
+    }
+
+    private boolean process(LoginManagementWorkItem item) {
+        CompletableFuture<Boolean> result = ReflectionTestUtils.invokeMethod(service, "processCreateUser", item);
+        try {
+            return result.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Estado gravado junto com o status informado (updateStatusWithData)
+     */
+    private CreateFlowState writtenState(int status) {
+        ArgumentCaptor<String> dados = ArgumentCaptor.forClass(String.class);
+        verify(repository).updateStatusWithData(eq(ITEM_ID), eq(status), any(LocalDateTime.class), anyString(),
+                dados.capture());
+        return CreateFlowState.from(dados.getValue(), objectMapper);
+    }
+
+    private static LoginManagementWorkItem item(String dadosComplementares) {
+        return new LoginManagementWorkItem(ITEM_ID, 3833, "u1", null, 10, dadosComplementares,
+                LocalDateTime.now());
+    }
+
+    private static ApiResponseDto success(Object data) {
+        return new ApiResponseDto(true, "OK", data);
+    }
+}
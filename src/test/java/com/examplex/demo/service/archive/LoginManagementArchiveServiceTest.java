@@ -0,0 +1,135 @@
+package com.examplex.demo.service.archive;
+
+import com.examplex.demo.config.ConnectionBudget;
+import com.examplex.demo.repository.LoginManagementHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoginManagementArchiveServiceTest {
+
+    private final LoginManagementHistoryRepository historyRepository = mock(LoginManagementHistoryRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginManagementArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LoginManagementArchiveService(historyRepository, meterRegistry,
+                new ConnectionBudget(new MockEnvironment(), meterRegistry));
+        ReflectionTestUtils.setField(service, "retentionDays", 30);
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "pauseMs", 0L);
+        ReflectionTestUtils.setField(service, "maxDurationMs", 60000L);
+        service.init();
+    }
+
+    @Test
+    void movesFullBatchesUntilAPartialOne() {
+        when(historyRepository.moveCompleted(anyInt(), any(LocalDateTime.class))).thenReturn(10, 10, 3);
+
+        ArchiveRunResult result = service.archive();
+
+        assertEquals(23, result.rowsMoved());
+        assertEquals(3, result.batches());
+        assertEquals("concluído", result.stopReason());
+        assertNull(result.error());
+        assertEquals(result.startedAt().minusDays(30), result.cutoff());
+        assertEquals(23, meterRegistry.get("login_management.archive.rows").counter().count());
+        assertEquals(3, meterRegistry.get("login_management.archive.batch").timer().count());
+        assertSame(result, service.getLastRun());
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(historyRepository, times(3)).moveCompleted(eq(10), cutoff.capture());
+        assertTrue(cutoff.getAllValues().stream().allMatch(result.cutoff()::equals));
+    }
+
+    @Test
+    void runWithNothingToMoveStopsAfterOneBatch() {
+        ArchiveRunResult result = service.archive();
+
+        assertEquals(0, result.rowsMoved());
+        assertEquals(1, result.batches());
+        assertEquals("concluído", result.stopReason());
+    }
+
+    @Test
+    void pausesBetweenFullBatches() {
+        ReflectionTestUtils.setField(service, "pauseMs", 50L);
+        when(historyRepository.moveCompleted(anyInt(), any(LocalDateTime.class))).thenReturn(10, 10, 0);
+
+        ArchiveRunResult result = service.archive();
+
+        assertTrue(result.elapsedMs() >= 100, "execução de " + result.elapsedMs() + " ms");
+        // O tempo de banco por lote não inclui as pausas
+        assertTrue(result.batchTimeMs() < result.elapsedMs());
+    }
+
+    @Test
+    void stopsWhenTheMaximumDurationIsReached() {
+        ReflectionTestUtils.setField(service, "maxDurationMs", 0L);
+        when(historyRepository.moveCompleted(anyInt(), any(LocalDateTime.class))).thenReturn(10);
+
+        ArchiveRunResult result = service.archive();
+
+        assertEquals("duração máxima atingida", result.stopReason());
+        assertEquals(1, result.batches());
+        assertEquals(10, result.rowsMoved());
+    }
+
+    @Test
+    void errorStopsTheRunAndKeepsWhatWasAlreadyMoved() {
+        when(historyRepository.moveCompleted(anyInt(), any(LocalDateTime.class)))
+                .thenReturn(10)
+                .thenThrow(new IllegalStateException("deadlock"));
+
+        ArchiveRunResult result = service.archive();
+
+        assertEquals("erro", result.stopReason());
+        assertEquals("deadlock", result.error());
+        assertEquals(10, result.rowsMoved());
+
+        // A falha libera a próxima execução
+        when(historyRepository.moveCompleted(anyInt(), any(LocalDateTime.class))).thenReturn(0);
+        assertEquals("concluído", service.archive().stopReason());
+    }
+
+    @Test
+    void refusesARunWhileAnotherIsInProgress() throws Exception {
+        CountDownLatch moving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(historyRepository.moveCompleted(anyInt(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            moving.countDown();
+            release.await();
+            return 0;
+        });
+
+        CompletableFuture<ArchiveRunResult> first = CompletableFuture.supplyAsync(service::archive);
+        assertTrue(moving.await(5, TimeUnit.SECONDS));
+
+        assertNull(service.archive());
+
+        release.countDown();
+        assertEquals("concluído", first.get(5, TimeUnit.SECONDS).stopReason());
+    }
+}
@@ -0,0 +1,84 @@
+package com.examplex.demo.service.concurrency;
+
+import com.examplex.demo.service.concurrency.AdaptiveConcurrencyLimiter.Outcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdaptiveConcurrencyInterceptorTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = limiter();
+    private final AdaptiveConcurrencyInterceptor interceptor = new AdaptiveConcurrencyInterceptor(limiter);
+    private final HttpRequest request = mock(HttpRequest.class);
+
+    @Test
+    void requestsTakeASlotFromTheLimiter() throws Exception {
+        assertTrue(limiter.acquire());
+
+        // Única vaga ocupada: a requisição não sai
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution(HttpStatus.OK)));
+
+        limiter.release(Outcome.IGNORED, 0);
+        interceptor.intercept(request, new byte[0], execution(HttpStatus.OK));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void requestsWithTheSlotHeldSkipTheLimiter() throws Exception {
+        limiter.acquire();
+
+        ClientHttpResponse response = AdaptiveConcurrencyInterceptor.withSlotHeld(() -> {
+            try {
+                return interceptor.intercept(request, new byte[0], execution(HttpStatus.OK));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, limiter.getInFlight());
+
+        // Fora de withSlotHeld a thread volta a passar pelo limitador
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution(HttpStatus.OK)));
+    }
+
+    @Test
+    void classifiesResponsesWithoutStatusAsOverload() {
+        assertEquals(Outcome.DROPPED, AdaptiveConcurrencyInterceptor.classify((Integer) null));
+        assertEquals(Outcome.DROPPED, AdaptiveConcurrencyInterceptor.classify(429));
+        assertEquals(Outcome.DROPPED, AdaptiveConcurrencyInterceptor.classify(503));
+        assertEquals(Outcome.IGNORED, AdaptiveConcurrencyInterceptor.classify(422));
+        assertEquals(Outcome.SUCCESS, AdaptiveConcurrencyInterceptor.classify(204));
+    }
+
+    private static ClientHttpRequestExecution execution(HttpStatus status) throws IOException {
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getStatusCode()).thenReturn(status);
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any()))
+                .thenReturn(response);
+        return execution;
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter() {
+        AdaptiveConcurrencyProperties properties = new AdaptiveConcurrencyProperties();
+        properties.setEnabled(true);
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(1);
+        properties.setAcquireTimeoutMs(20);
+        return new AdaptiveConcurrencyLimiter("teste", properties);
+    }
+}
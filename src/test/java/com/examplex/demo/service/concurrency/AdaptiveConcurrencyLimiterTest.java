@@ -0,0 +1,157 @@
+package com.examplex.demo.service.concurrency;
+
+import com.examplex.demo.service.concurrency.AdaptiveConcurrencyLimiter.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void refusesAcquireBeyondTheLimitAfterTheTimeout() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10);
+
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(Outcome.IGNORED, 0);
+        assertTrue(limiter.acquire());
+    }
+
+    @Test
+    void growsAdditivelyWhileTheLimitIsInUseAndLatencyIsStable() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 32);
+
+        for (int round = 0; round < 10; round++) {
+            int before = limiter.getLimit();
+            saturate(limiter, Outcome.SUCCESS, FAST);
+
+            // Cerca de +1 a cada "limite" respostas: no máximo uma vaga a mais por rodada
+            assertTrue(limiter.getLimit() - before <= 1, "de " + before + " para " + limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() > 4, "limite " + limiter.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhenTheLimitIsUnderused() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 32);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(Outcome.SUCCESS, FAST);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void neverGrowsPastTheMaximum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 5);
+
+        for (int round = 0; round < 50; round++) {
+            saturate(limiter, Outcome.SUCCESS, FAST);
+        }
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void decreasesMultiplicativelyOnOverload() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 1, 32);
+
+        limiter.acquire();
+        limiter.release(Outcome.DROPPED, FAST);
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void neverDecreasesBelowTheMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 3, 32);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(Outcome.DROPPED, FAST);
+        }
+
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void burstOfOverloadWithinOneLatencyCountsOnce() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(16, 1, 32);
+        // Latência recente longa: as quedas seguintes ficam dentro da mesma janela
+        limiter.acquire();
+        limiter.release(Outcome.SUCCESS, TimeUnit.SECONDS.toNanos(10));
+
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+            limiter.release(Outcome.DROPPED, 0);
+        }
+
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void decreasesWhenLatencyRisesAboveTheBaseline() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 1, 32);
+        limiter.acquire();
+        limiter.release(Outcome.SUCCESS, FAST);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(Outcome.SUCCESS, SLOW);
+        }
+
+        assertTrue(limiter.getLimit() < 8, "limite " + limiter.getLimit());
+    }
+
+    @Test
+    void clientErrorsDoNotChangeTheLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 32);
+
+        for (int round = 0; round < 10; round++) {
+            saturate(limiter, Outcome.IGNORED, SLOW);
+        }
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Ocupa todas as vagas do limite atual e libera todas com o mesmo resultado
+     */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, Outcome outcome, long latencyNanos)
+            throws InterruptedException {
+        int slots = limiter.getLimit();
+        for (int i = 0; i < slots; i++) {
+            assertTrue(limiter.acquire());
+        }
+        for (int i = 0; i < slots; i++) {
+            limiter.release(outcome, latencyNanos);
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        AdaptiveConcurrencyProperties properties = new AdaptiveConcurrencyProperties();
+        properties.setEnabled(true);
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(minLimit);
+        properties.setMaxLimit(maxLimit);
+        properties.setBackoffRatio(0.5);
+        properties.setLatencyTolerance(2.0);
+        properties.setAcquireTimeoutMs(20);
+        return new AdaptiveConcurrencyLimiter("teste", properties);
+    }
+}
@@ -0,0 +1,102 @@
+package com.examplex.demo.service.create;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreateFlowStateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void startsWithoutCompletedStepsForEmptyOrInvalidData() {
+        for (String json : new String[]{null, "", "   ", "{invalido", "[1, 2]", "\"texto\""}) {
+            CreateFlowState state = CreateFlowState.from(json, objectMapper);
+
+            assertFalse(state.isResumed(), "dados: " + json);
+            assertTrue(state.getCompleted().isEmpty(), "dados: " + json);
+            assertNull(state.getUserUuid());
+        }
+    }
+
+    @Test
+    void resumesFromPersistedSteps() throws Exception {
+        CreateFlowState state = CreateFlowState.from("{\"telefonePIN\":\"11999990000\"}", objectMapper);
+        state.setUserUuid("user-1");
+        state.markDone(CreateStep.USER_CREATED);
+        state.setGroup("group-1", "Grupo A");
+        state.markDone(CreateStep.GROUP_CREATED);
+
+        CreateFlowState resumed = CreateFlowState.from(state.toJson(), objectMapper);
+
+        assertTrue(resumed.isResumed());
+        assertEquals(EnumSet.of(CreateStep.USER_CREATED, CreateStep.GROUP_CREATED), resumed.getCompleted());
+        assertTrue(resumed.isDone(CreateStep.USER_CREATED));
+        assertFalse(resumed.isDone(CreateStep.GROUP_LINKED));
+        assertEquals("user-1", resumed.getUserUuid());
+        assertEquals("group-1", resumed.getGroupUuid());
+    }
+
+    @Test
+    void preservesOriginalFields() throws Exception {
+        String original = "{\"telefonePIN\":\"11999990000\",\"managementGroups\":{\"nome\":\"Grupo A\",\"uuid\":null}}";
+        CreateFlowState state = CreateFlowState.from(original, objectMapper);
+        state.markDone(CreateStep.USER_CREATED);
+        state.setNewPassword("s3nh@");
+
+        JsonNode json = objectMapper.readTree(state.toJson());
+
+        assertEquals("11999990000", json.get("telefonePIN").asText());
+        assertEquals("Grupo A", json.get("managementGroups").get("nome").asText());
+        assertEquals("s3nh@", json.get("newPassword").asText());
+        assertEquals("USER_CREATED", json.get("createSteps").get(0).asText());
+    }
+
+    @Test
+    void writesStepsInFlowOrderWithoutDuplicates() throws Exception {
+        CreateFlowState state = CreateFlowState.from(null, objectMapper);
+        state.markDone(CreateStep.ACTIVATED);
+        state.markDone(CreateStep.USER_CREATED);
+        state.markDone(CreateStep.USER_CREATED);
+
+        JsonNode steps = objectMapper.readTree(state.toJson()).get("createSteps");
+
+        assertEquals(2, steps.size());
+        assertEquals("USER_CREATED", steps.get(0).asText());
+        assertEquals("ACTIVATED", steps.get(1).asText());
+    }
+
+    @Test
+    void ignoresUnknownSteps() {
+        CreateFlowState state = CreateFlowState.from("{\"createSteps\":[\"USER_CREATED\",\"REMOVIDO\"]}", objectMapper);
+
+        assertEquals(EnumSet.of(CreateStep.USER_CREATED), state.getCompleted());
+    }
+
+    @Test
+    void countsFailuresAcrossAttempts() {
+        CreateFlowState state = CreateFlowState.from("{\"createFailures\":\"x\"}", objectMapper);
+        assertEquals(0, state.getFailures());
+
+        assertEquals(1, state.recordFailure());
+        CreateFlowState resumed = CreateFlowState.from(state.toJson(), objectMapper);
+
+        assertEquals(1, resumed.getFailures());
+        assertEquals(2, resumed.recordFailure());
+    }
+
+    @Test
+    void treatsNullIdentifiersAsMissing() {
+        CreateFlowState state = CreateFlowState.from("{\"userUuid\":null,\"groupUuid\":null}", objectMapper);
+
+        assertNull(state.getUserUuid());
+        assertNull(state.getGroupUuid());
+    }
+}
@@ -0,0 +1,280 @@
+package com.examplex.demo.service.enqueue;
+
+import com.examplex.demo.config.ConnectionBudget;
+import com.examplex.demo.model.dto.EnqueueResultDto;
+import com.examplex.demo.service.status.ItemStatusCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoginManagementEnqueueServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemStatusCache statusCache = mock(ItemStatusCache.class);
+
+    // Linhas já pendentes no banco: tipo, userCode, externalKey
+    private final List<Object[]> pending = new ArrayList<>();
+    // Cópia de cada lote gravado (a lista do serviço é reaproveitada)
+    private final List<List<Object[]>> batches = new ArrayList<>();
+
+    private LoginManagementEnqueueService service;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : pending) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getInt(1)).thenReturn((Integer) row[0]);
+                when(rs.getString(2)).thenReturn((String) row[1]);
+                when(rs.getString(3)).thenReturn((String) row[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        doAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batches.add(new ArrayList<>(rows));
+            return new int[rows.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList(), any(int[].class));
+
+        service = new LoginManagementEnqueueService(jdbcTemplate, objectMapper, meterRegistry, statusCache,
+                new ConnectionBudget(new MockEnvironment(), meterRegistry));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "maxItems", 100);
+    }
+
+    @Test
+    void insertsValidItemsInBatches() {
+        EnqueueResultDto result = service.enqueueJson(payload("""
+                [
+                  {"managementType": "-4104", "crmLoginId": 1, "userCode": " u1 ", "externalKey": "e1"},
+                  {"managementType": "reset", "crmLoginId": 2, "userCode": "u2", "externalKey": "e2"},
+                  {"managementType": "CREATE", "crmLoginId": 3, "userCode": "u3", "credenciadorId": 7,
+                   "dadosComplementares": {"telefonePIN": "11999990000"}}
+                ]
+                """));
+
+        assertNull(result.getError());
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getInserted());
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+
+        Object[] block = batches.get(0).get(0);
+        assertEquals("u1", block[1]);
+        assertEquals(-4104, block[5]);
+        assertEquals(-4106, block[6]);
+
+        Object[] create = batches.get(1).get(0);
+        assertNull(create[2]);
+        assertEquals(7, create[4]);
+        assertEquals(3833, create[5]);
+        assertEquals("{\"telefonePIN\":\"11999990000\"}", create[10]);
+        assertEquals(3, meterRegistry.get("login_management.enqueue.items").tag("outcome", "inserted")
+                .counter().count());
+    }
+
+    @Test
+    void rejectsInvalidItemsWithTheirPosition() {
+        EnqueueResultDto result = service.enqueueJson(payload("""
+                [
+                  {"managementType": "9999", "crmLoginId": 1, "userCode": "u1", "externalKey": "e1"},
+                  {"managementType": "BLOCK", "userCode": "u2", "externalKey": "e2"},
+                  {"managementType": "UNBLOCK", "crmLoginId": 3, "userCode": "u3"},
+                  {"managementType": "CREATE", "crmLoginId": 4, "userCode": " "},
+                  {"managementType": "CREATE", "crmLoginId": 5, "userCode": "u5", "dadosComplementares": [1]}
+                ]
+                """));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(5, result.getRejected());
+        assertEquals(0, result.getInserted());
+        assertTrue(result.getRejections().get(0).startsWith("Item 1: managementType inválido"));
+        assertEquals("Item 2: crmLoginId é obrigatório", result.getRejections().get(1));
+        assertEquals("Item 3: externalKey é obrigatório para UNBLOCK", result.getRejections().get(2));
+        assertEquals("Item 4: userCode é obrigatório", result.getRejections().get(3));
+        assertEquals("Item 5: dadosComplementares deve ser um objeto JSON", result.getRejections().get(4));
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void keepsReadingPastElementsThatAreNotObjects() {
+        EnqueueResultDto result = service.enqueueJson(payload("""
+                [1, {"managementType": "BLOCK", "crmLoginId": 1, "userCode": "u1", "externalKey": "e1"},
+                 null, [2, {"userCode": "x"}], "texto",
+                 {"managementType": "BLOCK", "crmLoginId": 2, "userCode": "u2", "externalKey": "e2"}]
+                """));
+
+        assertNull(result.getError());
+        assertEquals(6, result.getReceived());
+        assertEquals(4, result.getRejected());
+        assertEquals(2, result.getInserted());
+        assertEquals("Item 4: elemento não é um objeto JSON (START_ARRAY)", result.getRejections().get(2));
+    }
+
+    @Test
+    void skipsItemsAlreadyPendingOrRepeatedInThePayload() {
+        pending.add(new Object[]{-4104, "U1", "E1"});
+
+        EnqueueResultDto result = service.enqueueJson(payload("""
+                [
+                  {"managementType": "BLOCK", "crmLoginId": 1, "userCode": " u1", "externalKey": "e1 "},
+                  {"managementType": "UNBLOCK", "crmLoginId": 1, "userCode": "u1", "externalKey": "e1"},
+                  {"managementType": "UNBLOCK", "crmLoginId": 1, "userCode": "u1", "externalKey": "e1"}
+                ]
+                """));
+
+        assertEquals(2, result.getDuplicates());
+        assertEquals(1, result.getInserted());
+        assertEquals(-4105, batches.get(0).get(0)[5]);
+        // O item gravado passa a ser o mais recente das suas chaves
+        verify(statusCache).evictKeys("u1", "e1");
+    }
+
+    @Test
+    void createDedupIgnoresTheExternalKey() {
+        // CREATE em andamento já tem o userUuid da iCred gravado no externalKey
+        pending.add(new Object[]{3833, "u1", "uuid-gerado"});
+
+        EnqueueResultDto result = service.enqueueJson(payload("""
+                [
+                  {"managementType": "CREATE", "crmLoginId": 1, "userCode": "u1"},
+                  {"managementType": "CREATE", "crmLoginId": 2, "userCode": "u2", "externalKey": "a"},
+                  {"managementType": "CREATE", "crmLoginId": 2, "userCode": "u2", "externalKey": "b"}
+                ]
+                """));
+
+        assertEquals(2, result.getDuplicates());
+        assertEquals(1, result.getInserted());
+    }
+
+    @Test
+    void stopsAtTheItemLimit() {
+        ReflectionTestUtils.setField(service, "maxItems", 2);
+
+        EnqueueResultDto result = service.enqueueJson(payload("""
+                [
+                  {"managementType": "BLOCK", "crmLoginId": 1, "userCode": "u1", "externalKey": "e1"},
+                  {"managementType": "BLOCK", "crmLoginId": 2, "userCode": "u2", "externalKey": "e2"},
+                  {"managementType": "BLOCK", "crmLoginId": 3, "userCode": "u3", "externalKey": "e3"}
+                ]
+                """));
+
+        assertEquals("Limite de 2 itens por carga atingido", result.getError());
+        assertEquals(2, result.getReceived());
+        assertEquals(2, result.getInserted());
+    }
+
+    @Test
+    void rejectsPayloadsThatAreNotArrays() {
+        EnqueueResultDto result = service.enqueueJson(payload("{\"managementType\": \"BLOCK\"}"));
+
+        assertEquals("O payload deve ser um array JSON", result.getError());
+        assertEquals(0, result.getReceived());
+        assertTrue(batches.isEmpty());
+        // Cargas recusadas também entram nas métricas
+        assertEquals(0, meterRegistry.get("login_management.enqueue.items").tag("outcome", "inserted")
+                .counter().count());
+    }
+
+    @Test
+    void unreadablePayloadDoesNotInsertThePartialBatch() {
+        EnqueueResultDto result = service.enqueueJson(payload("""
+                [
+                  {"managementType": "BLOCK", "crmLoginId": 1, "userCode": "u1", "externalKey": "e1"},
+                  {"managementType": "BLOCK", "crmLoginId": 2, "userCode": "u2", "externalKey": "e2"},
+                  {"managementType": "BLOCK", "crmLoginId": 3, "userCode": "u3", "externalKey": "e3"},
+                  {"managementType": "BLOCK", "crmLoginId": 4,
+                """));
+
+        assertTrue(result.getError().startsWith("JSON"), result.getError());
+        assertFalse(result.isDatabaseError());
+        // O primeiro lote completo foi gravado; o terceiro item ficou no lote incompleto
+        assertEquals(1, batches.size());
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getDiscarded());
+        assertEquals(1, meterRegistry.get("login_management.enqueue.items").tag("outcome", "discarded")
+                .counter().count());
+    }
+
+    @Test
+    void databaseFailureKeepsTheCountsOfTheBatchesAlreadyInserted() {
+        doAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batches.add(new ArrayList<>(rows));
+            return new int[rows.size()];
+        }).doThrow(new QueryTimeoutException("timeout no lote"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList(), any(int[].class));
+
+        EnqueueResultDto result = service.enqueueJson(payload("""
+                [
+                  {"managementType": "BLOCK", "crmLoginId": 1, "userCode": "u1", "externalKey": "e1"},
+                  {"managementType": "BLOCK", "crmLoginId": 2, "userCode": "u2", "externalKey": "e2"},
+                  {"managementType": "BLOCK", "crmLoginId": 3, "userCode": "u3", "externalKey": "e3"},
+                  {"managementType": "BLOCK", "crmLoginId": 4, "userCode": "u4", "externalKey": "e4"},
+                  {"managementType": "BLOCK", "crmLoginId": 5, "userCode": "u5", "externalKey": "e5"}
+                ]
+                """));
+
+        assertTrue(result.isDatabaseError());
+        assertEquals("Falha ao gravar lote no banco após 2 itens inseridos: timeout no lote", result.getError());
+        // A carga para no lote que falhou: o quinto item não chega a ser lido
+        assertEquals(4, result.getReceived());
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getDiscarded());
+        assertEquals(2, meterRegistry.get("login_management.enqueue.items").tag("outcome", "inserted")
+                .counter().count());
+    }
+
+    @Test
+    void readsCsvWithSemicolonsQuotesAndGroupColumns() throws Exception {
+        EnqueueResultDto result = service.enqueueCsv(payload("""
+                \uFEFFmanagementType;crmLoginId;userCode;externalKey;telefonePIN;managementGroups_nome
+
+                CREATE;1;u1;;11999990000;"Grupo ""A"";B"
+                BLOCK;2;u2;e2;;
+                """));
+
+        assertNull(result.getError());
+        assertEquals(2, result.getReceived());
+        assertEquals(2, result.getInserted());
+
+        JsonNode dados = objectMapper.readTree((String) batches.get(0).get(0)[10]);
+        assertEquals("11999990000", dados.get("telefonePIN").asText());
+        assertEquals("Grupo \"A\";B", dados.get("managementGroups_nome").asText());
+        assertNull(batches.get(0).get(1)[10]);
+    }
+
+    private static InputStream payload(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,66 @@
+package com.examplex.demo.service.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ItemStatusEventPublisherTest {
+
+    private static final String DADOS = "{\"newPassword\":\"s3nh4\"}";
+
+    private ItemStatusEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new ItemStatusEventPublisher(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(publisher, "heartbeatIntervalMs", 60000L);
+    }
+
+    @Test
+    void itemStreamReceivesTheDadosComplementares() {
+        StepVerifier.create(publisher.stream(1, null))
+                .then(() -> {
+                    publisher.publish(event(2));
+                    publisher.publish(event(1));
+                })
+                .assertNext(sse -> {
+                    assertEquals(1, sse.data().itemId());
+                    assertEquals(DADOS, sse.data().dadosComplementares());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void unfilteredStreamsDoNotReceiveTheDadosComplementares() {
+        StepVerifier.create(publisher.stream(null, null))
+                .then(() -> publisher.publish(event(1)))
+                .assertNext(sse -> {
+                    assertEquals(1, sse.data().itemId());
+                    assertEquals("SUCCESS", sse.data().statusDescription());
+                    assertNull(sse.data().dadosComplementares());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        // Nem com o filtro só por credenciador
+        StepVerifier.create(publisher.stream(null, 10))
+                .then(() -> publisher.publish(event(1)))
+                .assertNext(sse -> assertNull(sse.data().dadosComplementares()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static ItemStatusEvent event(int itemId) {
+        return new ItemStatusEvent(itemId, 10, -4103, "u1", "e1", -4107, "SUCCESS", "Reset OK", DADOS,
+                LocalDateTime.now());
+    }
+}
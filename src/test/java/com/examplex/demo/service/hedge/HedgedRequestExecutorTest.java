@@ -0,0 +1,234 @@
+package com.examplex.demo.service.hedge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedRequestExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    // A próxima requisição demora SLOW_MS; as demais respondem na hora
+    private final AtomicBoolean slowNext = new AtomicBoolean();
+
+    private static final long SLOW_MS = 1000;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setThreadNamePrefix("hedge-test-");
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void disabledRunsTheRequestOnTheCallerThread() {
+        HedgedRequestExecutor hedging = hedging(properties(false, 10, 10, 1000, 1, 1));
+
+        Thread caller = Thread.currentThread();
+        Thread[] ranOn = new Thread[1];
+        String result = execute(hedging, () -> {
+            ranOn[0] = Thread.currentThread();
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertSame(caller, ranOn[0]);
+    }
+
+    @Test
+    void fastResponsesAreNotHedged() {
+        HedgedRequestExecutor hedging = hedging(properties(true, 10, 200, 1000, 1, 1));
+
+        for (int i = 1; i <= 5; i++) {
+            assertEquals("resposta " + i, execute(hedging, this::request));
+        }
+
+        assertEquals(5, calls.get());
+        assertEquals(0, count("fired"));
+    }
+
+    @Test
+    void slowResponseIsHedgedAndTheFasterSuccessWins() {
+        HedgedRequestExecutor hedging = hedging(properties(true, 10, 50, 1000, 1, 1));
+        slowNext.set(true);
+
+        long start = System.nanoTime();
+        String result = execute(hedging, this::request);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("resposta 2", result);
+        assertTrue(elapsedMs >= 45 && elapsedMs < SLOW_MS / 2, "resposta em " + elapsedMs + " ms");
+        assertEquals(1, count("fired"));
+        // "won" é contado na thread do reforço, logo após entregar a resposta
+        assertTrue(awaitCount("won", 1));
+    }
+
+    @Test
+    void whenBothRequestsFailTheLastResponseIsReturned() {
+        HedgedRequestExecutor hedging = hedging(properties(true, 10, 50, 1000, 1, 1));
+        slowNext.set(true);
+
+        String result = hedging.execute(this::request, response -> false, e -> "erro");
+
+        // O reforço falha primeiro; vale a resposta da original, a última a chegar
+        assertEquals("resposta 1", result);
+        assertEquals(1, count("fired"));
+        assertEquals(0, count("won"));
+    }
+
+    @Test
+    void requestExceptionsAreConvertedByOnError() {
+        HedgedRequestExecutor hedging = hedging(properties(true, 10, 200, 1000, 1, 1));
+
+        String result = hedging.execute(() -> {
+            throw new IllegalStateException("conexão recusada");
+        }, response -> true, e -> "falha: " + e.getMessage());
+
+        assertEquals("falha: conexão recusada", result);
+    }
+
+    @Test
+    void hedgesAreLimitedByTheTokenBudget() {
+        // Um token inicial; cada chamada acumula 0,5 token, até no máximo 1
+        HedgedRequestExecutor hedging = hedging(properties(true, 10, 50, 1000, 0.5, 1));
+
+        slowNext.set(true);
+        execute(hedging, this::request);
+        assertEquals(1, count("fired"));
+
+        // 0,5 token: a chamada lenta apenas aguarda a original
+        slowNext.set(true);
+        long start = System.nanoTime();
+        execute(hedging, this::request);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= SLOW_MS - 50);
+        assertEquals(1, count("budget_exhausted"));
+
+        // A chamada rápida completa o token da próxima lenta
+        execute(hedging, this::request);
+        slowNext.set(true);
+        execute(hedging, this::request);
+        assertEquals(2, count("fired"));
+    }
+
+    @Test
+    void hedgeIsNotSentWhenNotAdmittedAndTheTokenIsKept() {
+        HedgedRequestExecutor hedging = hedging(properties(true, 10, 50, 1000, 0, 1));
+        AtomicBoolean admit = new AtomicBoolean(false);
+
+        slowNext.set(true);
+        String result = hedging.execute(this::request, admit::get, response -> true, e -> "erro");
+
+        assertEquals("resposta 1", result);
+        assertEquals(1, calls.get());
+        assertEquals(1, count("not_admitted"));
+        assertEquals(0, count("fired"));
+
+        // O token não foi gasto: com admissão, o próximo reforço sai
+        admit.set(true);
+        slowNext.set(true);
+        assertEquals("resposta 3", hedging.execute(this::request, admit::get, response -> true, e -> "erro"));
+        assertEquals(1, count("fired"));
+    }
+
+    @Test
+    void metricsAreTaggedWithThePartner() {
+        HedgedRequestExecutor hedging = hedging(properties(true, 10, 50, 1000, 1, 1));
+        slowNext.set(true);
+
+        execute(hedging, this::request);
+
+        assertEquals(1, meterRegistry.get("external_api.hedge").tag("partner", "parceiro-a")
+                .tag("outcome", "fired").counter().count());
+        assertTrue(meterRegistry.get("external_api.hedge.latency").tag("partner", "parceiro-a")
+                .timer().count() >= 1);
+    }
+
+    @Test
+    void usesTheInitialDelayUntilThereAreEnoughSamples() {
+        HedgedRequestExecutor hedging = hedging(properties(true, 10, 5000, 5, 1, 1));
+        slowNext.set(true);
+
+        execute(hedging, this::request);
+
+        assertEquals(0, count("fired"));
+    }
+
+    @Test
+    void thresholdFollowsTheRecentP95FlooredAtTheMinimumDelay() {
+        HedgedRequestExecutor hedging = hedging(properties(true, 100, 5000, 5, 1, 1));
+        for (int i = 0; i < 5; i++) {
+            execute(hedging, this::request);
+        }
+
+        // p95 de respostas imediatas fica abaixo do mínimo: o reforço sai após min-delay-ms
+        slowNext.set(true);
+        long start = System.nanoTime();
+        execute(hedging, this::request);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(1, count("fired"));
+        assertTrue(elapsedMs >= 90 && elapsedMs < SLOW_MS / 2, "resposta em " + elapsedMs + " ms");
+    }
+
+    private String request() {
+        int call = calls.incrementAndGet();
+        if (slowNext.getAndSet(false)) {
+            sleep(SLOW_MS);
+        }
+        return "resposta " + call;
+    }
+
+    private static String execute(HedgedRequestExecutor hedging, Supplier<String> request) {
+        return hedging.execute(request, response -> true, e -> "erro");
+    }
+
+    private HedgedRequestExecutor hedging(HedgingProperties properties) {
+        return new HedgedRequestExecutor("teste", "parceiro-a", executor, meterRegistry, properties);
+    }
+
+    private static HedgingProperties properties(boolean enabled, long minDelayMs, long initialDelayMs,
+                                                long minSamples, double budgetRatio, double maxTokens) {
+        return new HedgingProperties(enabled, minDelayMs, initialDelayMs, minSamples, 60000, budgetRatio, maxTokens);
+    }
+
+    private double count(String outcome) {
+        Counter counter = meterRegistry.find("external_api.hedge").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private boolean awaitCount(String outcome, double expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (count(outcome) < expected && System.nanoTime() < deadline) {
+            sleep(5);
+        }
+        return count(outcome) == expected;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
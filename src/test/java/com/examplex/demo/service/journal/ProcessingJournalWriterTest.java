@@ -0,0 +1,196 @@
+package com.examplex.demo.service.journal;
+
+import com.examplex.demo.config.ConnectionBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ProcessingJournalWriterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ConnectionBudget connectionBudget = new ConnectionBudget(new MockEnvironment(), meterRegistry);
+
+    // O writer fica preso no primeiro lote até a liberação, mantendo o buffer cheio
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ProcessingJournalWriter writer;
+
+    @AfterEach
+    void stopWriter() {
+        release.countDown();
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void dropPolicyDiscardsWhenTheBufferIsFull() throws InterruptedException {
+        holdFirstBatch();
+        writer = writer("DROP", 2, 1000);
+        occupyWriterAndFillBuffer(2);
+
+        long start = System.nanoTime();
+        writer.record(entry(4));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+        assertEquals(1, count("processing_journal.dropped"));
+        assertEquals(2, meterRegistry.get("processing_journal.buffer_size").gauge().value());
+    }
+
+    @Test
+    void blockPolicyWaitsUpToTheTimeoutBeforeDropping() throws InterruptedException {
+        holdFirstBatch();
+        writer = writer("BLOCK", 1, 100);
+        occupyWriterAndFillBuffer(1);
+
+        long start = System.nanoTime();
+        writer.record(entry(3));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waitedMs >= 90, "espera de " + waitedMs + " ms");
+        assertEquals(1, count("processing_journal.dropped"));
+    }
+
+    @Test
+    void blockPolicyKeepsTheEntryWhenSpaceFreesWithinTheTimeout() throws InterruptedException {
+        holdFirstBatch();
+        writer = writer("BLOCK", 1, 5000);
+        occupyWriterAndFillBuffer(1);
+
+        Thread releaser = new Thread(() -> {
+            sleep(100);
+            release.countDown();
+        });
+        releaser.start();
+        writer.record(entry(3));
+        releaser.join();
+
+        assertEquals(0, count("processing_journal.dropped"));
+        writer.stop();
+        writer = null;
+        assertEquals(3, count("processing_journal.written"));
+    }
+
+    @Test
+    void failedBatchesAreCountedAndNotRetried() {
+        doThrow(new IllegalStateException("banco indisponível")).when(jdbcTemplate)
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        writer = writer("DROP", 10, 0);
+
+        for (int i = 1; i <= 3; i++) {
+            writer.record(entry(i));
+        }
+        writer.stop();
+        writer = null;
+
+        assertEquals(3, count("processing_journal.failed"));
+        assertEquals(0, count("processing_journal.written"));
+        assertEquals(0, meterRegistry.get("processing_journal.buffer_size").gauge().value());
+    }
+
+    @Test
+    void batchesAreWrittenWithABackgroundConnectionPermit() throws InterruptedException {
+        holdFirstBatch();
+        writer = writer("DROP", 10, 0);
+
+        writer.record(entry(1));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Orçamento padrão de 2 conexões de segundo plano: uma ocupada pelo lote em gravação
+        assertEquals(1, meterRegistry.get("datasource.budget.background_available").gauge().value());
+        release.countDown();
+        writer.stop();
+        writer = null;
+        assertEquals(2, meterRegistry.get("datasource.budget.background_available").gauge().value());
+    }
+
+    @Test
+    void disabledJournalIgnoresEntries() {
+        writer = new ProcessingJournalWriter(jdbcTemplate, meterRegistry, connectionBudget);
+        configure(writer, false, "DROP", 10, 0);
+        writer.start();
+
+        writer.record(entry(1));
+        writer.flush();
+
+        assertEquals(0, meterRegistry.get("processing_journal.buffer_size").gauge().value());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void holdFirstBatch() {
+        doAnswer(invocation -> {
+            writing.countDown();
+            if (release.getCount() > 0) {
+                release.await();
+            }
+            return new int[0][];
+        }).when(jdbcTemplate)
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    /**
+     * O primeiro registro fica com o writer (lote de 1) e os seguintes ocupam todo o buffer
+     */
+    private void occupyWriterAndFillBuffer(int capacity) throws InterruptedException {
+        writer.record(entry(1));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < capacity; i++) {
+            writer.record(entry(2 + i));
+        }
+        assertEquals(0, count("processing_journal.dropped"));
+    }
+
+    private ProcessingJournalWriter writer(String overflowPolicy, int capacity, long blockTimeoutMs) {
+        ProcessingJournalWriter journalWriter = new ProcessingJournalWriter(jdbcTemplate, meterRegistry, connectionBudget);
+        configure(journalWriter, true, overflowPolicy, capacity, blockTimeoutMs);
+        journalWriter.start();
+        return journalWriter;
+    }
+
+    private static void configure(ProcessingJournalWriter journalWriter, boolean enabled, String overflowPolicy,
+                                  int capacity, long blockTimeoutMs) {
+        ReflectionTestUtils.setField(journalWriter, "enabled", enabled);
+        ReflectionTestUtils.setField(journalWriter, "bufferCapacity", capacity);
+        ReflectionTestUtils.setField(journalWriter, "batchSize", 1);
+        ReflectionTestUtils.setField(journalWriter, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(journalWriter, "overflowPolicy", overflowPolicy);
+        ReflectionTestUtils.setField(journalWriter, "blockTimeoutMs", blockTimeoutMs);
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static ProcessingJournalEntry entry(int itemId) {
+        return new ProcessingJournalEntry(itemId, "block", true, 200, 10L, 1, null, null, LocalDateTime.now());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.examplex.demo.service.lane;
+
+import com.examplex.demo.model.projection.LoginManagementWorkItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LaneDispatcherTest {
+
+    private static final long NO_STARVATION = Long.MAX_VALUE;
+
+    @Test
+    void returnsNullWhenAllLanesAreEmpty() {
+        LaneDispatcher dispatcher = dispatcher(weights(1, 1, 1, 1), true, NO_STARVATION);
+
+        assertNull(dispatcher.next());
+    }
+
+    @Test
+    void ignoresUnknownTypesAndItemsAlreadyAdmitted() {
+        LaneDispatcher dispatcher = dispatcher(weights(1, 1, 1, 1), true, NO_STARVATION);
+
+        assertEquals(2, dispatcher.admit(List.of(item(1, ProcessingLane.BLOCK), item(2, ProcessingLane.CREATE),
+                new LoginManagementWorkItem(3, 9999, "u3", "e3", null, null, null))));
+        assertEquals(0, dispatcher.admit(List.of(item(1, ProcessingLane.BLOCK))));
+
+        assertEquals(1, dispatcher.next().id());
+        assertEquals(2, dispatcher.next().id());
+        assertNull(dispatcher.next());
+    }
+
+    @Test
+    void servesBlockFirstWithStrictPriority() {
+        LaneDispatcher dispatcher = dispatcher(weights(1, 8, 8, 8), true, NO_STARVATION);
+        dispatcher.admit(List.of(
+                item(1, ProcessingLane.CREATE), item(2, ProcessingLane.UNBLOCK), item(3, ProcessingLane.BLOCK),
+                item(4, ProcessingLane.RESET), item(5, ProcessingLane.BLOCK)));
+
+        assertEquals(ProcessingLane.BLOCK, laneOf(dispatcher.next()));
+        assertEquals(ProcessingLane.BLOCK, laneOf(dispatcher.next()));
+        assertTrue(laneOf(dispatcher.next()) != ProcessingLane.BLOCK);
+    }
+
+    @Test
+    void sharesTurnsByWeightWithoutStrictPriority() {
+        LaneDispatcher dispatcher = dispatcher(weights(1, 3, 1, 1), false, NO_STARVATION);
+        List<LoginManagementWorkItem> items = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            if (i < 3) {
+                items.add(item(10 + i, ProcessingLane.UNBLOCK));
+            }
+            items.add(item(20 + i, ProcessingLane.CREATE));
+        }
+        dispatcher.admit(items);
+
+        // Round-robin ponderado suave 3:1 -> UNBLOCK, UNBLOCK, CREATE, UNBLOCK
+        List<ProcessingLane> served = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            served.add(laneOf(dispatcher.next()));
+        }
+        assertEquals(List.of(ProcessingLane.UNBLOCK, ProcessingLane.UNBLOCK, ProcessingLane.CREATE,
+                ProcessingLane.UNBLOCK), served);
+
+        // Com UNBLOCK esgotada, CREATE recebe todas as vagas
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ProcessingLane.CREATE, laneOf(dispatcher.next()));
+        }
+        assertNull(dispatcher.next());
+    }
+
+    @Test
+    void zeroOrMissingWeightStillGetsServed() {
+        Map<ProcessingLane, Integer> weights = new EnumMap<>(ProcessingLane.class);
+        weights.put(ProcessingLane.UNBLOCK, 0);
+        LaneDispatcher dispatcher = dispatcher(weights, false, NO_STARVATION);
+        dispatcher.admit(List.of(item(1, ProcessingLane.UNBLOCK), item(2, ProcessingLane.RESET)));
+
+        assertEquals(1, dispatcher.next().id());
+        assertEquals(2, dispatcher.next().id());
+    }
+
+    @Test
+    void starvingLaneIsServedBeforeStrictBlockPriority() {
+        LaneDispatcher dispatcher = dispatcher(weights(100, 1, 1, 1), true, 0);
+        dispatcher.admit(List.of(item(1, ProcessingLane.BLOCK), item(2, ProcessingLane.BLOCK),
+                item(3, ProcessingLane.CREATE)));
+
+        assertEquals(ProcessingLane.CREATE, laneOf(dispatcher.next()));
+        assertEquals(ProcessingLane.BLOCK, laneOf(dispatcher.next()));
+        assertEquals(ProcessingLane.BLOCK, laneOf(dispatcher.next()));
+    }
+
+    @Test
+    void blockLaneIsNeverTreatedAsStarving() {
+        LaneDispatcher dispatcher = dispatcher(weights(100, 1, 1, 1), false, 0);
+        dispatcher.admit(List.of(item(1, ProcessingLane.BLOCK), item(2, ProcessingLane.UNBLOCK)));
+
+        // Só UNBLOCK é candidata à proteção contra inanição, apesar do peso maior de BLOCK
+        assertEquals(ProcessingLane.UNBLOCK, laneOf(dispatcher.next()));
+        assertEquals(ProcessingLane.BLOCK, laneOf(dispatcher.next()));
+    }
+
+    @Test
+    void admitsNewBlocksDuringTheRun() throws InterruptedException {
+        List<LoginManagementWorkItem> refreshed = new ArrayList<>();
+        LaneDispatcher dispatcher = new LaneDispatcher(weights(8, 1, 1, 1), true, NO_STARVATION, 1,
+                () -> List.copyOf(refreshed), null);
+        dispatcher.admit(List.of(item(1, ProcessingLane.CREATE), item(2, ProcessingLane.CREATE)));
+
+        assertEquals(1, dispatcher.next().id());
+        refreshed.add(item(3, ProcessingLane.BLOCK));
+        Thread.sleep(5);
+
+        assertEquals(3, dispatcher.next().id());
+        assertEquals(2, dispatcher.next().id());
+        assertNull(dispatcher.next());
+    }
+
+    @Test
+    void refreshFailureDoesNotStopTheRun() throws InterruptedException {
+        Supplier<List<LoginManagementWorkItem>> failing = () -> {
+            throw new IllegalStateException("banco indisponível");
+        };
+        LaneDispatcher dispatcher = new LaneDispatcher(weights(1, 1, 1, 1), true, NO_STARVATION, 1, failing, null);
+        dispatcher.admit(List.of(item(1, ProcessingLane.RESET)));
+        Thread.sleep(5);
+
+        assertEquals(1, dispatcher.next().id());
+    }
+
+    @Test
+    void recordsQueueWaitOnlyWhenProcessingStarts() {
+        List<ProcessingLane> lanes = new ArrayList<>();
+        List<Duration> waits = new ArrayList<>();
+        BiConsumer<ProcessingLane, Duration> recorder = (lane, wait) -> {
+            lanes.add(lane);
+            waits.add(wait);
+        };
+        LaneDispatcher dispatcher = new LaneDispatcher(weights(1, 1, 1, 1), true, NO_STARVATION, 0, null, recorder);
+        dispatcher.admit(List.of(
+                new LoginManagementWorkItem(1, ProcessingLane.RESET.getManagementType(), "u1", "e1", null, null,
+                        LocalDateTime.now().minusMinutes(5)),
+                item(2, ProcessingLane.RESET),
+                new LoginManagementWorkItem(3, ProcessingLane.CREATE.getManagementType(), "u3", "e3", null, null,
+                        LocalDateTime.now().minusMinutes(1))));
+
+        List<LoginManagementWorkItem> taken = List.of(dispatcher.next(), dispatcher.next(), dispatcher.next());
+
+        // Retirar da fila não registra nada: o item ainda pode ser adiado
+        assertTrue(lanes.isEmpty());
+
+        taken.stream().filter(item -> laneOf(item) == ProcessingLane.RESET).forEach(dispatcher::recordStart);
+
+        // Itens sem queuedAt não são registrados; o CREATE adiado (não iniciado) também não
+        assertEquals(List.of(ProcessingLane.RESET), lanes);
+        assertTrue(waits.get(0).compareTo(Duration.ofMinutes(5)) >= 0);
+    }
+
+    @Test
+    void reportsDepthPerLane() {
+        LaneDispatcher dispatcher = dispatcher(weights(1, 1, 1, 1), true, NO_STARVATION);
+        dispatcher.admit(List.of(item(1, ProcessingLane.BLOCK), item(2, ProcessingLane.CREATE),
+                item(3, ProcessingLane.CREATE)));
+
+        Map<ProcessingLane, Integer> depths = dispatcher.depths();
+
+        assertEquals(1, depths.get(ProcessingLane.BLOCK));
+        assertEquals(0, depths.get(ProcessingLane.UNBLOCK));
+        assertEquals(2, depths.get(ProcessingLane.CREATE));
+    }
+
+    private static LaneDispatcher dispatcher(Map<ProcessingLane, Integer> weights, boolean blockStrictPriority,
+                                             long starvationThresholdMs) {
+        return new LaneDispatcher(weights, blockStrictPriority, starvationThresholdMs, 0, null, null);
+    }
+
+    private static Map<ProcessingLane, Integer> weights(int block, int unblock, int reset, int create) {
+        Map<ProcessingLane, Integer> weights = new EnumMap<>(ProcessingLane.class);
+        weights.put(ProcessingLane.BLOCK, block);
+        weights.put(ProcessingLane.UNBLOCK, unblock);
+        weights.put(ProcessingLane.RESET, reset);
+        weights.put(ProcessingLane.CREATE, create);
+        return weights;
+    }
+
+    private static LoginManagementWorkItem item(int id, ProcessingLane lane) {
+        return new LoginManagementWorkItem(id, lane.getManagementType(), "u" + id, "e" + id, null, null, null);
+    }
+
+    private static ProcessingLane laneOf(LoginManagementWorkItem item) {
+        return ProcessingLane.fromManagementType(item.managementType());
+    }
+}
@@ -0,0 +1,99 @@
+package com.examplex.demo.service.partner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestRateLimiterTest {
+
+    @Test
+    void unlimitedWhenRateIsNotPositive() throws InterruptedException {
+        for (double rate : new double[]{0, -1}) {
+            RequestRateLimiter limiter = new RequestRateLimiter(rate);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(0, limiter.acquire());
+            }
+        }
+    }
+
+    @Test
+    void allowsABurstOfOneSecondOfRequests() throws InterruptedException {
+        RequestRateLimiter limiter = new RequestRateLimiter(5);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.acquire(), "requisição " + (i + 1) + " da rajada");
+        }
+    }
+
+    @Test
+    void waitsForTheNextPermitAfterTheBurst() throws InterruptedException {
+        RequestRateLimiter limiter = new RequestRateLimiter(5);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+        }
+
+        long waitMs = TimeUnit.NANOSECONDS.toMillis(limiter.acquire());
+
+        // Uma permissão a cada 200 ms
+        assertTrue(waitMs > 150 && waitMs <= 200, "espera de " + waitMs + " ms");
+    }
+
+    @Test
+    void concurrentWaitersAccumulateDebt() throws Exception {
+        RequestRateLimiter limiter = new RequestRateLimiter(10);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+        }
+
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> acquireMs(limiter));
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> acquireMs(limiter));
+        long shorter = Math.min(first.get(), second.get());
+        long longer = Math.max(first.get(), second.get());
+
+        // Cada reserva fica com a próxima permissão livre: 100 ms e 200 ms
+        assertTrue(shorter > 50 && shorter <= 100, "primeira espera de " + shorter + " ms");
+        assertTrue(longer > 150 && longer <= 200, "segunda espera de " + longer + " ms");
+    }
+
+    @Test
+    void idleTimeRefillsUpToTheBurstOnly() throws InterruptedException {
+        RequestRateLimiter limiter = new RequestRateLimiter(20);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+        }
+        Thread.sleep(1500);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, limiter.acquire(), "requisição " + (i + 1) + " após a pausa");
+        }
+        assertTrue(limiter.acquire() > 0);
+    }
+
+    @Test
+    void tryAcquireOnlyUsesAFreePermit() throws InterruptedException {
+        RequestRateLimiter limiter = new RequestRateLimiter(2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        // Sem reservar: a próxima permissão continua disponível em 500 ms para acquire()
+        long waitMs = TimeUnit.NANOSECONDS.toMillis(limiter.acquire());
+        assertTrue(waitMs > 400 && waitMs <= 500, "espera de " + waitMs + " ms");
+        assertTrue(new RequestRateLimiter(0).tryAcquire());
+    }
+
+    private static long acquireMs(RequestRateLimiter limiter) {
+        try {
+            return TimeUnit.NANOSECONDS.toMillis(limiter.acquire());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
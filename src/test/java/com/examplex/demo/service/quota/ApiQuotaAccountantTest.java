@@ -0,0 +1,196 @@
+package com.examplex.demo.service.quota;
+
+import com.examplex.demo.config.ApiQuotaProperties;
+import com.examplex.demo.service.lane.ProcessingLane;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiQuotaAccountantTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2026, 3, 10, 10, 15);
+
+    @Test
+    void treatsOnlyConfiguredLanesAsBulk() {
+        ApiQuotaAccountant accountant = accountant(properties());
+
+        assertTrue(accountant.isBulk(ProcessingLane.CREATE));
+        assertFalse(accountant.isBulk(ProcessingLane.BLOCK));
+        assertFalse(accountant.isBulk(ProcessingLane.RESET));
+        assertFalse(accountant.isBulk(null));
+    }
+
+    @Test
+    void isAlwaysOffPeakWithoutWindows() {
+        ApiQuotaAccountant accountant = accountant(properties());
+
+        assertTrue(accountant.isOffPeak(LocalTime.NOON));
+        assertTrue(accountant.isOffPeak(LocalTime.MIDNIGHT));
+    }
+
+    @Test
+    void offPeakWindowsMayCrossMidnight() {
+        ApiQuotaProperties properties = properties();
+        properties.getBulk().setWindows(List.of("20:00-07:00", "12:00-13:30"));
+        ApiQuotaAccountant accountant = accountant(properties);
+
+        assertTrue(accountant.isOffPeak(LocalTime.of(20, 0)));
+        assertTrue(accountant.isOffPeak(LocalTime.of(23, 59)));
+        assertTrue(accountant.isOffPeak(LocalTime.MIDNIGHT));
+        assertTrue(accountant.isOffPeak(LocalTime.of(6, 59)));
+        assertFalse(accountant.isOffPeak(LocalTime.of(7, 0)));
+        assertFalse(accountant.isOffPeak(LocalTime.of(19, 59)));
+        assertTrue(accountant.isOffPeak(LocalTime.of(12, 0)));
+        assertFalse(accountant.isOffPeak(LocalTime.of(13, 30)));
+    }
+
+    @Test
+    void defersBulkOutsideTheOffPeakWindows() {
+        ApiQuotaProperties properties = properties();
+        properties.getBulk().setWindows(List.of("20:00-07:00"));
+        ApiQuotaAccountant accountant = accountant(properties);
+
+        assertTrue(accountant.bulkDeferralReason("a", MORNING).contains("fora da janela"));
+        assertNull(accountant.bulkDeferralReason("a", MORNING.withHour(22)));
+    }
+
+    @Test
+    void rejectsInvalidWindows() {
+        ApiQuotaProperties properties = properties();
+        properties.getBulk().setWindows(List.of("20:00"));
+
+        assertThrows(IllegalStateException.class, () -> accountant(properties));
+    }
+
+    @Test
+    void defersBulkOnceItsShareOfABudgetIsUsed() {
+        ApiQuotaProperties properties = properties();
+        properties.getBudgets().put("create_user", budget(10, 0));
+        ApiQuotaAccountant accountant = accountant(properties);
+
+        record(accountant, "a", "create_user", 4, MORNING);
+        assertNull(accountant.bulkDeferralReason("a", MORNING));
+
+        record(accountant, "a", "create_user", 1, MORNING);
+        assertTrue(accountant.bulkDeferralReason("a", MORNING).contains("create_user/hora"));
+    }
+
+    @Test
+    void callsOfOtherOperationsDoNotCountAgainstTheBudget() {
+        ApiQuotaProperties properties = properties();
+        properties.getBudgets().put("create_user", budget(10, 0));
+        ApiQuotaAccountant accountant = accountant(properties);
+
+        record(accountant, "a", "block", 100, MORNING);
+
+        assertNull(accountant.bulkDeferralReason("a", MORNING));
+    }
+
+    @Test
+    void hourlyUsageResetsWhenTheHourRolls() {
+        ApiQuotaProperties properties = properties();
+        properties.getBudgets().put("create_user", budget(10, 0));
+        ApiQuotaAccountant accountant = accountant(properties);
+
+        record(accountant, "a", "create_user", 5, MORNING.withMinute(59));
+        assertTrue(accountant.bulkDeferralReason("a", MORNING.withMinute(59)) != null);
+
+        assertNull(accountant.bulkDeferralReason("a", MORNING.withHour(11).withMinute(0)));
+    }
+
+    @Test
+    void dailyUsageResetsAtMidnight() {
+        ApiQuotaProperties properties = properties();
+        properties.getBudgets().put("create_user", budget(0, 10));
+        ApiQuotaAccountant accountant = accountant(properties);
+        LocalDateTime lateNight = LocalDateTime.of(2026, 3, 10, 23, 50);
+
+        record(accountant, "a", "create_user", 3, lateNight.withHour(9));
+        record(accountant, "a", "create_user", 2, lateNight);
+        assertTrue(accountant.bulkDeferralReason("a", lateNight).contains("create_user/dia"));
+
+        assertNull(accountant.bulkDeferralReason("a", lateNight.plusMinutes(15)));
+    }
+
+    @Test
+    void keepsUsageSeparatePerPartner() {
+        ApiQuotaProperties properties = properties();
+        properties.getBudgets().put("create_user", budget(10, 0));
+        ApiQuotaAccountant accountant = accountant(properties);
+
+        record(accountant, "a", "create_user", 10, MORNING);
+
+        assertTrue(accountant.bulkDeferralReason("a", MORNING).contains("parceiro a"));
+        assertNull(accountant.bulkDeferralReason("b", MORNING));
+    }
+
+    @Test
+    void partnerBudgetOverridesTheDefault() {
+        ApiQuotaProperties properties = properties();
+        properties.getBudgets().put("create_user", budget(10, 0));
+        properties.getPartners().put("b", Map.of("create_user", budget(2, 0)));
+        ApiQuotaAccountant accountant = accountant(properties);
+
+        record(accountant, "a", "create_user", 1, MORNING);
+        record(accountant, "b", "create_user", 1, MORNING);
+
+        assertNull(accountant.bulkDeferralReason("a", MORNING));
+        assertTrue(accountant.bulkDeferralReason("b", MORNING) != null);
+    }
+
+    @Test
+    void eachInstanceUsesItsShareOfTheBudget() {
+        ApiQuotaProperties properties = properties();
+        properties.setInstances(2);
+        properties.getBudgets().put("create_user", budget(10, 0));
+        ApiQuotaAccountant accountant = accountant(properties);
+
+        record(accountant, "a", "create_user", 2, MORNING);
+        assertNull(accountant.bulkDeferralReason("a", MORNING));
+
+        // 10 / 2 instâncias = 5 por instância; fração do lote 0,5 -> adiado a partir de 3 chamadas
+        record(accountant, "a", "create_user", 1, MORNING);
+        assertTrue(accountant.bulkDeferralReason("a", MORNING) != null);
+    }
+
+    @Test
+    void rejectsLessThanOneInstance() {
+        ApiQuotaProperties properties = properties();
+        properties.setInstances(0);
+
+        assertThrows(IllegalStateException.class, () -> accountant(properties));
+    }
+
+    private static ApiQuotaProperties properties() {
+        ApiQuotaProperties properties = new ApiQuotaProperties();
+        properties.getBulk().setShare(0.5);
+        return properties;
+    }
+
+    private static ApiQuotaProperties.Budget budget(long hourly, long daily) {
+        ApiQuotaProperties.Budget budget = new ApiQuotaProperties.Budget();
+        budget.setHourly(hourly);
+        budget.setDaily(daily);
+        return budget;
+    }
+
+    private static ApiQuotaAccountant accountant(ApiQuotaProperties properties) {
+        return new ApiQuotaAccountant(properties, new SimpleMeterRegistry());
+    }
+
+    private static void record(ApiQuotaAccountant accountant, String partnerId, String operation, int calls,
+                               LocalDateTime now) {
+        for (int i = 0; i < calls; i++) {
+            accountant.record(partnerId, operation, now);
+        }
+    }
+}
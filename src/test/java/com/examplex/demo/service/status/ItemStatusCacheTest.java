@@ -0,0 +1,164 @@
+package com.examplex.demo.service.status;
+
+import com.examplex.demo.model.projection.LoginManagementStatusView;
+import com.examplex.demo.repository.LoginManagementHistoryRepository;
+import com.examplex.demo.repository.LoginManagementRepository;
+import com.examplex.demo.service.event.ItemStatusEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemStatusCacheTest {
+
+    private static final int QUEUE = -4106;
+    private static final int SUCCESS = -4107;
+    private static final LocalDateTime CHANGED_AT = LocalDateTime.of(2026, 3, 10, 10, 15);
+
+    private final LoginManagementRepository repository = mock(LoginManagementRepository.class);
+    private final LoginManagementHistoryRepository historyRepository = mock(LoginManagementHistoryRepository.class);
+
+    private ItemStatusCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemStatusCache(repository, historyRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "expireAfterWriteMs", 60000L);
+        ReflectionTestUtils.setField(cache, "keyIndexExpireAfterWriteMs", 60000L);
+        cache.init();
+    }
+
+    @Test
+    void loadsAnItemOnceAndServesItFromTheCache() {
+        when(repository.findStatusViewById(1)).thenReturn(Optional.of(view(1, "u1", "e1", QUEUE)));
+
+        assertEquals(QUEUE, cache.findById(1).orElseThrow().managementStatus());
+        assertEquals(QUEUE, cache.findById(1).orElseThrow().managementStatus());
+
+        verify(repository, times(1)).findStatusViewById(1);
+    }
+
+    @Test
+    void doesNotCacheMissingItems() {
+        when(repository.findStatusViewById(1)).thenReturn(Optional.empty());
+
+        assertTrue(cache.findById(1).isEmpty());
+        assertTrue(cache.findById(1).isEmpty());
+
+        verify(repository, times(2)).findStatusViewById(1);
+    }
+
+    @Test
+    void writesStatusChangesThroughToCachedItems() {
+        when(repository.findStatusViewById(1)).thenReturn(Optional.of(view(1, "u1", "e1", QUEUE)));
+        cache.findById(1);
+
+        cache.onStatusChange(event(1, null, SUCCESS, "Bloqueado com sucesso"));
+
+        LoginManagementStatusView updated = cache.findById(1).orElseThrow();
+        assertEquals(SUCCESS, updated.managementStatus());
+        assertEquals("Bloqueado com sucesso", updated.logAlteracaoRastro());
+        assertEquals(CHANGED_AT, updated.dataAlteracao());
+        // Evento sem externalKey mantém o valor atual
+        assertEquals("e1", updated.externalKey());
+        verify(repository, times(1)).findStatusViewById(1);
+    }
+
+    @Test
+    void updatesTheExternalKeyWrittenWithTheStatus() {
+        when(repository.findStatusViewById(1)).thenReturn(Optional.of(view(1, "u1", null, QUEUE)));
+        cache.findById(1);
+
+        cache.onStatusChange(event(1, "uuid-criado", SUCCESS, "Usuário criado"));
+
+        assertEquals("uuid-criado", cache.findById(1).orElseThrow().externalKey());
+    }
+
+    @Test
+    void ignoresStatusChangesOfItemsNotInTheCache() {
+        when(repository.findStatusViewById(1)).thenReturn(Optional.of(view(1, "u1", "e1", QUEUE)));
+
+        cache.onStatusChange(event(1, null, SUCCESS, "Bloqueado com sucesso"));
+
+        assertEquals(QUEUE, cache.findById(1).orElseThrow().managementStatus());
+        verify(repository, times(1)).findStatusViewById(1);
+    }
+
+    @Test
+    void latestItemByKeyFollowsStatusChanges() {
+        when(repository.findStatusViewsByUserCode(eq("u1"), any(Pageable.class)))
+                .thenReturn(List.of(view(1, "u1", "e1", QUEUE)));
+
+        assertEquals(1, cache.findLatestByUserCode("u1").orElseThrow().id());
+        cache.onStatusChange(event(1, null, SUCCESS, "Bloqueado com sucesso"));
+
+        assertEquals(SUCCESS, cache.findLatestByUserCode("u1").orElseThrow().managementStatus());
+        // O mesmo item, já em cache, atende por id
+        assertEquals(SUCCESS, cache.findById(1).orElseThrow().managementStatus());
+        verify(repository, times(1)).findStatusViewsByUserCode(eq("u1"), any(Pageable.class));
+    }
+
+    @Test
+    void evictedKeysAreLoadedAgain() {
+        when(repository.findStatusViewsByExternalKey(eq("e1"), any(Pageable.class)))
+                .thenReturn(List.of(view(1, "u1", "e1", SUCCESS)), List.of(view(2, "u1", "e1", QUEUE)));
+        cache.findLatestByExternalKey("e1");
+
+        // Novo item enfileirado para a mesma chave
+        cache.evictKeys("u1", "e1");
+
+        assertEquals(2, cache.findLatestByExternalKey("e1").orElseThrow().id());
+    }
+
+    @Test
+    void archivedItemsAreFoundInTheHistory() {
+        when(repository.findStatusViewById(1)).thenReturn(Optional.empty());
+        when(historyRepository.findStatusViewById(1)).thenReturn(Optional.of(view(1, "u1", "e1", SUCCESS)));
+
+        assertEquals(SUCCESS, cache.findById(1).orElseThrow().managementStatus());
+        cache.findById(1);
+
+        verify(historyRepository, times(1)).findStatusViewById(1);
+    }
+
+    @Test
+    void latestItemFallsBackToTheHistoryOnlyWhenTheMainTableHasNone() {
+        when(repository.findStatusViewsByUserCode(eq("u1"), any(Pageable.class)))
+                .thenReturn(List.of(view(2, "u1", "e1", QUEUE)));
+        when(repository.findStatusViewsByUserCode(eq("u2"), any(Pageable.class))).thenReturn(List.of());
+        when(historyRepository.findLatestStatusViewByUserCode("u2")).thenReturn(List.of(view(1, "u2", "e2", SUCCESS)));
+
+        assertEquals(2, cache.findLatestByUserCode("u1").orElseThrow().id());
+        assertEquals(1, cache.findLatestByUserCode("u2").orElseThrow().id());
+        assertTrue(cache.findLatestByExternalKey("e3").isEmpty());
+
+        verify(historyRepository, never()).findLatestStatusViewByUserCode("u1");
+        verify(historyRepository).findLatestStatusViewByExternalKey("e3");
+    }
+
+    private static LoginManagementStatusView view(int id, String userCode, String externalKey, int status) {
+        return new LoginManagementStatusView(id, -4104, status, userCode, externalKey, 10, "Enfileirado",
+                CHANGED_AT.minusHours(1));
+    }
+
+    private static ItemStatusEvent event(int itemId, String externalKey, int status, String message) {
+        return new ItemStatusEvent(itemId, 10, -4104, "u1", externalKey, status, "SUCCESS", message, null,
+                CHANGED_AT);
+    }
+}
@@ -0,0 +1,89 @@
+package com.examplex.demo.service.token;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileTokenStoreTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsTokensPerKeyAcrossRestarts() {
+        FileTokenStore store = store();
+        store.save("a", new StoredToken("token-a", 1000));
+        store.save("b", new StoredToken("token-b", 2000));
+
+        FileTokenStore restarted = store();
+
+        assertEquals(new StoredToken("token-a", 1000), restarted.load("a").orElseThrow());
+        assertEquals(new StoredToken("token-b", 2000), restarted.load("b").orElseThrow());
+        assertTrue(restarted.load("c").isEmpty());
+        assertFalse(Files.exists(dir.resolve("token.json.tmp")));
+    }
+
+    @Test
+    void clearKeepsATokenAlreadyRenewedByAnotherInstance() {
+        FileTokenStore store = store();
+        store.save("a", new StoredToken("renovado", 1000));
+
+        store.clear("a", "antigo");
+        assertEquals("renovado", store.load("a").orElseThrow().accessToken());
+
+        store.clear("a", "renovado");
+        assertTrue(store.load("a").isEmpty());
+    }
+
+    @Test
+    void unreadableFileIsIgnoredAndReplacedOnSave() throws Exception {
+        Files.writeString(dir.resolve("token.json"), "{corrompido");
+        FileTokenStore store = store();
+
+        assertTrue(store.load("a").isEmpty());
+
+        store.save("a", new StoredToken("token-a", 1000));
+        assertEquals("token-a", store().load("a").orElseThrow().accessToken());
+    }
+
+    @Test
+    void renewalLockIsExclusiveAcrossInstancesUntilTheOwnerReleasesIt() {
+        FileTokenStore first = store();
+        FileTokenStore second = store();
+
+        assertTrue(first.tryLock("a", "instancia-1", LEASE));
+        assertFalse(first.tryLock("a", "instancia-2", LEASE));
+        assertFalse(second.tryLock("a", "instancia-2", LEASE));
+
+        // Só o dono libera o lock
+        first.unlock("a", "instancia-2");
+        assertFalse(second.tryLock("a", "instancia-2", LEASE));
+
+        first.unlock("a", "instancia-1");
+        assertTrue(second.tryLock("a", "instancia-2", LEASE));
+    }
+
+    @Test
+    void locksOfDifferentKeysAreIndependent() {
+        FileTokenStore store = store();
+
+        assertTrue(store.tryLock("a", "instancia-1", LEASE));
+        assertTrue(store.tryLock("b", "instancia-1", LEASE));
+    }
+
+    private FileTokenStore store() {
+        return new FileTokenStore(dir.resolve("token.json"), objectMapper);
+    }
+}
@@ -0,0 +1,116 @@
+package com.examplex.demo.service.token;
+
+import com.examplex.demo.config.ConnectionBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class JdbcTokenStoreTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    // Comandos executados (SQL seguido dos parâmetros) e as linhas afetadas a devolver, em ordem
+    private final List<Object[]> updates = new ArrayList<>();
+    private final Deque<Integer> affectedRows = new ArrayDeque<>();
+
+    private JdbcTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            updates.add(invocation.getArguments());
+            return affectedRows.isEmpty() ? 1 : affectedRows.poll();
+        }).when(jdbcTemplate).update(anyString(), any(Object[].class));
+        store = new JdbcTokenStore(jdbcTemplate, new ConnectionBudget(new MockEnvironment(), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void leaseIsTakenForItsDurationAndAlsoWhenTheCurrentOneExpired() {
+        long before = System.currentTimeMillis();
+
+        assertTrue(store.tryLock("icred", "instancia-1", Duration.ofSeconds(30)));
+
+        assertTrue(sql(0).startsWith("INSERT INTO crm_Login_Management_Token"));
+        Object[] lock = params(1);
+        long until = (long) lock[1];
+        long now = (long) lock[3];
+        assertEquals("instancia-1", lock[0]);
+        assertEquals("icred", lock[2]);
+        assertEquals(30000, until - now);
+        assertTrue(now >= before && now <= System.currentTimeMillis());
+        // Lease livre, vencido (outra instância caiu sem liberar) ou já nosso
+        assertTrue(sql(1).contains("LockOwner IS NULL OR crm_Login_Management_Token_LockUntilMs < ? "
+                + "OR crm_Login_Management_Token_LockOwner = ?"));
+        assertEquals("instancia-1", lock[4]);
+    }
+
+    @Test
+    void leaseHeldByAnotherOwnerIsRefused() {
+        affectedRows.add(0);
+        affectedRows.add(0);
+
+        assertFalse(store.tryLock("icred", "instancia-2", Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void unlockOnlyReleasesTheOwnLease() {
+        store.unlock("icred", "instancia-1");
+
+        assertTrue(sql(0).endsWith("crm_Login_Management_Token_LockOwner = ?"));
+        assertEquals(List.of("icred", "instancia-1"), Arrays.asList(params(0)));
+    }
+
+    @Test
+    void saveCreatesTheRowOnFirstUse() {
+        affectedRows.add(0);
+
+        store.save("icred", new StoredToken("token", 1000));
+
+        assertEquals(3, updates.size());
+        assertTrue(sql(0).startsWith("UPDATE crm_Login_Management_Token SET crm_Login_Management_Token_AccessToken"));
+        assertTrue(sql(1).startsWith("INSERT INTO crm_Login_Management_Token"));
+        assertEquals(sql(0), sql(2));
+        assertEquals(List.of("token", 1000L, "icred"), Arrays.asList(params(2)));
+    }
+
+    @Test
+    void saveUpdatesAnExistingRowOnce() {
+        store.save("icred", new StoredToken("token", 1000));
+
+        assertEquals(1, updates.size());
+    }
+
+    @Test
+    void clearOnlyRemovesTheInformedToken() {
+        store.clear("icred", "antigo");
+
+        assertTrue(sql(0).endsWith("crm_Login_Management_Token_AccessToken = ?"));
+        assertEquals(List.of("icred", "antigo"), Arrays.asList(params(0)));
+    }
+
+    private String sql(int index) {
+        return (String) updates.get(index)[0];
+    }
+
+    private Object[] params(int index) {
+        Object[] update = updates.get(index);
+        return Arrays.copyOfRange(update, 1, update.length);
+    }
+}
@@ -0,0 +1,39 @@
+package com.examplex.demo.service.userstate;
+
+import com.examplex.demo.model.dto.ApiResponseDto;
+import com.examplex.demo.service.userstate.IcredUserStateCache.UserState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IcredUserStateCacheTest {
+
+    @Test
+    void recognizesTheAlreadyInStateResponses() {
+        assertEquals(UserState.ACTIVE, IcredUserStateCache.alreadyInState(
+                failure(422, "{\"code\":\"ALREADY_ACTIVE\"}")));
+        assertEquals(UserState.BLOCKED, IcredUserStateCache.alreadyInState(
+                failure(422, "{\"code\":\"ALREADY_BLOCKED\"}")));
+    }
+
+    @Test
+    void recognizesTheStatusInTheMessageWhenItWasNotCaptured() {
+        ApiResponseDto response = new ApiResponseDto(false, "Erro HTTP: 422 - ALREADY_ACTIVE", null);
+
+        assertEquals(UserState.ACTIVE, IcredUserStateCache.alreadyInState(response));
+    }
+
+    @Test
+    void otherResponsesAreNotANoOp() {
+        // Mesmo código com outro status, 422 com outro motivo e sucesso
+        assertNull(IcredUserStateCache.alreadyInState(failure(409, "ALREADY_ACTIVE")));
+        assertNull(IcredUserStateCache.alreadyInState(failure(422, "{\"code\":\"INVALID_USER\"}")));
+        assertNull(IcredUserStateCache.alreadyInState(new ApiResponseDto(true, "ALREADY_ACTIVE", null)));
+        assertNull(IcredUserStateCache.alreadyInState(null));
+    }
+
+    private static ApiResponseDto failure(int status, String body) {
+        return new ApiResponseDto(false, "Erro HTTP: " + status, null, status, 10L, body);
+    }
+}